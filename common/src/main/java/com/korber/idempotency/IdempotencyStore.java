@@ -0,0 +1,163 @@
+package com.korber.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, expiring record of responses to requests that carried an {@code Idempotency-Key}. A
+ * repeated key gets the original response replayed instead of running the mutation again; a
+ * duplicate that arrives while the original is still running waits for its response. A repeated key
+ * with a different request body is a client error, not a retry, and is answered with 422.
+ *
+ * Keys and bodies are stored as 128-bit digests (of the endpoint and the client's key, and of the
+ * body's JSON), so an entry costs the same whatever the client sends. 5xx responses and exceptions
+ * are not kept, so they can be retried.
+ */
+@Component
+public class IdempotencyStore implements MeterBinder {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Digest, Entry> responses;
+    private final ConcurrentMap<Digest, Entry> responsesMap;
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+
+    public IdempotencyStore(ObjectMapper objectMapper,
+                            @Value("${idempotency.max-keys:100000}") long maxKeys,
+                            @Value("${idempotency.ttl-ms:600000}") long ttlMs) {
+        this.objectMapper = objectMapper;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        this.responsesMap = responses.asMap();
+    }
+
+    /**
+     * Runs the action once per key; without a key it always runs.
+     * @param endpoint Name of the endpoint, so the same client key on two endpoints does not collide
+     * @param idempotencyKey Client-supplied key, may be null
+     * @param request Request body, compared with the body that first used the key; null when there is none
+     */
+    public <T> ResponseEntity<T> execute(String endpoint, String idempotencyKey, Object request,
+                                         Supplier<ResponseEntity<T>> action) {
+        CompletableFuture<ResponseEntity<T>> response = executeAsync(endpoint, idempotencyKey, request, () -> {
+            try {
+                return CompletableFuture.completedFuture(action.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<ResponseEntity<T>> executeAsync(String endpoint, String idempotencyKey, Object request,
+                                                                 Supplier<CompletableFuture<ResponseEntity<T>>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        Digest key = Digest.of((endpoint + '\n' + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+        CompletableFuture<ResponseEntity<?>> pending = new CompletableFuture<>();
+        Entry entry = new Entry(fingerprint(request), pending);
+        Entry original = responsesMap.putIfAbsent(key, entry);
+        if (original != null) {
+            if (!original.body().equals(entry.body())) {
+                mismatches.increment();
+                return CompletableFuture.completedFuture(ResponseEntity.unprocessableEntity().build());
+            }
+            replays.increment();
+            return original.response().thenApply(response -> (ResponseEntity<T>) replayed(response));
+        }
+
+        CompletableFuture<ResponseEntity<T>> result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((response, failure) -> {
+            if (failure != null || response.getStatusCode().is5xxServerError()) {
+                responsesMap.remove(key, entry);
+            }
+            if (failure != null) {
+                pending.completeExceptionally(failure);
+            } else {
+                pending.complete(response);
+            }
+        });
+        return pending.thenApply(response -> (ResponseEntity<T>) response);
+    }
+
+    private Digest fingerprint(Object request) {
+        if (request == null) {
+            return Digest.NONE;
+        }
+        try {
+            return Digest.of(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint request body", e);
+        }
+    }
+
+    private static ResponseEntity<?> replayed(ResponseEntity<?> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, responses, "idempotency");
+        FunctionCounter.builder("idempotency.replays", replays, LongAdder::sum)
+                .description("Requests answered with the response of an earlier request carrying the same Idempotency-Key")
+                .register(registry);
+        FunctionCounter.builder("idempotency.mismatches", mismatches, LongAdder::sum)
+                .description("Requests rejected because their Idempotency-Key was first used with a different body")
+                .register(registry);
+    }
+
+    /**
+     * Two longs instead of the client's string or body; collisions are as unlikely as for a random UUID.
+     */
+    private record Digest(long high, long low) {
+        static final Digest NONE = new Digest(0, 0);
+
+        static Digest of(byte[] bytes) {
+            UUID digest = UUID.nameUUIDFromBytes(bytes);
+            return new Digest(digest.getMostSignificantBits(), digest.getLeastSignificantBits());
+        }
+    }
+
+    private record Entry(Digest body, CompletableFuture<ResponseEntity<?>> response) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.korber.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private final IdempotencyStore store = new IdempotencyStore(new ObjectMapper(), 100, 60_000);
+
+    @Test
+    void testExecute_SameKeyAndBody_Replayed() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        store.execute("order", "key-1", Map.of("quantity", 10), () -> ResponseEntity.ok(calls.incrementAndGet()));
+        ResponseEntity<Integer> retry =
+                store.execute("order", "key-1", Map.of("quantity", 10), () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+        // Then
+        assertEquals(1, retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testExecute_SameKeyDifferentBody_Unprocessable() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        store.execute("order", "key-2", Map.of("quantity", 10), () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+        // When
+        ResponseEntity<Integer> reused =
+                store.execute("order", "key-2", Map.of("quantity", 20), () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+        // Then - the second body never runs, and the original response stays on record
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+        assertEquals(1, calls.get());
+        assertEquals(1, store.execute("order", "key-2", Map.of("quantity", 10),
+                () -> ResponseEntity.ok(calls.incrementAndGet())).getBody());
+    }
+
+    @Test
+    void testExecute_SameKeyOnAnotherEndpoint_RunsAgain() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        store.execute("hold/1/release", "key-3", null, () -> ResponseEntity.ok(calls.incrementAndGet()));
+        ResponseEntity<Integer> other =
+                store.execute("hold/2/release", "key-3", null, () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+        // Then
+        assertEquals(2, other.getBody());
+        assertEquals(2, calls.get());
+    }
+}
@@ -0,0 +1,72 @@
+package com.korber.benchmark;
+
+import com.korber.factory.InventoryHandlerFactory;
+import com.korber.handler.impl.FIFOInventoryHandler;
+import com.korber.handler.impl.FewestBatchesInventoryHandler;
+import com.korber.handler.impl.LIFOInventoryHandler;
+import com.korber.handler.impl.MinShelfLifeInventoryHandler;
+import com.korber.model.InventoryBatch;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic batch lists for one product, sorted by expiry date like the repository returns them.
+ */
+final class Batches {
+    static final int BATCH_QUANTITY = 50;
+
+    private Batches() {
+    }
+
+    /**
+     * @param count Number of batches
+     * @param fragmentation Fraction of batches that are depleted, spread randomly over the list;
+     *                      the last batch always holds stock
+     */
+    static List<InventoryBatch> of(int count, double fragmentation) {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate firstExpiry = LocalDate.now();
+        List<InventoryBatch> batches = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean depleted = i < count - 1 && random.nextDouble() < fragmentation;
+            int quantity = depleted ? 0 : BATCH_QUANTITY;
+            batches.add(new InventoryBatch((long) i + 1, 1001L, "Laptop", quantity, firstExpiry.plusDays(i), 0L));
+        }
+        return batches;
+    }
+
+    /**
+     * Batches of 1 to 100 units, so strategies that look at batch sizes have something to choose from.
+     * Expiries start today, one day apart.
+     */
+    static List<InventoryBatch> ofVariedSizes(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate firstExpiry = LocalDate.now();
+        List<InventoryBatch> batches = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batches.add(new InventoryBatch((long) i + 1, 1001L, "Laptop", 1 + random.nextInt(100), firstExpiry.plusDays(i), 0L));
+        }
+        return batches;
+    }
+
+    /**
+     * Factory with every built-in strategy registered, as Spring wires it.
+     */
+    static InventoryHandlerFactory handlerFactory() {
+        InventoryHandlerFactory factory = new InventoryHandlerFactory(new FIFOInventoryHandler(),
+                new MinShelfLifeInventoryHandler(7), new LIFOInventoryHandler(), new FewestBatchesInventoryHandler());
+        factory.init();
+        return factory;
+    }
+
+    static int totalQuantity(List<InventoryBatch> batches) {
+        int total = 0;
+        for (InventoryBatch batch : batches) {
+            total += batch.getQuantity();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,86 @@
+package com.korber.benchmark;
+
+import com.korber.InventoryServiceApplication;
+import com.korber.dto.InventoryBulkUpdateRequest;
+import com.korber.dto.InventoryBulkUpdateResponse;
+import com.korber.dto.InventoryUpdateRequest;
+import com.korber.dto.InventoryUpdateResponse;
+import com.korber.service.InventoryService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An order of N lines reserved as N single-line reservations (one transaction each, as the single-line
+ * order path does) and as one bulk reservation of N lines (one transaction, one batch query, one JDBC
+ * batch of updates). Runs the real service on the in-memory database with the perf profile; lines
+ * cycle over the five seeded products, one unit each, and stock is refilled before every iteration.
+ * Hibernate and the JDBC path take long to reach steady state, hence the long warmup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 25, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class BulkReservationBenchmark {
+
+    private static final long[] PRODUCT_IDS = {1001L, 1002L, 1003L, 1004L, 1005L};
+
+    @Param({"1", "10", "30"})
+    private int lines;
+
+    private ConfigurableApplicationContext context;
+    private InventoryService inventoryService;
+    private JdbcTemplate jdbcTemplate;
+    private List<InventoryUpdateRequest> items;
+    private InventoryBulkUpdateRequest bulkRequest;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(InventoryServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("perf")
+                .run("--spring.datasource.url=jdbc:h2:mem:bulk_reservation_" + lines + ";DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN");
+        inventoryService = context.getBean(InventoryService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            items.add(new InventoryUpdateRequest(PRODUCT_IDS[i % PRODUCT_IDS.length], 1));
+        }
+        bulkRequest = new InventoryBulkUpdateRequest(items);
+    }
+
+    @Setup(Level.Iteration)
+    public void restock() {
+        // Enough for any iteration, so no reservation is rejected for stock
+        jdbcTemplate.update("UPDATE inventory_batch SET quantity = 100000000");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void singleLineReservations(Blackhole blackhole) {
+        for (InventoryUpdateRequest item : items) {
+            InventoryUpdateResponse response = inventoryService.updateInventory(item);
+            blackhole.consume(response);
+        }
+    }
+
+    @Benchmark
+    public InventoryBulkUpdateResponse bulkReservation() {
+        return inventoryService.updateInventoryBulk(bulkRequest);
+    }
+}
@@ -0,0 +1,41 @@
+package com.korber.benchmark;
+
+import com.korber.factory.InventoryHandlerFactory;
+import com.korber.handler.InventoryHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Strategy lookup on every reservation: a registered type and the fallback for an unknown one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandlerFactoryBenchmark {
+
+    private InventoryHandlerFactory factory;
+    private String registeredType;
+    private String unknownType;
+
+    @Setup
+    public void setUp() {
+        factory = Batches.handlerFactory();
+        // Built at runtime so the lookups cannot be constant-folded
+        registeredType = new String("FIFO");
+        unknownType = new String("UNKNOWN");
+    }
+
+    @Benchmark
+    public InventoryHandler registeredHandler() {
+        return factory.getHandler(registeredType);
+    }
+
+    @Benchmark
+    public InventoryHandler fallbackHandler() {
+        return factory.getHandler(unknownType);
+    }
+}
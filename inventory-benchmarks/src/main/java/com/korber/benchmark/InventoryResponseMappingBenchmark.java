@@ -0,0 +1,65 @@
+package com.korber.benchmark;
+
+import com.korber.cache.InventoryResponseCache;
+import com.korber.concurrency.ProductLockStripes;
+import com.korber.dto.InventoryResponse;
+import com.korber.factory.InventoryHandlerFactory;
+import com.korber.hold.HoldExpiryQueue;
+import com.korber.metrics.ReservationMetrics;
+import com.korber.model.InventoryBatch;
+import com.korber.repository.InventoryBatchRepository;
+import com.korber.service.impl.InventoryServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getInventoryByProductId without a database: the repository returns a prepared batch list, so the
+ * uncached case measures batch-to-DTO mapping and the cached case measures a read-cache hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryResponseMappingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int batchCount;
+
+    @Param({"false", "true"})
+    private boolean cached;
+
+    private InventoryServiceImpl inventoryService;
+
+    @Setup
+    public void setUp() {
+        List<InventoryBatch> batches = Batches.of(batchCount, 0.0);
+        InventoryBatchRepository repository = (InventoryBatchRepository) Proxy.newProxyInstance(
+                InventoryBatchRepository.class.getClassLoader(),
+                new Class<?>[]{InventoryBatchRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAvailableByProductId" -> batches;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InventoryBatchRepository stub";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+
+        // A zero TTL expires every entry on write, so each call goes through the loader; holds are not exercised
+        InventoryResponseCache responseCache = new InventoryResponseCache(1000, cached ? 60_000 : 0);
+        InventoryHandlerFactory handlerFactory = Batches.handlerFactory();
+        inventoryService = new InventoryServiceImpl(repository, handlerFactory, new ProductLockStripes(64), responseCache,
+                null, null, new HoldExpiryQueue(),
+                new ReservationMetrics(new SimpleMeterRegistry()), null);
+    }
+
+    @Benchmark
+    public InventoryResponse getInventoryByProductId() {
+        return inventoryService.getInventoryByProductId(1001L);
+    }
+}
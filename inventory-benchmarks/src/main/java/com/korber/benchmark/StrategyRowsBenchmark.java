@@ -0,0 +1,62 @@
+package com.korber.benchmark;
+
+import com.korber.handler.BatchSelection;
+import com.korber.handler.InventoryHandler;
+import com.korber.model.InventoryBatch;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost and write footprint of each allocation strategy. Besides time per order, the rows and
+ * orders counters are reported; rows / orders is the number of batch rows one reservation updates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrategyRowsBenchmark {
+
+    @Param({"FIFO", "FEFO", "LIFO", "FEWEST_BATCHES"})
+    private String strategy;
+
+    @Param({"100", "1000"})
+    private int batchCount;
+
+    @Param({"10", "250"})
+    private int quantity;
+
+    private final BatchSelection selection = new BatchSelection();
+    private InventoryHandler handler;
+    private List<InventoryBatch> batches;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RowsWritten {
+        public long rows;
+        public long orders;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+            orders = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        handler = Batches.handlerFactory().getHandler(strategy);
+        batches = Batches.ofVariedSizes(batchCount);
+    }
+
+    @Benchmark
+    public BatchSelection reserve(RowsWritten counters) {
+        handler.selectBatches(batches, quantity, selection);
+        counters.rows += selection.size();
+        counters.orders++;
+        return selection;
+    }
+}
@@ -0,0 +1,240 @@
+package com.korber.aggregation;
+
+import com.korber.dto.InventoryUpdateRequest;
+import com.korber.dto.InventoryUpdateResponse;
+import com.korber.service.impl.InventoryServiceImpl;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Combines concurrent reservations of the same product into one transaction. Requests queue per product
+ * in arrival order. The first caller to find no group running leads. A lone leader reserves at once;
+ * otherwise it waits up to the window, or until the group is full, then reserves the whole group and hands
+ * its callers their own results. Callers that arrive meanwhile form the next group, led by the oldest of
+ * them, so no caller waits behind more than one group ahead of it. A product's queue is dropped once it
+ * drains, so only products with reservations in flight hold one.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "jpa", matchIfMissing = true)
+@ConditionalOnProperty(name = "inventory.aggregation.enabled", havingValue = "true")
+public class ReservationAggregator implements MeterBinder {
+    private final InventoryServiceImpl inventoryService;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ConcurrentHashMap<Long, ProductQueue> queues = new ConcurrentHashMap<>();
+    private final LongAdder groups = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+
+    public ReservationAggregator(InventoryServiceImpl inventoryService,
+                                 @Value("${inventory.aggregation.window-ms:1}") long windowMs,
+                                 @Value("${inventory.aggregation.max-batch-size:32}") int maxBatchSize) {
+        this.inventoryService = inventoryService;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Reserves the request as part of the next group for its product; blocks until that group has committed.
+     * @param idempotencyKey Client-supplied key, recorded with the reservation; may be null
+     * @throws IllegalArgumentException when this request is rejected
+     */
+    public InventoryUpdateResponse reserve(InventoryUpdateRequest request, String idempotencyKey) {
+        Pending pending = new Pending(request, idempotencyKey);
+        ProductQueue queue;
+        Role role;
+        do {
+            queue = queues.computeIfAbsent(request.getProductId(), id -> new ProductQueue());
+            role = queue.enqueue(pending);
+            if (role == Role.RETIRED) {
+                // Drained by its last leader between our lookup and enqueue; make way for a fresh queue
+                queues.remove(request.getProductId(), queue);
+            }
+        } while (role == Role.RETIRED);
+        if (role == Role.LEAD) {
+            lead(request.getProductId(), queue);
+        }
+        while (!pending.result.isDone()) {
+            // Only waits here; a rejected result is unwrapped below
+            CompletableFuture.anyOf(pending.result, pending.turn).exceptionally(e -> null).join();
+            if (!pending.result.isDone()) {
+                lead(request.getProductId(), queue);
+            }
+        }
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private void lead(Long productId, ProductQueue queue) {
+        List<Pending> group = queue.collect(windowNanos, maxBatchSize);
+        try {
+            execute(productId, group);
+        } finally {
+            if (queue.handOff()) {
+                queues.remove(productId, queue);
+            }
+        }
+    }
+
+    private void execute(Long productId, List<Pending> group) {
+        groups.increment();
+        requests.add(group.size());
+
+        List<InventoryUpdateRequest> groupRequests = new ArrayList<>(group.size());
+        List<String> idempotencyKeys = new ArrayList<>(group.size());
+        for (Pending pending : group) {
+            groupRequests.add(pending.request);
+            idempotencyKeys.add(pending.idempotencyKey);
+        }
+
+        List<ReservationOutcome> outcomes;
+        try {
+            outcomes = inventoryService.updateInventoryCombined(productId, groupRequests, idempotencyKeys);
+        } catch (RuntimeException e) {
+            // The group's transaction rolled back, so none of its requests were reserved
+            for (Pending pending : group) {
+                pending.result.completeExceptionally(e);
+            }
+            return;
+        }
+        for (int i = 0; i < group.size(); i++) {
+            ReservationOutcome outcome = outcomes.get(i);
+            if (outcome.rejection() != null) {
+                group.get(i).result.completeExceptionally(outcome.rejection());
+            } else {
+                group.get(i).result.complete(outcome.response());
+            }
+        }
+    }
+
+    /**
+     * @return Number of products with a queue, i.e. with reservations collected or in flight
+     */
+    int queuedProducts() {
+        return queues.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("inventory.aggregation.groups", groups, LongAdder::sum)
+                .description("Combined reservation transactions")
+                .register(registry);
+        FunctionCounter.builder("inventory.aggregation.requests", requests, LongAdder::sum)
+                .description("Reservations served by combined transactions")
+                .register(registry);
+    }
+
+    private static final class Pending {
+        private final InventoryUpdateRequest request;
+        private final String idempotencyKey;
+        private final CompletableFuture<InventoryUpdateResponse> result = new CompletableFuture<>();
+        // Completed when this caller is handed the lead for the next group
+        private final CompletableFuture<Void> turn = new CompletableFuture<>();
+
+        private Pending(InventoryUpdateRequest request, String idempotencyKey) {
+            this.request = request;
+            this.idempotencyKey = idempotencyKey;
+        }
+    }
+
+    private enum Role {
+        LEAD, FOLLOW, RETIRED
+    }
+
+    private static final class ProductQueue {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition full = lock.newCondition();
+        private final ArrayDeque<Pending> waiting = new ArrayDeque<>();
+        private boolean leading;
+        private boolean retired;
+
+        /**
+         * @return LEAD when no group is being collected or reserved, FOLLOW when the caller joins the queue,
+         *         or RETIRED when the queue was dropped and the caller must enqueue on a new one
+         */
+        Role enqueue(Pending pending) {
+            lock.lock();
+            try {
+                if (retired) {
+                    return Role.RETIRED;
+                }
+                waiting.add(pending);
+                full.signal();
+                if (leading) {
+                    return Role.FOLLOW;
+                }
+                leading = true;
+                return Role.LEAD;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Waits for the window to pass or the group to fill, then takes the oldest requests. A leader with
+         * nobody queued behind it does not wait.
+         */
+        List<Pending> collect(long windowNanos, int maxBatchSize) {
+            lock.lock();
+            try {
+                long remaining = waiting.size() > 1 ? windowNanos : 0;
+                while (waiting.size() < maxBatchSize && remaining > 0) {
+                    try {
+                        remaining = full.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                int size = Math.min(waiting.size(), maxBatchSize);
+                List<Pending> group = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    group.add(waiting.poll());
+                }
+                return group;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Passes the lead to the oldest waiting caller, or retires the queue if nobody is waiting.
+         * @return Whether the queue was retired and must be removed
+         */
+        boolean handOff() {
+            lock.lock();
+            try {
+                Pending next = waiting.peek();
+                if (next == null) {
+                    leading = false;
+                    retired = true;
+                    return true;
+                }
+                next.turn.complete(null);
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.korber.aggregation;
+
+import com.korber.dto.InventoryUpdateResponse;
+
+/**
+ * Result of one request in a combined reservation: its response, or the rejection that applies to it alone.
+ */
+public record ReservationOutcome(InventoryUpdateResponse response, IllegalArgumentException rejection) {
+
+    public static ReservationOutcome reserved(InventoryUpdateResponse response) {
+        return new ReservationOutcome(response, null);
+    }
+
+    public static ReservationOutcome rejected(IllegalArgumentException rejection) {
+        return new ReservationOutcome(null, rejection);
+    }
+}
@@ -0,0 +1,71 @@
+package com.korber.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.korber.dto.InventoryResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of inventory responses per product. Entries are dropped once a
+ * reservation for the product commits, and expire after a TTL as a backstop for writes that
+ * bypass the service. Hit, miss and eviction counts are published as cache.* metrics.
+ */
+@Component
+public class InventoryResponseCache implements MeterBinder {
+    private final Cache<Long, InventoryResponse> cache;
+
+    public InventoryResponseCache(@Value("${inventory.cache.max-size:10000}") long maxSize,
+                                  @Value("${inventory.cache.ttl-ms:5000}") long ttlMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached response or loads it; concurrent readers of the same product share one load.
+     * A load that fails is not cached.
+     */
+    public InventoryResponse get(Long productId, Function<Long, InventoryResponse> loader) {
+        return cache.get(productId, loader);
+    }
+
+    public void invalidateAfterCommit(Long productId) {
+        invalidateAfterCommit(List.of(productId));
+    }
+
+    /**
+     * Drops the products once the current transaction commits, or immediately outside a transaction.
+     * A read that loaded before the commit cannot survive it: Caffeine lets the invalidation wait for
+     * an in-flight load of the same key and then removes its result.
+     */
+    public void invalidateAfterCommit(Collection<Long> productIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidateAll(productIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.invalidateAll(productIds);
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "inventory");
+    }
+}
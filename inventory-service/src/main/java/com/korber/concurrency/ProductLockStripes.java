@@ -0,0 +1,102 @@
+package com.korber.concurrency;
+
+import com.korber.handler.BatchSelection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed set of locks shared by all products. A product always maps to the same stripe, so
+ * reservations for one product are serialized while unrelated products only contend when
+ * they happen to hash to the same stripe. Each stripe also owns a selection buffer, which the
+ * holder of the stripe reuses for its reservation.
+ */
+@Component
+public class ProductLockStripes {
+    private final ReentrantLock[] stripes;
+    private final BatchSelection[] selections;
+    private final int mask;
+
+    public ProductLockStripes(@Value("${inventory.lock.stripes:64}") int stripeCount) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        this.selections = new BatchSelection[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+            selections[i] = new BatchSelection();
+        }
+        this.mask = size - 1;
+    }
+
+    public ReentrantLock lockFor(Long productId) {
+        return stripes[stripeIndex(productId)];
+    }
+
+    /**
+     * Selection buffer of the product's stripe. The stripe lock gives it one user at a time, so it is
+     * reused by every reservation of the stripe's products whether requests run on platform or virtual
+     * threads, which a per-thread buffer would not be.
+     * @throws IllegalStateException when the caller does not hold the product's stripe
+     */
+    public BatchSelection selectionFor(Long productId) {
+        int index = stripeIndex(productId);
+        if (!stripes[index].isHeldByCurrentThread()) {
+            throw new IllegalStateException("Stripe of product " + productId + " is not held");
+        }
+        return selections[index];
+    }
+
+    /**
+     * Runs the action while holding the product's stripe. Callers open their transaction inside the
+     * action, so a reserver queued behind a hot product waits here without holding a pooled connection,
+     * and the next reserver only reads batches after this one has committed.
+     * @param productId Product being reserved
+     * @return Result of the action
+     */
+    public <T> T callLocked(Long productId, Supplier<T> action) {
+        ReentrantLock lock = lockFor(productId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the action while holding the stripes of several products. Stripes are taken in ascending
+     * index order so that overlapping bulk reservations cannot deadlock.
+     * @param productIds Products being reserved, duplicates allowed
+     * @return Result of the action
+     */
+    public <T> T callAllLocked(Collection<Long> productIds, Supplier<T> action) {
+        int[] indexes = productIds.stream()
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    private int stripeIndex(Long productId) {
+        long hash = productId * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+}
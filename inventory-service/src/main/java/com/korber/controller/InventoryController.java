@@ -1,8 +1,12 @@
 package com.korber.controller;
 
+import com.korber.dto.InventoryBulkUpdateRequest;
+import com.korber.dto.InventoryBulkUpdateResponse;
 import com.korber.dto.InventoryResponse;
 import com.korber.dto.InventoryUpdateRequest;
 import com.korber.dto.InventoryUpdateResponse;
+import com.korber.idempotency.IdempotencyKeyReusedException;
+import com.korber.idempotency.IdempotencyStore;
 import com.korber.service.InventoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class InventoryController {
     private final InventoryService inventoryService;
+    private final IdempotencyStore idempotencyStore;
 
     @GetMapping("/{productId}")
     public ResponseEntity<InventoryResponse> getInventory(@PathVariable Long productId) {
@@ -25,13 +30,34 @@ public class InventoryController {
     }
 
     @PostMapping("/update")
-    public ResponseEntity<InventoryUpdateResponse> updateInventory(@RequestBody InventoryUpdateRequest request) {
-        try {
-            InventoryUpdateResponse response = inventoryService.updateInventory(request);
-            return ResponseEntity.ok(response);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().build();
-        }
+    public ResponseEntity<InventoryUpdateResponse> updateInventory(
+            @RequestBody InventoryUpdateRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("update", idempotencyKey, request, () -> {
+            try {
+                InventoryUpdateResponse response = inventoryService.updateInventory(request, idempotencyKey);
+                return ResponseEntity.ok(response);
+            } catch (IdempotencyKeyReusedException e) {
+                // Same answer as the in-memory store gives while it still remembers the key
+                return ResponseEntity.unprocessableEntity().body(new InventoryUpdateResponse(null, null, null, e.getMessage()));
+            } catch (IllegalArgumentException e) {
+                // Tell the caller why the reservation was rejected (unknown product or insufficient stock)
+                return ResponseEntity.badRequest().body(new InventoryUpdateResponse(null, null, null, e.getMessage()));
+            }
+        });
     }
-}
 
+    @PostMapping("/update/bulk")
+    public ResponseEntity<InventoryBulkUpdateResponse> updateInventoryBulk(
+            @RequestBody InventoryBulkUpdateRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("update/bulk", idempotencyKey, request, () -> {
+            try {
+                InventoryBulkUpdateResponse response = inventoryService.updateInventoryBulk(request);
+                return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(new InventoryBulkUpdateResponse(null, e.getMessage()));
+            }
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package com.korber.controller;
+
+import com.korber.dto.InventoryBulkHoldResponse;
+import com.korber.dto.InventoryBulkUpdateRequest;
+import com.korber.dto.InventoryHoldIdsRequest;
+import com.korber.dto.InventoryHoldResponse;
+import com.korber.dto.InventoryUpdateRequest;
+import com.korber.idempotency.IdempotencyStore;
+import com.korber.service.InventoryHoldService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/inventory/hold")
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class InventoryHoldController {
+    private final InventoryHoldService holdService;
+    private final IdempotencyStore idempotencyStore;
+
+    @PostMapping
+    public ResponseEntity<InventoryHoldResponse> holdInventory(
+            @RequestBody InventoryUpdateRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("hold", idempotencyKey, request, () -> {
+            try {
+                return ResponseEntity.ok(holdService.holdInventory(request));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(rejected(e));
+            }
+        });
+    }
+
+    @PostMapping("/{holdId}/confirm")
+    public ResponseEntity<InventoryHoldResponse> confirmHold(
+            @PathVariable Long holdId,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("hold/" + holdId + "/confirm", idempotencyKey, null, () -> {
+            try {
+                return ResponseEntity.ok(holdService.confirmHold(holdId));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.notFound().build();
+            } catch (IllegalStateException e) {
+                // Already released or expired: the stock is gone and the caller must not complete its order
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(rejected(e));
+            }
+        });
+    }
+
+    /**
+     * A retried release carrying the key of one that succeeded gets its 200 replayed rather than a 409.
+     */
+    @PostMapping("/{holdId}/release")
+    public ResponseEntity<InventoryHoldResponse> releaseHold(
+            @PathVariable Long holdId,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("hold/" + holdId + "/release", idempotencyKey, null, () -> {
+            try {
+                return ResponseEntity.ok(holdService.releaseHold(holdId));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.notFound().build();
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(rejected(e));
+            }
+        });
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<InventoryBulkHoldResponse> holdInventoryBulk(
+            @RequestBody InventoryBulkUpdateRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("hold/bulk", idempotencyKey, request, () -> {
+            try {
+                return ResponseEntity.ok(new InventoryBulkHoldResponse(holdService.holdInventoryBulk(request), "Inventory held"));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(new InventoryBulkHoldResponse(null, e.getMessage()));
+            }
+        });
+    }
+
+    @PostMapping("/bulk/confirm")
+    public ResponseEntity<InventoryBulkHoldResponse> confirmHolds(
+            @RequestBody InventoryHoldIdsRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("hold/bulk/confirm", idempotencyKey, request, () -> {
+            try {
+                return ResponseEntity.ok(new InventoryBulkHoldResponse(holdService.confirmHolds(request.getHoldIds()), "Holds confirmed"));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.notFound().build();
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(new InventoryBulkHoldResponse(null, e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Holds no longer held are skipped rather than rejected, so a compensating release can always be retried.
+     */
+    @PostMapping("/bulk/release")
+    public ResponseEntity<InventoryBulkHoldResponse> releaseHolds(
+            @RequestBody InventoryHoldIdsRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("hold/bulk/release", idempotencyKey, request,
+                () -> ResponseEntity.ok(new InventoryBulkHoldResponse(holdService.releaseHolds(request.getHoldIds()), "Holds released")));
+    }
+
+    private InventoryHoldResponse rejected(RuntimeException e) {
+        return new InventoryHoldResponse(null, null, null, null, null, null, e.getMessage());
+    }
+}
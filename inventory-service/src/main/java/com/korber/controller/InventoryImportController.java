@@ -0,0 +1,47 @@
+package com.korber.controller;
+
+import com.korber.dto.InventoryImportResponse;
+import com.korber.ingest.ImportRejectedException;
+import com.korber.service.InventoryImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/inventory/batches")
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class InventoryImportController {
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final InventoryImportService importService;
+
+    // The body is taken as a raw stream so a large payload is parsed while it arrives
+    @PostMapping(consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<InventoryImportResponse> importCsv(InputStream payload) {
+        try {
+            return ResponseEntity.ok(importService.importCsv(payload));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(rejected(e));
+        }
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<InventoryImportResponse> importNdjson(InputStream payload) {
+        try {
+            return ResponseEntity.ok(importService.importNdjson(payload));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(rejected(e));
+        }
+    }
+
+    // Chunks committed before the bad row stay, so the caller is told how many rows went in
+    private InventoryImportResponse rejected(IllegalArgumentException e) {
+        Long rowsImported = e instanceof ImportRejectedException rejected ? rejected.getRowsImported() : null;
+        return new InventoryImportResponse(rowsImported, e.getMessage());
+    }
+}
@@ -0,0 +1,16 @@
+package com.korber.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryBulkHoldResponse {
+    /** One hold per requested item, in request order */
+    private List<InventoryHoldResponse> holds;
+    private String message;
+}
@@ -0,0 +1,16 @@
+package com.korber.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryBulkUpdateResponse {
+    /** One result per requested item, in request order */
+    private List<InventoryUpdateResponse> results;
+    private String message;
+}
@@ -0,0 +1,24 @@
+package com.korber.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryHoldResponse {
+    private Long holdId;
+    /** HELD, CONFIRMED, RELEASED or EXPIRED */
+    private String status;
+    private List<Long> reservedBatchIds;
+    private String productName;
+    /** Stock left for the product after this hold was taken */
+    private Integer remainingQuantity;
+    /** When the stock goes back to its batches unless the hold is confirmed */
+    private Instant expiresAt;
+    private String message;
+}
@@ -0,0 +1,14 @@
+package com.korber.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryImportResponse {
+    /** Rows committed; for a rejected payload, the rows committed before the bad row, which stay imported */
+    private Long rowsImported;
+    private String message;
+}
@@ -10,5 +10,10 @@ import lombok.NoArgsConstructor;
 public class InventoryUpdateRequest {
     private Long productId;
     private Integer quantity;
-}
+    /** Allocation strategy (FIFO, FEFO, LIFO, FEWEST_BATCHES); the product's configured strategy when absent */
+    private String strategy;
 
+    public InventoryUpdateRequest(Long productId, Integer quantity) {
+        this(productId, quantity, null);
+    }
+}
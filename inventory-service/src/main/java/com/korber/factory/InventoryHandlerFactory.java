@@ -2,7 +2,11 @@ package com.korber.factory;
 
 import com.korber.handler.InventoryHandler;
 import com.korber.handler.impl.FIFOInventoryHandler;
+import com.korber.handler.impl.FewestBatchesInventoryHandler;
+import com.korber.handler.impl.LIFOInventoryHandler;
+import com.korber.handler.impl.MinShelfLifeInventoryHandler;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
@@ -13,25 +17,77 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class InventoryHandlerFactory {
     private final FIFOInventoryHandler fifoInventoryHandler;
+    private final MinShelfLifeInventoryHandler minShelfLifeInventoryHandler;
+    private final LIFOInventoryHandler lifoInventoryHandler;
+    private final FewestBatchesInventoryHandler fewestBatchesInventoryHandler;
     private final Map<String, InventoryHandler> handlers = new HashMap<>();
+    private final Map<Long, String> productTypes = new HashMap<>();
+
+    @Value("${inventory.strategy.default:FIFO}")
+    private String defaultType = "FIFO";
+
+    /** Per-product strategies as productId=TYPE pairs, e.g. 1001=FEFO,1002=FEWEST_BATCHES */
+    @Value("${inventory.strategy.products:}")
+    private String productTypeMappings = "";
 
     @PostConstruct
     public void init() {
         // Register default handler (FIFO - First In First Out based on expiry date)
         registerHandler("FIFO", fifoInventoryHandler);
+        registerHandler("FEFO", minShelfLifeInventoryHandler);
+        registerHandler("LIFO", lifoInventoryHandler);
+        registerHandler("FEWEST_BATCHES", fewestBatchesInventoryHandler);
+
+        requireRegistered(defaultType, "inventory.strategy.default=" + defaultType);
+        for (String mapping : productTypeMappings.split(",")) {
+            if (mapping.isBlank()) {
+                continue;
+            }
+            String[] parts = mapping.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalStateException("Invalid inventory.strategy.products entry: " + mapping);
+            }
+            String type = parts[1].trim();
+            requireRegistered(type, "inventory.strategy.products entry " + mapping.trim());
+            productTypes.put(Long.valueOf(parts[0].trim()), type);
+        }
+    }
+
+    /**
+     * A configured type that names no handler fails startup rather than silently falling back to another strategy.
+     */
+    private void requireRegistered(String type, String setting) {
+        if (!handlers.containsKey(type)) {
+            throw new IllegalStateException("Unknown inventory strategy in " + setting + ", expected one of " + handlers.keySet());
+        }
     }
 
     public void registerHandler(String type, InventoryHandler handler) {
         handlers.put(type, handler);
     }
 
+    /**
+     * @throws IllegalArgumentException if no handler is registered for the type
+     */
     public InventoryHandler getHandler(String type) {
         InventoryHandler handler = handlers.get(type);
         if (handler == null) {
-            // Default to FIFO if handler not found
-            handler = handlers.get("FIFO");
+            throw new IllegalArgumentException("Unknown inventory strategy: " + type);
         }
         return handler;
     }
-}
 
+    /**
+     * Resolves the strategy for one reservation: the type requested by the caller, else the type
+     * configured for the product, else the default type.
+     * @param productId Product being reserved
+     * @param requestedType Strategy named in the request, may be null
+     * @throws IllegalArgumentException if the request names a strategy that is not registered
+     */
+    public InventoryHandler getHandler(Long productId, String requestedType) {
+        if (requestedType != null && !requestedType.isBlank()) {
+            return getHandler(requestedType);
+        }
+        return getHandler(productTypes.getOrDefault(productId, defaultType));
+    }
+}
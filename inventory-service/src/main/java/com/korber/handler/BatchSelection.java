@@ -0,0 +1,50 @@
+package com.korber.handler;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffer for a batch selection: batch ids and quantities in parallel primitive arrays, in
+ * the order the handler consumed the batches. It is cleared and refilled for every reservation, so
+ * once it has grown to fit, selecting batches allocates nothing. Not thread-safe.
+ */
+public final class BatchSelection {
+    private long[] batchIds;
+    private int[] quantities;
+    private int size;
+
+    public BatchSelection() {
+        this(16);
+    }
+
+    public BatchSelection(int initialCapacity) {
+        this.batchIds = new long[initialCapacity];
+        this.quantities = new int[initialCapacity];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(long batchId, int quantity) {
+        if (size == batchIds.length) {
+            int capacity = Math.max(16, size * 2);
+            batchIds = Arrays.copyOf(batchIds, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+        }
+        batchIds[size] = batchId;
+        quantities[size] = quantity;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long batchId(int index) {
+        return batchIds[index];
+    }
+
+    public int quantity(int index) {
+        return quantities[index];
+    }
+}
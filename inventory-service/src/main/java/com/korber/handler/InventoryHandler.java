@@ -13,5 +13,20 @@ public interface InventoryHandler {
      * @return Map of batchId to quantity to reserve
      */
     Map<Long, Integer> selectBatches(List<InventoryBatch> batches, Integer quantity);
-}
 
+    /**
+     * Selects batches like {@link #selectBatches(List, Integer)} but writes them into a reusable buffer,
+     * in the order they are consumed. Handlers on the reservation hot path override this to avoid
+     * building a map; the default copies the map's entries.
+     * @param batches Available batches sorted by expiry date
+     * @param quantity Required quantity
+     * @param into Cleared, then filled with the selected batch ids and quantities
+     */
+    default void selectBatches(List<InventoryBatch> batches, int quantity, BatchSelection into) {
+        Map<Long, Integer> selected = selectBatches(batches, Integer.valueOf(quantity));
+        into.clear();
+        for (Map.Entry<Long, Integer> entry : selected.entrySet()) {
+            into.add(entry.getKey(), entry.getValue());
+        }
+    }
+}
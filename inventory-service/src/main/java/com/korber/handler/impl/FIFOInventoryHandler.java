@@ -1,11 +1,11 @@
 package com.korber.handler.impl;
 
+import com.korber.handler.BatchSelection;
 import com.korber.handler.InventoryHandler;
 import com.korber.model.InventoryBatch;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -13,7 +13,7 @@ import java.util.Map;
 public class FIFOInventoryHandler implements InventoryHandler {
     @Override
     public Map<Long, Integer> selectBatches(List<InventoryBatch> batches, Integer quantity) {
-        Map<Long, Integer> selectedBatches = new HashMap<>();
+        Map<Long, Integer> selectedBatches = new LinkedHashMap<>();
         int remainingQuantity = quantity;
 
         // FIFO: Use batches in order of expiry date (already sorted)
@@ -36,5 +36,25 @@ public class FIFOInventoryHandler implements InventoryHandler {
 
         return selectedBatches;
     }
-}
 
+    @Override
+    public void selectBatches(List<InventoryBatch> batches, int quantity, BatchSelection into) {
+        into.clear();
+        int remainingQuantity = quantity;
+
+        // Indexed loop: the lists come from the repository as ArrayLists, and no iterator is allocated
+        for (int i = 0, count = batches.size(); i < count && remainingQuantity > 0; i++) {
+            InventoryBatch batch = batches.get(i);
+            int availableQuantity = batch.getQuantity();
+            if (availableQuantity > 0) {
+                int quantityToReserve = Math.min(remainingQuantity, availableQuantity);
+                into.add(batch.getBatchId(), quantityToReserve);
+                remainingQuantity -= quantityToReserve;
+            }
+        }
+
+        if (remainingQuantity > 0) {
+            throw new IllegalArgumentException("Insufficient inventory. Required: " + quantity + ", Available: " + (quantity - remainingQuantity));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.korber.handler.impl;
+
+import com.korber.handler.InventoryHandler;
+import com.korber.model.InventoryBatch;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Touches as few batches as possible, so a reservation updates fewer rows. Taking the largest batches
+ * first gives the minimum count; among equally large batches the earlier expiry wins, and the
+ * selection is reported in expiry order.
+ */
+@Component
+public class FewestBatchesInventoryHandler implements InventoryHandler {
+    private static final Comparator<InventoryBatch> LARGEST_FIRST = Comparator
+            .comparing(InventoryBatch::getQuantity, Comparator.reverseOrder())
+            .thenComparing(InventoryBatch::getExpiryDate);
+
+    @Override
+    public Map<Long, Integer> selectBatches(List<InventoryBatch> batches, Integer quantity) {
+        List<InventoryBatch> candidates = new ArrayList<>(batches.size());
+        for (InventoryBatch batch : batches) {
+            if (batch.getQuantity() > 0) {
+                candidates.add(batch);
+            }
+        }
+        candidates.sort(LARGEST_FIRST);
+
+        List<InventoryBatch> chosen = new ArrayList<>();
+        int remainingQuantity = quantity;
+        for (InventoryBatch batch : candidates) {
+            if (remainingQuantity <= 0) {
+                break;
+            }
+            chosen.add(batch);
+            remainingQuantity -= batch.getQuantity();
+        }
+
+        if (remainingQuantity > 0) {
+            throw new IllegalArgumentException("Insufficient inventory. Required: " + quantity + ", Available: " + (quantity - remainingQuantity));
+        }
+
+        // Drain the chosen batches in expiry order; only the last one is left partially filled
+        chosen.sort(Comparator.comparing(InventoryBatch::getExpiryDate));
+        Map<Long, Integer> selectedBatches = new LinkedHashMap<>();
+        remainingQuantity = quantity;
+        for (InventoryBatch batch : chosen) {
+            int quantityToReserve = Math.min(remainingQuantity, batch.getQuantity());
+            selectedBatches.put(batch.getBatchId(), quantityToReserve);
+            remainingQuantity -= quantityToReserve;
+        }
+        return selectedBatches;
+    }
+}
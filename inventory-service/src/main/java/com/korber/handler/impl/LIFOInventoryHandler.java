@@ -0,0 +1,38 @@
+package com.korber.handler.impl;
+
+import com.korber.handler.InventoryHandler;
+import com.korber.model.InventoryBatch;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LIFO: uses the batches with the latest expiry date first.
+ */
+@Component
+public class LIFOInventoryHandler implements InventoryHandler {
+    @Override
+    public Map<Long, Integer> selectBatches(List<InventoryBatch> batches, Integer quantity) {
+        Map<Long, Integer> selectedBatches = new LinkedHashMap<>();
+        int remainingQuantity = quantity;
+
+        // Batches arrive sorted by expiry date, so walk them from the end
+        for (int i = batches.size() - 1; i >= 0 && remainingQuantity > 0; i--) {
+            InventoryBatch batch = batches.get(i);
+            int availableQuantity = batch.getQuantity();
+            if (availableQuantity > 0) {
+                int quantityToReserve = Math.min(remainingQuantity, availableQuantity);
+                selectedBatches.put(batch.getBatchId(), quantityToReserve);
+                remainingQuantity -= quantityToReserve;
+            }
+        }
+
+        if (remainingQuantity > 0) {
+            throw new IllegalArgumentException("Insufficient inventory. Required: " + quantity + ", Available: " + (quantity - remainingQuantity));
+        }
+
+        return selectedBatches;
+    }
+}
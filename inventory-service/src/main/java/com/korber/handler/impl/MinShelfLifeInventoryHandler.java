@@ -0,0 +1,54 @@
+package com.korber.handler.impl;
+
+import com.korber.handler.InventoryHandler;
+import com.korber.model.InventoryBatch;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FEFO with a minimum shelf life: earliest expiry first, but batches expiring within the configured
+ * number of days are never shipped.
+ */
+@Component
+public class MinShelfLifeInventoryHandler implements InventoryHandler {
+    private final int minShelfLifeDays;
+
+    public MinShelfLifeInventoryHandler(@Value("${inventory.strategy.min-shelf-life-days:7}") int minShelfLifeDays) {
+        this.minShelfLifeDays = minShelfLifeDays;
+    }
+
+    @Override
+    public Map<Long, Integer> selectBatches(List<InventoryBatch> batches, Integer quantity) {
+        Map<Long, Integer> selectedBatches = new LinkedHashMap<>();
+        int remainingQuantity = quantity;
+        LocalDate earliestAcceptedExpiry = LocalDate.now().plusDays(minShelfLifeDays);
+
+        for (InventoryBatch batch : batches) {
+            if (remainingQuantity <= 0) {
+                break;
+            }
+            if (batch.getExpiryDate().isBefore(earliestAcceptedExpiry)) {
+                continue;
+            }
+
+            int availableQuantity = batch.getQuantity();
+            if (availableQuantity > 0) {
+                int quantityToReserve = Math.min(remainingQuantity, availableQuantity);
+                selectedBatches.put(batch.getBatchId(), quantityToReserve);
+                remainingQuantity -= quantityToReserve;
+            }
+        }
+
+        if (remainingQuantity > 0) {
+            throw new IllegalArgumentException("Insufficient inventory with at least " + minShelfLifeDays
+                    + " days shelf life. Required: " + quantity + ", Available: " + (quantity - remainingQuantity));
+        }
+
+        return selectedBatches;
+    }
+}
@@ -0,0 +1,64 @@
+package com.korber.hold;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Open holds ordered by deadline. The sweeper takes the due ones in batches, so no timer task is
+ * created per hold. Confirmed and released holds are not removed; their entries are dropped when
+ * they come due, because the expiry transition only applies to holds that are still held.
+ */
+@Component
+public class HoldExpiryQueue {
+    private final PriorityQueue<Deadline> deadlines = new PriorityQueue<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public void schedule(Long holdId, Instant expiresAt) {
+        lock.lock();
+        try {
+            deadlines.add(new Deadline(expiresAt.toEpochMilli(), holdId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes and returns holds whose deadline has passed, earliest first.
+     * @param now Current time
+     * @param max Largest number of holds to return
+     */
+    public List<Long> pollExpired(Instant now, int max) {
+        long nowMillis = now.toEpochMilli();
+        List<Long> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            while (expired.size() < max && !deadlines.isEmpty() && deadlines.peek().expiresAtMillis() <= nowMillis) {
+                expired.add(deadlines.poll().holdId());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return expired;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return deadlines.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Deadline(long expiresAtMillis, long holdId) implements Comparable<Deadline> {
+        @Override
+        public int compareTo(Deadline other) {
+            return Long.compare(expiresAtMillis, other.expiresAtMillis);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.korber.hold;
+
+import com.korber.model.HoldStatus;
+import com.korber.model.InventoryHold;
+import com.korber.repository.InventoryHoldRepository;
+import com.korber.service.InventoryHoldService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single background thread that returns the stock of expired holds. Each pass drains the due
+ * entries of {@link HoldExpiryQueue} in batches, expiring every batch in one transaction.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "jpa", matchIfMissing = true)
+public class HoldExpirySweeper {
+    private final InventoryHoldService holdService;
+    private final InventoryHoldRepository holdRepository;
+    private final HoldExpiryQueue expiryQueue;
+    private final long sweepIntervalMs;
+    private final int batchSize;
+    private final ScheduledExecutorService sweeper;
+
+    public HoldExpirySweeper(InventoryHoldService holdService,
+                             InventoryHoldRepository holdRepository,
+                             HoldExpiryQueue expiryQueue,
+                             @Value("${inventory.hold.sweep-interval-ms:1000}") long sweepIntervalMs,
+                             @Value("${inventory.hold.sweep-batch-size:500}") int batchSize) {
+        this.holdService = holdService;
+        this.holdRepository = holdRepository;
+        this.expiryQueue = expiryQueue;
+        this.sweepIntervalMs = sweepIntervalMs;
+        this.batchSize = batchSize;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hold-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Re-queues holds left open by a previous run, then starts sweeping.
+     */
+    @PostConstruct
+    public void start() {
+        List<InventoryHold> openHolds = holdRepository.findByStatus(HoldStatus.HELD);
+        for (InventoryHold hold : openHolds) {
+            expiryQueue.schedule(hold.getHoldId(), hold.getExpiresAt());
+        }
+        log.info("Hold sweeper started with {} open holds", openHolds.size());
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Expires every hold that is due now. A batch that fails is put back and retried on the next pass.
+     */
+    public void sweep() {
+        Instant now = Instant.now();
+        List<Long> due;
+        while (!(due = expiryQueue.pollExpired(now, batchSize)).isEmpty()) {
+            try {
+                int expired = holdService.expireHolds(due);
+                log.debug("Expired {} of {} due holds", expired, due.size());
+            } catch (RuntimeException e) {
+                log.warn("Failed to expire {} holds, retrying next sweep", due.size(), e);
+                Instant retryAt = now.plus(Duration.ofMillis(sweepIntervalMs));
+                for (Long holdId : due) {
+                    expiryQueue.schedule(holdId, retryAt);
+                }
+                return;
+            }
+        }
+    }
+}
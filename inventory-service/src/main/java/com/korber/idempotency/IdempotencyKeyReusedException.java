@@ -0,0 +1,12 @@
+package com.korber.idempotency;
+
+/**
+ * A reservation whose {@code Idempotency-Key} was already used for a different reservation. It is a
+ * client error rather than a retry, so nothing is reserved and the earlier reservation stays on record.
+ */
+public class IdempotencyKeyReusedException extends IllegalArgumentException {
+
+    public IdempotencyKeyReusedException() {
+        super("Idempotency-Key was already used for a different reservation");
+    }
+}
@@ -0,0 +1,70 @@
+package com.korber.idempotency;
+
+import com.korber.repository.ReservationRecordRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single background thread that deletes reservation records once no client can still be retrying them.
+ * The retention must outlast the longest redelivery of a caller, such as Order Service's outbox backoff.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "jpa", matchIfMissing = true)
+public class ReservationRecordPurger {
+    private final ReservationRecordRepository recordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long retentionMs;
+    private final long purgeIntervalMs;
+    private final ScheduledExecutorService purger;
+
+    public ReservationRecordPurger(ReservationRecordRepository recordRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${inventory.reservation-records.retention-ms:86400000}") long retentionMs,
+                                   @Value("${inventory.reservation-records.purge-interval-ms:600000}") long purgeIntervalMs) {
+        this.recordRepository = recordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.retentionMs = retentionMs;
+        this.purgeIntervalMs = purgeIntervalMs;
+        this.purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-record-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        purger.scheduleWithFixedDelay(this::purge, purgeIntervalMs, purgeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        purger.shutdownNow();
+    }
+
+    /**
+     * @return Number of records deleted
+     */
+    public int purge() {
+        try {
+            Integer purged = transactionTemplate.execute(status ->
+                    recordRepository.deleteCreatedBefore(Instant.now().minusMillis(retentionMs)));
+            log.debug("Purged {} reservation records", purged);
+            return purged;
+        } catch (RuntimeException e) {
+            log.warn("Reservation record purge failed, will retry", e);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.korber.ingest;
+
+import com.korber.model.InventoryBatch;
+
+import java.util.Iterator;
+
+/**
+ * Reads inventory batches from an import payload one row at a time, so the payload is never held in
+ * memory. Rows are detached {@link InventoryBatch} values; a batch without an id is a new batch.
+ * A malformed row fails with an IllegalArgumentException naming its line.
+ */
+public interface BatchRowReader extends Iterator<InventoryBatch> {
+    /**
+     * @return Line of the payload the last row returned by {@link #next()} was read from
+     */
+    long line();
+}
@@ -0,0 +1,107 @@
+package com.korber.ingest;
+
+import com.korber.model.InventoryBatch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads CSV in the layout of inventory.csv: a header naming the columns, then one batch per line.
+ * Columns may come in any order and batch_id may be left out or empty for new batches. Fields are
+ * split on commas; quoting is not supported. Blank lines are skipped.
+ */
+public class CsvBatchRowReader implements BatchRowReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final List<String> REQUIRED_COLUMNS = List.of("product_id", "product_name", "quantity", "expiry_date");
+
+    private final BufferedReader reader;
+    private final int columns;
+    private final int batchId;
+    private final int productId;
+    private final int productName;
+    private final int quantity;
+    private final int expiryDate;
+
+    private String nextLine;
+    private long nextLineNumber;
+    private long line;
+
+    public CsvBatchRowReader(InputStream input) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), BUFFER_SIZE);
+        String header = readNonBlankLine();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV payload has no header");
+        }
+        List<String> names = Arrays.stream(header.split(",", -1)).map(String::trim).toList();
+        for (String column : REQUIRED_COLUMNS) {
+            if (!names.contains(column)) {
+                throw new IllegalArgumentException("CSV header is missing column " + column);
+            }
+        }
+        this.columns = names.size();
+        this.batchId = names.indexOf("batch_id");
+        this.productId = names.indexOf("product_id");
+        this.productName = names.indexOf("product_name");
+        this.quantity = names.indexOf("quantity");
+        this.expiryDate = names.indexOf("expiry_date");
+        this.nextLine = readNonBlankLine();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextLine != null;
+    }
+
+    @Override
+    public InventoryBatch next() {
+        if (nextLine == null) {
+            throw new NoSuchElementException();
+        }
+        line = nextLineNumber;
+        String[] fields = nextLine.split(",", -1);
+        nextLine = readNonBlankLine();
+        if (fields.length != columns) {
+            throw new IllegalArgumentException("Line " + line + ": expected " + columns + " fields but found " + fields.length);
+        }
+        try {
+            InventoryBatch batch = new InventoryBatch();
+            if (batchId >= 0 && !fields[batchId].isBlank()) {
+                batch.setBatchId(Long.parseLong(fields[batchId].trim()));
+            }
+            batch.setProductId(Long.parseLong(fields[productId].trim()));
+            batch.setProductName(fields[productName].trim());
+            batch.setQuantity(Integer.parseInt(fields[quantity].trim()));
+            batch.setExpiryDate(LocalDate.parse(fields[expiryDate].trim()));
+            return batch;
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Line " + line + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public long line() {
+        return line;
+    }
+
+    private String readNonBlankLine() {
+        try {
+            String read;
+            do {
+                read = reader.readLine();
+                nextLineNumber++;
+            } while (read != null && read.isBlank());
+            return read;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
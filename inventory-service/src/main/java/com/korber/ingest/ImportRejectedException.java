@@ -0,0 +1,18 @@
+package com.korber.ingest;
+
+/**
+ * A payload row that cannot be imported. Imports commit chunk by chunk, so the rows before it may
+ * already be in; {@link #getRowsImported()} says how many.
+ */
+public class ImportRejectedException extends IllegalArgumentException {
+    private final long rowsImported;
+
+    public ImportRejectedException(String message, long rowsImported, Throwable cause) {
+        super(message + " (" + rowsImported + " rows imported before it)", cause);
+        this.rowsImported = rowsImported;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+}
@@ -0,0 +1,67 @@
+package com.korber.ingest;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.korber.model.InventoryBatch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads newline-delimited JSON, one batch object per line with the fields of {@link InventoryBatch}
+ * (batchId, productId, productName, quantity, expiryDate). Jackson parses straight off the stream.
+ */
+public class NdjsonBatchRowReader implements BatchRowReader {
+    private final MappingIterator<InventoryBatch> rows;
+    private long line;
+
+    public NdjsonBatchRowReader(InputStream input, ObjectMapper objectMapper) {
+        try {
+            this.rows = objectMapper.readerFor(InventoryBatch.class).readValues(input);
+        } catch (IOException e) {
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            return rows.hasNextValue();
+        } catch (IOException e) {
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public InventoryBatch next() {
+        try {
+            if (!rows.hasNextValue()) {
+                throw new NoSuchElementException();
+            }
+            InventoryBatch batch = rows.nextValue();
+            // The parser now stands on the row's closing brace, which is on the row's own line
+            line = rows.getParser().currentTokenLocation().getLineNr();
+            return batch;
+        } catch (IOException e) {
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public long line() {
+        return line;
+    }
+
+    private RuntimeException failure(IOException e) {
+        if (e instanceof JsonProcessingException invalid) {
+            JsonLocation location = invalid.getLocation();
+            long at = location != null ? location.getLineNr() : line;
+            return new IllegalArgumentException("Line " + at + ": " + invalid.getOriginalMessage(), e);
+        }
+        return new UncheckedIOException(e);
+    }
+}
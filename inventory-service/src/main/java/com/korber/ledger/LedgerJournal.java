@@ -0,0 +1,183 @@
+package com.korber.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of stock deltas for one ledger shard. Records are forced to disk before a
+ * reservation is acknowledged and are split into segments so that segments already flushed to
+ * the database can be deleted as a whole.
+ */
+final class LedgerJournal implements Closeable {
+    /** sequence (8) + productId (8) + batchId (8) + delta (4) */
+    static final int RECORD_SIZE = 28;
+    private static final String ID_FILE = "journal.id";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final String segmentPrefix;
+    private FileChannel channel;
+    private long segmentStart;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * 16);
+
+    @FunctionalInterface
+    interface RecordConsumer {
+        void accept(long sequence, long productId, long batchId, int delta);
+    }
+
+    LedgerJournal(Path directory, int shardId) throws IOException {
+        this.directory = directory;
+        this.segmentPrefix = "shard-" + shardId + "-";
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Starts a new segment; every record appended afterwards must have a sequence of at least
+     * {@code firstSequence}.
+     */
+    void rotate(long firstSequence) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        segmentStart = firstSequence;
+        channel = FileChannel.open(segmentPath(firstSequence),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    long segmentStart() {
+        return segmentStart;
+    }
+
+    void append(long sequence, long productId, long[] batchIds, int[] deltas, int count) throws IOException {
+        int required = RECORD_SIZE * count;
+        if (buffer.capacity() < required) {
+            buffer = ByteBuffer.allocateDirect(Integer.highestOneBit(required) << 1);
+        }
+        buffer.clear();
+        for (int i = 0; i < count; i++) {
+            buffer.putLong(sequence).putLong(productId).putLong(batchIds[i]).putInt(deltas[i]);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Replays every record with a sequence greater than {@code afterSequence}, oldest segment first.
+     * A torn record at the end of a segment (crash during append) is ignored.
+     * @return Highest sequence found in the journal, or {@code afterSequence} if none is newer
+     */
+    long replay(long afterSequence, RecordConsumer consumer) throws IOException {
+        long highest = afterSequence;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        for (Path segment : segments()) {
+            try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+                while (true) {
+                    record.clear();
+                    while (record.hasRemaining() && in.read(record) > 0) {
+                        // keep reading until the record is complete or the segment ends
+                    }
+                    if (record.hasRemaining()) {
+                        break;
+                    }
+                    record.flip();
+                    long sequence = record.getLong();
+                    long productId = record.getLong();
+                    long batchId = record.getLong();
+                    int delta = record.getInt();
+                    if (sequence > afterSequence) {
+                        consumer.accept(sequence, productId, batchId, delta);
+                        highest = Math.max(highest, sequence);
+                    }
+                }
+            }
+        }
+        return highest;
+    }
+
+    /**
+     * Deletes closed segments that started before {@code segmentStart}; their records are covered
+     * by a database checkpoint.
+     */
+    void deleteSegmentsBefore(long segmentStart) throws IOException {
+        for (Path segment : segments()) {
+            if (startOf(segment) < segmentStart) {
+                Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    /**
+     * @return Id of the journal kept in {@code directory}, empty if none was written yet
+     */
+    static Optional<String> readId(Path directory) throws IOException {
+        Path idFile = directory.resolve(ID_FILE);
+        return Files.exists(idFile) ? Optional.of(Files.readString(idFile).trim()) : Optional.empty();
+    }
+
+    /**
+     * Replaces the id of the journal in {@code directory}; the file is swapped in whole, so a crash leaves the old or the new id.
+     */
+    static void writeId(Path directory, String journalId) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(ID_FILE + ".tmp");
+        Files.writeString(temporary, journalId);
+        Files.move(temporary, directory.resolve(ID_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Deletes the segments of every shard in {@code directory}.
+     * @return Number of segments deleted
+     */
+    static int deleteAllSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList();
+        }
+        for (Path segment : segments) {
+            Files.deleteIfExists(segment);
+        }
+        return segments.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.getFileName().toString().startsWith(segmentPrefix))
+                    .sorted((a, b) -> Long.compare(startOf(a), startOf(b)))
+                    .forEach(segments::add);
+        }
+        return segments;
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(segmentPrefix + firstSequence + SEGMENT_SUFFIX);
+    }
+
+    private long startOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(segmentPrefix.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,175 @@
+package com.korber.ledger;
+
+import com.korber.model.InventoryBatch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * A partition of the ledger owned by a single writer thread. All product state, the pending
+ * deltas and the journal are only touched from that thread, so no locking is needed.
+ */
+final class LedgerShard {
+    private final int shardId;
+    private final ExecutorService writer;
+    private final LedgerJournal journal;
+    private final Map<Long, ProductStock> products = new HashMap<>();
+    private final Map<Long, Integer> pendingDeltas = new HashMap<>();
+    private long sequence;
+    private long[] scratchBatchIds = new long[16];
+    private int[] scratchQuantities = new int[16];
+
+    /**
+     * Coalesced deltas drained from the shard, ready to be written to the database.
+     */
+    record PendingFlush(int shardId, long lastSequence, long nextSegmentStart, Map<Long, Integer> deltas) {
+    }
+
+    LedgerShard(int shardId, LedgerJournal journal) {
+        this.shardId = shardId;
+        this.journal = journal;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-shard-" + shardId);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    int shardId() {
+        return shardId;
+    }
+
+    LedgerJournal journal() {
+        return journal;
+    }
+
+    /**
+     * Runs a task on the shard's writer thread and waits for it, rethrowing its runtime exception.
+     */
+    <T> T execute(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, writer).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // ---- methods below run on the writer thread ----
+
+    void load(InventoryBatch batch) {
+        products.computeIfAbsent(batch.getProductId(), id -> new ProductStock(id, batch.getProductName()))
+                .addBatch(batch.getBatchId(), batch.getQuantity(), batch.getExpiryDate());
+    }
+
+    /**
+     * Re-applies journaled deltas that were not yet checkpointed in the database and reopens the journal.
+     */
+    void recover(long checkpoint) throws IOException {
+        sequence = journal.replay(checkpoint, (recordSequence, productId, batchId, delta) -> {
+            ProductStock stock = products.get(productId);
+            if (stock != null && stock.apply(batchId, delta)) {
+                pendingDeltas.merge(batchId, delta, Integer::sum);
+            }
+        });
+        journal.rotate(sequence + 1);
+    }
+
+    ProductStock product(Long productId) {
+        ProductStock stock = products.get(productId);
+        if (stock == null) {
+            throw new IllegalArgumentException("Product not found: " + productId);
+        }
+        return stock;
+    }
+
+    /**
+     * Reserves stock FIFO by expiry date. The deltas are journaled before memory is changed, so an
+     * acknowledged reservation always survives a crash.
+     */
+    Reservation reserve(Long productId, int quantity) {
+        ProductStock stock = product(productId);
+        ensureScratchCapacity(stock.size());
+        int count = stock.select(quantity, scratchBatchIds, scratchQuantities);
+        if (count < 0) {
+            throw new IllegalArgumentException("Insufficient inventory. Required: " + quantity + ", Available: " + stock.available());
+        }
+        Reservation reservation = new Reservation(productId, stock.getProductName(),
+                Arrays.copyOf(scratchBatchIds, count), Arrays.copyOf(scratchQuantities, count),
+                stock.available() - quantity);
+        for (int i = 0; i < count; i++) {
+            scratchQuantities[i] = -scratchQuantities[i];
+        }
+        applyJournaled(stock, scratchBatchIds, scratchQuantities, count);
+        return reservation;
+    }
+
+    /**
+     * Puts the stock of an earlier reservation back, journaled like a reservation.
+     */
+    void release(Reservation reservation) {
+        ProductStock stock = product(reservation.productId());
+        applyJournaled(stock, reservation.batchIds(), reservation.quantities(), reservation.batchIds().length);
+    }
+
+    /**
+     * Hands the coalesced deltas to the flusher and starts a new journal segment for later records.
+     */
+    PendingFlush drain() {
+        if (pendingDeltas.isEmpty()) {
+            return null;
+        }
+        try {
+            journal.rotate(sequence + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rotate ledger journal for shard " + shardId, e);
+        }
+        Map<Long, Integer> deltas = new HashMap<>(pendingDeltas);
+        pendingDeltas.clear();
+        return new PendingFlush(shardId, sequence, sequence + 1, deltas);
+    }
+
+    /**
+     * Puts back deltas whose flush failed; their journal segments are still on disk.
+     */
+    void restore(PendingFlush flush) {
+        flush.deltas().forEach((batchId, delta) -> pendingDeltas.merge(batchId, delta, Integer::sum));
+    }
+
+    private void applyJournaled(ProductStock stock, long[] batchIds, int[] deltas, int count) {
+        long nextSequence = sequence + 1;
+        try {
+            journal.append(nextSequence, stock.getProductId(), batchIds, deltas, count);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to journal stock change for product " + stock.getProductId(), e);
+        }
+        sequence = nextSequence;
+        for (int i = 0; i < count; i++) {
+            stock.apply(batchIds[i], deltas[i]);
+            pendingDeltas.merge(batchIds[i], deltas[i], Integer::sum);
+        }
+    }
+
+    // ---- end of writer thread methods ----
+
+    void shutdown() {
+        writer.shutdown();
+    }
+
+    private void ensureScratchCapacity(int capacity) {
+        if (scratchBatchIds.length < capacity) {
+            scratchBatchIds = new long[capacity];
+            scratchQuantities = new int[capacity];
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.korber.ledger;
+
+import com.korber.dto.InventoryBatchDto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Batches of a single product held in parallel primitive arrays, kept sorted by expiry date.
+ * Instances are confined to the owning shard's writer thread and are not thread-safe.
+ */
+final class ProductStock {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final Long productId;
+    private final String productName;
+    private long[] batchIds = new long[INITIAL_CAPACITY];
+    private int[] quantities = new int[INITIAL_CAPACITY];
+    private long[] expiryDays = new long[INITIAL_CAPACITY];
+    private int size;
+
+    ProductStock(Long productId, String productName) {
+        this.productId = productId;
+        this.productName = productName;
+    }
+
+    Long getProductId() {
+        return productId;
+    }
+
+    String getProductName() {
+        return productName;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Inserts a batch keeping the arrays ordered by expiry date, then batch id.
+     */
+    void addBatch(long batchId, int quantity, LocalDate expiryDate) {
+        if (size == batchIds.length) {
+            int capacity = size * 2;
+            batchIds = Arrays.copyOf(batchIds, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            expiryDays = Arrays.copyOf(expiryDays, capacity);
+        }
+        long expiryDay = expiryDate.toEpochDay();
+        int index = size;
+        while (index > 0 && (expiryDays[index - 1] > expiryDay
+                || (expiryDays[index - 1] == expiryDay && batchIds[index - 1] > batchId))) {
+            batchIds[index] = batchIds[index - 1];
+            quantities[index] = quantities[index - 1];
+            expiryDays[index] = expiryDays[index - 1];
+            index--;
+        }
+        batchIds[index] = batchId;
+        quantities[index] = quantity;
+        expiryDays[index] = expiryDay;
+        size++;
+    }
+
+    int available() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += quantities[i];
+        }
+        return total;
+    }
+
+    /**
+     * Computes a FIFO selection without changing any quantity.
+     * @param quantity Required quantity
+     * @param outBatchIds Receives the selected batch ids, at least {@link #size()} long
+     * @param outQuantities Receives the quantity taken from each selected batch
+     * @return Number of selected batches, or -1 if the product cannot cover the quantity
+     */
+    int select(int quantity, long[] outBatchIds, int[] outQuantities) {
+        int remaining = quantity;
+        int count = 0;
+        for (int i = 0; i < size && remaining > 0; i++) {
+            if (quantities[i] > 0) {
+                int take = Math.min(remaining, quantities[i]);
+                outBatchIds[count] = batchIds[i];
+                outQuantities[count] = take;
+                count++;
+                remaining -= take;
+            }
+        }
+        return remaining > 0 ? -1 : count;
+    }
+
+    /**
+     * Adds a signed delta to a batch's quantity.
+     * @return false if the batch does not belong to this product
+     */
+    boolean apply(long batchId, int delta) {
+        for (int i = 0; i < size; i++) {
+            if (batchIds[i] == batchId) {
+                quantities[i] += delta;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    List<InventoryBatchDto> toBatchDtos() {
+        List<InventoryBatchDto> batches = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            batches.add(new InventoryBatchDto(batchIds[i], quantities[i], LocalDate.ofEpochDay(expiryDays[i])));
+        }
+        return batches;
+    }
+}
@@ -0,0 +1,14 @@
+package com.korber.ledger;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stock taken from a product's batches by one reservation, in expiry order.
+ */
+public record Reservation(Long productId, String productName, long[] batchIds, int[] quantities, int remainingQuantity) {
+
+    public List<Long> batchIdList() {
+        return Arrays.stream(batchIds).boxed().toList();
+    }
+}
@@ -0,0 +1,261 @@
+package com.korber.ledger;
+
+import com.korber.dto.InventoryResponse;
+import com.korber.dto.InventoryUpdateRequest;
+import com.korber.model.InventoryBatch;
+import com.korber.repository.InventoryBatchRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Authoritative in-memory stock ledger. Products are partitioned over shards, each owned by a single
+ * writer thread, so reservations are answered from memory. Every reservation is journaled to local
+ * disk before it is acknowledged, and coalesced deltas are written behind to {@code inventory_batch}
+ * together with a per-shard checkpoint of the last applied journal sequence.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "ledger")
+public class StockLedger implements AutoCloseable {
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE inventory_batch SET quantity = quantity + ?, version = version + 1 WHERE batch_id = ?";
+    private static final String SAVE_CHECKPOINT_SQL =
+            "MERGE INTO inventory_ledger_checkpoint (shard_id, last_sequence) KEY (shard_id) VALUES (?, ?)";
+    private static final String LOAD_CHECKPOINTS_SQL =
+            "SELECT shard_id, last_sequence FROM inventory_ledger_checkpoint";
+    private static final String CLEAR_CHECKPOINTS_SQL = "DELETE FROM inventory_ledger_checkpoint";
+    private static final String LOAD_JOURNAL_ID_SQL = "SELECT journal_id FROM inventory_ledger_journal";
+    private static final String CLEAR_JOURNAL_ID_SQL = "DELETE FROM inventory_ledger_journal";
+    private static final String SAVE_JOURNAL_ID_SQL = "INSERT INTO inventory_ledger_journal (journal_id) VALUES (?)";
+
+    private final InventoryBatchRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path journalDirectory;
+    private final long flushIntervalMs;
+    private final LedgerShard[] shards;
+    private final ScheduledExecutorService flusher;
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public StockLedger(InventoryBatchRepository repository,
+                       JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${inventory.ledger.shards:4}") int shardCount,
+                       @Value("${inventory.ledger.journal-dir:./data/ledger}") String journalDirectory,
+                       @Value("${inventory.ledger.flush-interval-ms:200}") long flushIntervalMs) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.journalDirectory = Path.of(journalDirectory);
+        this.flushIntervalMs = flushIntervalMs;
+        this.shards = new LedgerShard[shardCount];
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads all batches from the database, replays journal records newer than each shard's
+     * checkpoint and starts the write-behind flusher.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        claimJournal();
+        Map<Integer, Long> checkpoints = new HashMap<>();
+        jdbcTemplate.query(LOAD_CHECKPOINTS_SQL, rs -> {
+            checkpoints.put(rs.getInt("shard_id"), rs.getLong("last_sequence"));
+        });
+
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new LedgerShard(i, new LedgerJournal(journalDirectory, i));
+        }
+        Map<LedgerShard, List<InventoryBatch>> batchesByShard = new HashMap<>();
+        for (InventoryBatch batch : repository.findAll(Sort.by("productId", "expiryDate"))) {
+            batchesByShard.computeIfAbsent(shardFor(batch.getProductId()), shard -> new ArrayList<>()).add(batch);
+        }
+        for (LedgerShard shard : shards) {
+            List<InventoryBatch> batches = batchesByShard.getOrDefault(shard, List.of());
+            long checkpoint = checkpoints.getOrDefault(shard.shardId(), 0L);
+            shard.execute(() -> {
+                batches.forEach(shard::load);
+                try {
+                    shard.recover(checkpoint);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to recover ledger shard " + shard.shardId(), e);
+                }
+                return null;
+            });
+        }
+
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The checkpoints live in the database, in the transaction that applies their deltas, while the journal
+     * lives on local disk; both carry the same journal id. A journal whose id the database does not know
+     * was written against another database, e.g. an in-memory one that was reseeded on restart, and
+     * replaying it would apply its deltas on top of stock that never had them. Such a journal is discarded
+     * and the database's checkpoints are reset along with it.
+     */
+    private void claimJournal() throws IOException {
+        Optional<String> journalId = LedgerJournal.readId(journalDirectory);
+        List<String> databaseJournalIds = jdbcTemplate.queryForList(LOAD_JOURNAL_ID_SQL, String.class);
+        if (journalId.isPresent() && databaseJournalIds.equals(List.of(journalId.get()))) {
+            return;
+        }
+
+        int discarded = LedgerJournal.deleteAllSegments(journalDirectory);
+        if (discarded > 0) {
+            log.warn("Ledger journal in {} does not belong to this database, {} segments discarded",
+                    journalDirectory, discarded);
+        }
+        String newJournalId = UUID.randomUUID().toString();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(CLEAR_CHECKPOINTS_SQL);
+            jdbcTemplate.update(CLEAR_JOURNAL_ID_SQL);
+            jdbcTemplate.update(SAVE_JOURNAL_ID_SQL, newJournalId);
+        });
+        // Written after the database commit: a crash in between leaves the ids unequal, and the next start claims again
+        LedgerJournal.writeId(journalDirectory, newJournalId);
+    }
+
+    public InventoryResponse getInventory(Long productId) {
+        LedgerShard shard = shardFor(productId);
+        return shard.execute(() -> {
+            ProductStock stock = shard.product(productId);
+            return new InventoryResponse(productId, stock.getProductName(), stock.toBatchDtos());
+        });
+    }
+
+    /**
+     * Reserves stock FIFO by expiry date.
+     * @throws IllegalArgumentException if the product is unknown or cannot cover the quantity
+     */
+    public Reservation reserve(Long productId, int quantity) {
+        LedgerShard shard = shardFor(productId);
+        return shard.execute(() -> shard.reserve(productId, quantity));
+    }
+
+    /**
+     * Reserves several items in order. Items may live on different shards, so if one item fails the
+     * reservations already made for earlier items are released before the failure is rethrown.
+     */
+    public List<Reservation> reserveAll(List<InventoryUpdateRequest> items) {
+        List<Reservation> reservations = new ArrayList<>(items.size());
+        try {
+            for (InventoryUpdateRequest item : items) {
+                reservations.add(reserve(item.getProductId(), item.getQuantity()));
+            }
+        } catch (RuntimeException e) {
+            reservations.forEach(this::release);
+            throw e;
+        }
+        return reservations;
+    }
+
+    public void release(Reservation reservation) {
+        LedgerShard shard = shardFor(reservation.productId());
+        shard.execute(() -> {
+            shard.release(reservation);
+            return null;
+        });
+    }
+
+    /**
+     * Writes all pending deltas to the database, one transaction and one JDBC batch per shard.
+     */
+    public void flush() {
+        // Flushes must not interleave, otherwise a later checkpoint could delete segments of a failed earlier flush
+        flushLock.lock();
+        try {
+            flushShards();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        try {
+            flush();
+        } finally {
+            for (LedgerShard shard : shards) {
+                shard.shutdown();
+                shard.journal().close();
+            }
+        }
+    }
+
+    private void flushShards() {
+        for (LedgerShard shard : shards) {
+            LedgerShard.PendingFlush pending = shard.execute(shard::drain);
+            if (pending == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(pending));
+            } catch (RuntimeException e) {
+                shard.execute(() -> {
+                    shard.restore(pending);
+                    return null;
+                });
+                throw e;
+            }
+            try {
+                shard.journal().deleteSegmentsBefore(pending.nextSegmentStart());
+            } catch (IOException e) {
+                // Leftover segments are skipped on replay because the checkpoint already covers them
+                log.warn("Failed to delete flushed journal segments of shard {}", pending.shardId(), e);
+            }
+        }
+    }
+
+    private void write(LedgerShard.PendingFlush pending) {
+        List<Object[]> batchArgs = new ArrayList<>(pending.deltas().size());
+        pending.deltas().forEach((batchId, delta) -> {
+            if (delta != 0) {
+                batchArgs.add(new Object[]{delta, batchId});
+            }
+        });
+        jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, batchArgs);
+        jdbcTemplate.update(SAVE_CHECKPOINT_SQL, pending.shardId(), pending.lastSequence());
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Ledger write-behind flush failed, deltas will be retried", e);
+        }
+    }
+
+    private LedgerShard shardFor(Long productId) {
+        long hash = productId * 0x9E3779B97F4A7C15L;
+        return shards[(int) Math.floorMod(hash >>> 32, (long) shards.length)];
+    }
+}
@@ -0,0 +1,47 @@
+package com.korber.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the batch import, recorded once per chunk rather than per row.
+ * <ul>
+ *   <li>{@code inventory.import.phase} timer, tagged read (parsing and checking the chunk's rows off the
+ *       stream) or write (upserting the chunk and committing it)</li>
+ *   <li>{@code inventory.import.rows} counter of committed rows</li>
+ * </ul>
+ */
+@Component
+public class ImportMetrics {
+    private final Timer read;
+    private final Timer write;
+    private final Counter rows;
+
+    public ImportMetrics(MeterRegistry registry) {
+        this.read = phase(registry, "read");
+        this.write = phase(registry, "write");
+        this.rows = Counter.builder("inventory.import.rows")
+                .description("Batch rows committed by imports")
+                .register(registry);
+    }
+
+    public void recordRead(long nanos) {
+        read.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordWrite(long nanos, int rowsWritten) {
+        write.record(nanos, TimeUnit.NANOSECONDS);
+        rows.increment(rowsWritten);
+    }
+
+    private static Timer phase(MeterRegistry registry, String phase) {
+        return Timer.builder("inventory.import.phase")
+                .description("Time spent reading an import chunk off the stream, or writing it")
+                .tag("phase", phase)
+                .register(registry);
+    }
+}
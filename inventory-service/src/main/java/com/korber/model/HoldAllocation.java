@@ -0,0 +1,19 @@
+package com.korber.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldAllocation {
+    @Column(name = "batch_id", nullable = false)
+    private Long batchId;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+}
@@ -0,0 +1,8 @@
+package com.korber.model;
+
+public enum HoldStatus {
+    HELD,
+    CONFIRMED,
+    RELEASED,
+    EXPIRED
+}
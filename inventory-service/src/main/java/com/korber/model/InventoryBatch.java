@@ -13,8 +13,13 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 public class InventoryBatch {
+    public static final String ID_SEQUENCE = "inventory_batch_id_seq";
+    /** Ids handed out per sequence call; must match INCREMENT BY of inventory_batch_id_seq. */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "batch_id")
     private Long batchId;
 
@@ -29,5 +34,9 @@ public class InventoryBatch {
 
     @Column(name = "expiry_date", nullable = false)
     private LocalDate expiryDate;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
 
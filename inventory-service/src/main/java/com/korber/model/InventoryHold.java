@@ -0,0 +1,43 @@
+package com.korber.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stock taken out of its batches for a limited time. The hold is confirmed when the order commits;
+ * until then it can be released, and it is reclaimed automatically once {@code expiresAt} passes.
+ */
+@Entity
+@Table(name = "inventory_hold")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryHold {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "hold_id")
+    private Long holdId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private HoldStatus status;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @ElementCollection
+    @CollectionTable(name = "inventory_hold_allocation", joinColumns = @JoinColumn(name = "hold_id"))
+    private List<HoldAllocation> allocations = new ArrayList<>();
+}
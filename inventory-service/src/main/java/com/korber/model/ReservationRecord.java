@@ -0,0 +1,98 @@
+package com.korber.model;
+
+import com.korber.dto.InventoryUpdateRequest;
+import com.korber.dto.InventoryUpdateResponse;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Outcome of a reservation that carried an {@code Idempotency-Key}, committed with the stock it took.
+ * A request delivered again with the same key is answered from here instead of reserving twice, provided
+ * it asks for the same reservation; a key reused for another one is refused.
+ */
+@Entity
+@Table(name = "inventory_reservation_record")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRecord implements Persistable<String> {
+    @Id
+    @Column(name = "request_key")
+    private String requestKey;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    /** Digest of what was asked for: product, quantity and strategy; null on records older than it */
+    @Column(name = "request_digest")
+    private String requestDigest;
+
+    /** Comma-separated, in the order they were returned */
+    @Column(name = "reserved_batch_ids", nullable = false)
+    private String reservedBatchIds;
+
+    @Column(name = "product_name")
+    private String productName;
+
+    @Column(name = "remaining_quantity")
+    private Integer remainingQuantity;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Client keys are stored as a digest, so a row costs the same whatever the client sends.
+     */
+    public static String keyOf(String idempotencyKey) {
+        return UUID.nameUUIDFromBytes(("update\n" + idempotencyKey).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    public static String digestOf(InventoryUpdateRequest request) {
+        String body = request.getProductId() + "\n" + request.getQuantity() + "\n" + request.getStrategy();
+        return UUID.nameUUIDFromBytes(body.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    public static ReservationRecord of(String idempotencyKey, InventoryUpdateRequest request,
+                                       InventoryUpdateResponse response) {
+        String batchIds = response.getReservedBatchIds().stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        return new ReservationRecord(keyOf(idempotencyKey), request.getProductId(), digestOf(request), batchIds,
+                response.getProductName(), response.getRemainingQuantity(), Instant.now());
+    }
+
+    /**
+     * @return Whether {@code request} asks for the reservation this record was made for
+     */
+    public boolean matches(InventoryUpdateRequest request) {
+        return requestDigest == null || requestDigest.equals(digestOf(request));
+    }
+
+    public InventoryUpdateResponse toResponse() {
+        return new InventoryUpdateResponse(
+                Arrays.stream(reservedBatchIds.split(",")).map(Long::valueOf).collect(Collectors.toList()),
+                productName, remainingQuantity, "Inventory updated successfully");
+    }
+
+    @Override
+    public String getId() {
+        return requestKey;
+    }
+
+    /**
+     * Records are only ever inserted, so saving one never needs the lookup a merge would do.
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
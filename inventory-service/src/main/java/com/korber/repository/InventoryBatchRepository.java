@@ -2,13 +2,32 @@ package com.korber.repository;
 
 import com.korber.model.InventoryBatch;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface InventoryBatchRepository extends JpaRepository<InventoryBatch, Long> {
+public interface InventoryBatchRepository extends JpaRepository<InventoryBatch, Long>, InventoryBatchRepositoryCustom {
     List<InventoryBatch> findByProductIdOrderByExpiryDateAsc(Long productId);
-}
+    List<InventoryBatch> findByProductIdInOrderByExpiryDateAsc(Collection<Long> productIds);
+
+    /**
+     * Batches of the product that still hold stock, earliest expiry first. Walks the
+     * (product_id, expiry_date) index in order, so depleted batches are skipped without a sort.
+     */
+    @Query("SELECT b FROM InventoryBatch b WHERE b.productId = :productId AND b.quantity > 0 ORDER BY b.expiryDate ASC")
+    List<InventoryBatch> findAvailableByProductId(@Param("productId") Long productId);
 
+    @Query("SELECT b FROM InventoryBatch b WHERE b.productId IN :productIds AND b.quantity > 0 ORDER BY b.expiryDate ASC")
+    List<InventoryBatch> findAvailableByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Any batch of the product, depleted or not; tells a sold-out product apart from an unknown one.
+     */
+    Optional<InventoryBatch> findFirstByProductId(Long productId);
+}
@@ -0,0 +1,41 @@
+package com.korber.repository;
+
+import com.korber.handler.BatchSelection;
+import com.korber.model.InventoryBatch;
+
+import java.util.List;
+import java.util.Map;
+
+public interface InventoryBatchRepositoryCustom {
+    /**
+     * Deducts quantities from batches using guarded updates sent as a single JDBC batch.
+     * A row is only updated when it still holds at least the requested quantity, and its
+     * version is bumped so stale entity writes fail their optimistic check.
+     * @param deductions Map of batchId to quantity to deduct
+     * @return Affected-row count per deduction, in the map's iteration order
+     */
+    int[] decrementQuantities(Map<Long, Integer> deductions);
+
+    /**
+     * Same guarded batch update, binding ids and quantities straight from the selection buffer.
+     * @param deductions Batches and quantities to deduct
+     * @return Affected-row count per deduction, in selection order
+     */
+    int[] decrementQuantities(BatchSelection deductions);
+
+    /**
+     * Returns stock to batches (a released or expired hold) in a single JDBC batch.
+     * @param additions Map of batchId to quantity to add back
+     * @return Affected-row count per addition, in the map's iteration order
+     */
+    int[] incrementQuantities(Map<Long, Integer> additions);
+
+    /**
+     * Writes imported batches as JDBC batches. A batch with an id replaces the name, quantity and expiry
+     * date of that batch, provided it belongs to the same product, and bumps its version. A batch without
+     * an id is inserted, with an id from the batch id sequence taken a block at a time.
+     * @param batches Batches to write; ids are set on the new ones
+     * @return Affected-row count per batch, in list order; 0 for an id that matches no batch of the product
+     */
+    int[] upsertAll(List<InventoryBatch> batches);
+}
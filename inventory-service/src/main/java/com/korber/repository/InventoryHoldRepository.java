@@ -0,0 +1,43 @@
+package com.korber.repository;
+
+import com.korber.model.HoldStatus;
+import com.korber.model.InventoryHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InventoryHoldRepository extends JpaRepository<InventoryHold, Long> {
+    List<InventoryHold> findByStatus(HoldStatus status);
+
+    @Query("SELECT DISTINCT h FROM InventoryHold h LEFT JOIN FETCH h.allocations "
+            + "WHERE h.holdId IN :holdIds AND h.status = :status")
+    List<InventoryHold> findWithAllocations(@Param("holdIds") Collection<Long> holdIds,
+                                            @Param("status") HoldStatus status);
+
+    @Query("SELECT h.productId FROM InventoryHold h WHERE h.holdId = :holdId")
+    Optional<Long> findProductId(@Param("holdId") Long holdId);
+
+    /**
+     * Reads the committed status straight from the table, bypassing a hold already loaded in the session.
+     */
+    @Query("SELECT h.status FROM InventoryHold h WHERE h.holdId = :holdId")
+    Optional<HoldStatus> findStatus(@Param("holdId") Long holdId);
+
+    /**
+     * Moves holds from one status to another. Only rows still in {@code from} are updated, so of two
+     * racing transitions (a confirm and an expiry) exactly one wins.
+     * @return Number of holds moved
+     */
+    @Modifying
+    @Query("UPDATE InventoryHold h SET h.status = :to WHERE h.holdId IN :holdIds AND h.status = :from")
+    int transition(@Param("holdIds") Collection<Long> holdIds,
+                   @Param("from") HoldStatus from,
+                   @Param("to") HoldStatus to);
+}
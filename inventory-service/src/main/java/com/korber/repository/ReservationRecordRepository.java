@@ -0,0 +1,17 @@
+package com.korber.repository;
+
+import com.korber.model.ReservationRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface ReservationRecordRepository extends JpaRepository<ReservationRecord, String> {
+    @Modifying
+    @Query("DELETE FROM ReservationRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,134 @@
+package com.korber.repository.impl;
+
+import com.korber.handler.BatchSelection;
+import com.korber.model.InventoryBatch;
+import com.korber.repository.InventoryBatchRepositoryCustom;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class InventoryBatchRepositoryCustomImpl implements InventoryBatchRepositoryCustom {
+    private static final String DECREMENT_SQL =
+            "UPDATE inventory_batch SET quantity = quantity - ?, version = version + 1 WHERE batch_id = ? AND quantity >= ?";
+    private static final String INCREMENT_SQL =
+            "UPDATE inventory_batch SET quantity = quantity + ?, version = version + 1 WHERE batch_id = ?";
+    private static final String REPLACE_SQL =
+            "UPDATE inventory_batch SET product_name = ?, quantity = ?, expiry_date = ?, version = version + 1 "
+                    + "WHERE batch_id = ? AND product_id = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO inventory_batch (batch_id, product_id, product_name, quantity, expiry_date, version) "
+                    + "VALUES (?, ?, ?, ?, ?, 0)";
+    private static final String NEXT_ID_BLOCK_SQL = "SELECT NEXT VALUE FOR " + InventoryBatch.ID_SEQUENCE;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] decrementQuantities(Map<Long, Integer> deductions) {
+        List<Object[]> batchArgs = new ArrayList<>(deductions.size());
+        for (Map.Entry<Long, Integer> entry : deductions.entrySet()) {
+            batchArgs.add(new Object[]{entry.getValue(), entry.getKey(), entry.getValue()});
+        }
+        return jdbcTemplate.batchUpdate(DECREMENT_SQL, batchArgs);
+    }
+
+    @Override
+    public int[] decrementQuantities(BatchSelection deductions) {
+        return jdbcTemplate.batchUpdate(DECREMENT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                statement.setInt(1, deductions.quantity(i));
+                statement.setLong(2, deductions.batchId(i));
+                statement.setInt(3, deductions.quantity(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return deductions.size();
+            }
+        });
+    }
+
+    @Override
+    public int[] incrementQuantities(Map<Long, Integer> additions) {
+        List<Object[]> batchArgs = new ArrayList<>(additions.size());
+        for (Map.Entry<Long, Integer> entry : additions.entrySet()) {
+            batchArgs.add(new Object[]{entry.getValue(), entry.getKey()});
+        }
+        return jdbcTemplate.batchUpdate(INCREMENT_SQL, batchArgs);
+    }
+
+    @Override
+    public int[] upsertAll(List<InventoryBatch> batches) {
+        List<Integer> replaced = new ArrayList<>();
+        List<Integer> inserted = new ArrayList<>();
+        for (int i = 0; i < batches.size(); i++) {
+            (batches.get(i).getBatchId() != null ? replaced : inserted).add(i);
+        }
+        assignIds(batches, inserted);
+
+        int[] counts = new int[batches.size()];
+        int[] replacedCounts = jdbcTemplate.batchUpdate(REPLACE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                InventoryBatch batch = batches.get(replaced.get(i));
+                statement.setString(1, batch.getProductName());
+                statement.setInt(2, batch.getQuantity());
+                statement.setDate(3, Date.valueOf(batch.getExpiryDate()));
+                statement.setLong(4, batch.getBatchId());
+                statement.setLong(5, batch.getProductId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return replaced.size();
+            }
+        });
+        int[] insertedCounts = jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                InventoryBatch batch = batches.get(inserted.get(i));
+                statement.setLong(1, batch.getBatchId());
+                statement.setLong(2, batch.getProductId());
+                statement.setString(3, batch.getProductName());
+                statement.setInt(4, batch.getQuantity());
+                statement.setDate(5, Date.valueOf(batch.getExpiryDate()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return inserted.size();
+            }
+        });
+        for (int i = 0; i < replacedCounts.length; i++) {
+            counts[replaced.get(i)] = replacedCounts[i];
+        }
+        for (int i = 0; i < insertedCounts.length; i++) {
+            counts[inserted.get(i)] = insertedCounts[i];
+        }
+        return counts;
+    }
+
+    /**
+     * Takes ids for new batches the way Hibernate's pooled optimizer does for {@link InventoryBatch}:
+     * each sequence value is the last id of a block of {@link InventoryBatch#ID_ALLOCATION_SIZE}.
+     */
+    private void assignIds(List<InventoryBatch> batches, List<Integer> newBatches) {
+        long next = 0;
+        long last = -1;
+        for (int index : newBatches) {
+            if (next > last) {
+                last = jdbcTemplate.queryForObject(NEXT_ID_BLOCK_SQL, Long.class);
+                next = last - InventoryBatch.ID_ALLOCATION_SIZE + 1;
+            }
+            batches.get(index).setBatchId(next++);
+        }
+    }
+}
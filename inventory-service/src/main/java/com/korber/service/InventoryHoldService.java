@@ -0,0 +1,42 @@
+package com.korber.service;
+
+import com.korber.dto.InventoryBulkUpdateRequest;
+import com.korber.dto.InventoryHoldResponse;
+import com.korber.dto.InventoryUpdateRequest;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Two-phase reservations: a hold takes the stock out of its batches for a limited time, the caller
+ * confirms it once its own work has committed, or releases it to put the stock back.
+ */
+public interface InventoryHoldService {
+    public InventoryHoldResponse holdInventory(InventoryUpdateRequest request);
+    public InventoryHoldResponse confirmHold(Long holdId);
+    public InventoryHoldResponse releaseHold(Long holdId);
+
+    /**
+     * Holds every item or none, in one transaction.
+     * @return One hold per item, in request order
+     */
+    public List<InventoryHoldResponse> holdInventoryBulk(InventoryBulkUpdateRequest request);
+
+    /**
+     * Confirms every hold or none. Holds already confirmed count as confirmed, so the call can be retried.
+     */
+    public List<InventoryHoldResponse> confirmHolds(List<Long> holdIds);
+
+    /**
+     * Returns the stock of the given holds that are still held; holds already confirmed, released or
+     * expired are skipped, so the call can be retried.
+     * @return The holds released
+     */
+    public List<InventoryHoldResponse> releaseHolds(List<Long> holdIds);
+
+    /**
+     * Returns the stock of the given holds that are still held; holds already confirmed or released are skipped.
+     * @return Number of holds expired
+     */
+    public int expireHolds(Collection<Long> holdIds);
+}
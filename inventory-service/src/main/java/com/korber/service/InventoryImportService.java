@@ -0,0 +1,14 @@
+package com.korber.service;
+
+import com.korber.dto.InventoryImportResponse;
+
+import java.io.InputStream;
+
+/**
+ * Bulk restock for warehouse syncs. The payload is read as a stream and written a chunk of rows per
+ * transaction, so rows before a malformed one stay committed and the response says how many.
+ */
+public interface InventoryImportService {
+    public InventoryImportResponse importCsv(InputStream payload);
+    public InventoryImportResponse importNdjson(InputStream payload);
+}
@@ -1,5 +1,7 @@
 package com.korber.service;
 
+import com.korber.dto.InventoryBulkUpdateRequest;
+import com.korber.dto.InventoryBulkUpdateResponse;
 import com.korber.dto.InventoryResponse;
 import com.korber.dto.InventoryUpdateRequest;
 import com.korber.dto.InventoryUpdateResponse;
@@ -7,4 +9,15 @@ import com.korber.dto.InventoryUpdateResponse;
 public interface InventoryService {
     public InventoryResponse getInventoryByProductId(Long productId);
     public InventoryUpdateResponse updateInventory(InventoryUpdateRequest request);
+
+    /**
+     * Reserves like {@link #updateInventory(InventoryUpdateRequest)}. Engines that persist keyed
+     * reservations answer a key they have already applied from that record instead of reserving again;
+     * the default keeps no record beyond the controller's in-memory {@code IdempotencyStore}.
+     * @param idempotencyKey Client-supplied key, may be null
+     */
+    public default InventoryUpdateResponse updateInventory(InventoryUpdateRequest request, String idempotencyKey) {
+        return updateInventory(request);
+    }
+    public InventoryBulkUpdateResponse updateInventoryBulk(InventoryBulkUpdateRequest request);
 }
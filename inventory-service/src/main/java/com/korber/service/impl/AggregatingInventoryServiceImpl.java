@@ -0,0 +1,45 @@
+package com.korber.service.impl;
+
+import com.korber.aggregation.ReservationAggregator;
+import com.korber.dto.InventoryBulkUpdateRequest;
+import com.korber.dto.InventoryBulkUpdateResponse;
+import com.korber.dto.InventoryResponse;
+import com.korber.dto.InventoryUpdateRequest;
+import com.korber.dto.InventoryUpdateResponse;
+import com.korber.service.InventoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+/**
+ * Routes single reservations through the {@link ReservationAggregator}, so concurrent reservations of a
+ * product share one transaction; reads and bulk reservations go straight to {@link InventoryServiceImpl}.
+ * Enabled with {@code inventory.aggregation.enabled=true}.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "jpa", matchIfMissing = true)
+@ConditionalOnProperty(name = "inventory.aggregation.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class AggregatingInventoryServiceImpl implements InventoryService {
+    private final InventoryServiceImpl inventoryService;
+    private final ReservationAggregator aggregator;
+
+    public InventoryResponse getInventoryByProductId(Long productId) {
+        return inventoryService.getInventoryByProductId(productId);
+    }
+
+    public InventoryUpdateResponse updateInventory(InventoryUpdateRequest request) {
+        return aggregator.reserve(request, null);
+    }
+
+    @Override
+    public InventoryUpdateResponse updateInventory(InventoryUpdateRequest request, String idempotencyKey) {
+        return aggregator.reserve(request, idempotencyKey);
+    }
+
+    public InventoryBulkUpdateResponse updateInventoryBulk(InventoryBulkUpdateRequest request) {
+        return inventoryService.updateInventoryBulk(request);
+    }
+}
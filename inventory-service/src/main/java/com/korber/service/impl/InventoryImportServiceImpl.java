@@ -0,0 +1,115 @@
+package com.korber.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.korber.cache.InventoryResponseCache;
+import com.korber.dto.InventoryImportResponse;
+import com.korber.ingest.BatchRowReader;
+import com.korber.ingest.CsvBatchRowReader;
+import com.korber.ingest.ImportRejectedException;
+import com.korber.ingest.NdjsonBatchRowReader;
+import com.korber.metrics.ImportMetrics;
+import com.korber.model.InventoryBatch;
+import com.korber.repository.InventoryBatchRepository;
+import com.korber.service.InventoryImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+@Service
+@Slf4j
+// The ledger engine answers from memory and would not see imported stock
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class InventoryImportServiceImpl implements InventoryImportService {
+    private final InventoryBatchRepository repository;
+    private final InventoryResponseCache responseCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ImportMetrics metrics;
+
+    @Value("${inventory.import.chunk-size:5000}")
+    private int chunkSize;
+
+    @Override
+    public InventoryImportResponse importCsv(InputStream payload) {
+        return importRows(() -> new CsvBatchRowReader(payload));
+    }
+
+    @Override
+    public InventoryImportResponse importNdjson(InputStream payload) {
+        return importRows(() -> new NdjsonBatchRowReader(payload, objectMapper));
+    }
+
+    private InventoryImportResponse importRows(Supplier<BatchRowReader> readers) {
+        long imported = 0;
+        try {
+            BatchRowReader reader = readers.get();
+            List<InventoryBatch> chunk = new ArrayList<>(chunkSize);
+            long[] lines = new long[chunkSize];
+            long readStarted = System.nanoTime();
+            while (reader.hasNext()) {
+                InventoryBatch batch = reader.next();
+                requireComplete(batch, reader.line());
+                lines[chunk.size()] = reader.line();
+                chunk.add(batch);
+                if (chunk.size() == chunkSize) {
+                    imported += write(chunk, lines, readStarted);
+                    chunk = new ArrayList<>(chunkSize);
+                    readStarted = System.nanoTime();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                imported += write(chunk, lines, readStarted);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ImportRejectedException(e.getMessage(), imported, e);
+        }
+        log.info("Imported {} inventory batch rows", imported);
+        return new InventoryImportResponse(imported, "Import complete");
+    }
+
+    /**
+     * Writes one chunk in its own transaction and drops the cached responses of its products once it
+     * commits. A row naming a batch the product does not have rolls the whole chunk back.
+     * @param readStarted When reading the chunk's first row began
+     */
+    private int write(List<InventoryBatch> chunk, long[] lines, long readStarted) {
+        long started = System.nanoTime();
+        metrics.recordRead(started - readStarted);
+        transactionTemplate.executeWithoutResult(status -> {
+            int[] counts = repository.upsertAll(chunk);
+            Set<Long> productIds = new HashSet<>();
+            for (int i = 0; i < counts.length; i++) {
+                InventoryBatch batch = chunk.get(i);
+                if (counts[i] == 0) {
+                    throw new IllegalArgumentException("Line " + lines[i] + ": product " + batch.getProductId()
+                            + " has no batch " + batch.getBatchId());
+                }
+                productIds.add(batch.getProductId());
+            }
+            responseCache.invalidateAfterCommit(productIds);
+        });
+        metrics.recordWrite(System.nanoTime() - started, chunk.size());
+        return chunk.size();
+    }
+
+    private static void requireComplete(InventoryBatch batch, long line) {
+        if (batch.getProductId() == null || batch.getProductName() == null || batch.getQuantity() == null
+                || batch.getExpiryDate() == null) {
+            throw new IllegalArgumentException("Line " + line + ": productId, productName, quantity and expiryDate are required");
+        }
+        if (batch.getQuantity() < 0) {
+            throw new IllegalArgumentException("Line " + line + ": quantity must not be negative");
+        }
+    }
+}
@@ -1,37 +1,76 @@
 package com.korber.service.impl;
 
+import com.korber.aggregation.ReservationOutcome;
+import com.korber.cache.InventoryResponseCache;
+import com.korber.concurrency.ProductLockStripes;
 import com.korber.dto.InventoryBatchDto;
+import com.korber.dto.InventoryBulkUpdateRequest;
+import com.korber.dto.InventoryBulkUpdateResponse;
+import com.korber.dto.InventoryHoldResponse;
 import com.korber.dto.InventoryResponse;
 import com.korber.dto.InventoryUpdateRequest;
 import com.korber.dto.InventoryUpdateResponse;
 import com.korber.factory.InventoryHandlerFactory;
+import com.korber.handler.BatchSelection;
 import com.korber.handler.InventoryHandler;
+import com.korber.hold.HoldExpiryQueue;
+import com.korber.idempotency.IdempotencyKeyReusedException;
+import com.korber.metrics.ReservationMetrics;
+import com.korber.model.HoldAllocation;
+import com.korber.model.HoldStatus;
 import com.korber.model.InventoryBatch;
+import com.korber.model.InventoryHold;
+import com.korber.model.ReservationRecord;
 import com.korber.repository.InventoryBatchRepository;
+import com.korber.repository.InventoryHoldRepository;
+import com.korber.repository.ReservationRecordRepository;
+import com.korber.service.InventoryHoldService;
 import com.korber.service.InventoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "jpa", matchIfMissing = true)
 @RequiredArgsConstructor
-public class InventoryServiceImpl implements InventoryService {
+public class InventoryServiceImpl implements InventoryService, InventoryHoldService {
     private final InventoryBatchRepository repository;
     private final InventoryHandlerFactory handlerFactory;
+    private final ProductLockStripes lockStripes;
+    private final InventoryResponseCache responseCache;
+    private final InventoryHoldRepository holdRepository;
+    private final ReservationRecordRepository recordRepository;
+    private final HoldExpiryQueue holdExpiryQueue;
+    private final ReservationMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${inventory.hold.ttl-ms:30000}")
+    private long holdTtlMs;
 
     public InventoryResponse getInventoryByProductId(Long productId) {
-        List<InventoryBatch> batches = repository.findByProductIdOrderByExpiryDateAsc(productId);
-        
-        if (batches.isEmpty()) {
-            throw new IllegalArgumentException("Product not found: " + productId);
-        }
+        return responseCache.get(productId, this::loadInventory);
+    }
+
+    private InventoryResponse loadInventory(Long productId) {
+        List<InventoryBatch> batches = repository.findAvailableByProductId(productId);
 
-        String productName = batches.get(0).getProductName();
+        // Depleted batches are not loaded; a sold-out product is reported with no batches
+        String productName = batches.isEmpty()
+                ? productNameOf(productId)
+                : batches.get(0).getProductName();
         List<InventoryBatchDto> batchDtos = batches.stream()
                 .map(batch -> new InventoryBatchDto(
                         batch.getBatchId(),
@@ -43,38 +82,546 @@ public class InventoryServiceImpl implements InventoryService {
         return new InventoryResponse(productId, productName, batchDtos);
     }
 
-    @Transactional
     public InventoryUpdateResponse updateInventory(InventoryUpdateRequest request) {
-        List<InventoryBatch> batches = repository.findByProductIdOrderByExpiryDateAsc(request.getProductId());
-        
+        return updateInventory(request, null);
+    }
+
+    /**
+     * Reservations of a product are serialized on its stripe, which is taken before the transaction
+     * opens so that callers queued behind a hot product do not hold pooled connections. A keyed
+     * reservation is recorded in its transaction, and the same key under the same stripe finds it.
+     * @throws IdempotencyKeyReusedException when the key was already used for a different reservation
+     */
+    @Override
+    public InventoryUpdateResponse updateInventory(InventoryUpdateRequest request, String idempotencyKey) {
+        return lockStripes.callLocked(request.getProductId(), () -> transactionTemplate.execute(status -> {
+            if (!isKeyed(idempotencyKey)) {
+                return reserve(request, lockStripes.selectionFor(request.getProductId()));
+            }
+            Optional<ReservationRecord> applied = recordRepository.findById(ReservationRecord.keyOf(idempotencyKey));
+            if (applied.isPresent()) {
+                return replay(applied.get(), request);
+            }
+            InventoryUpdateResponse response = reserve(request, lockStripes.selectionFor(request.getProductId()));
+            recordRepository.save(ReservationRecord.of(idempotencyKey, request, response));
+            return response;
+        }));
+    }
+
+    /**
+     * Deducts the request from the product's batches; the batches used are left in {@code selection}.
+     * Runs in a transaction under the product's stripe, so FIFO selection never works on stale batches.
+     */
+    private InventoryUpdateResponse reserve(InventoryUpdateRequest request, BatchSelection selection) {
+        responseCache.invalidateAfterCommit(request.getProductId());
+
+        long started = System.nanoTime();
+        List<InventoryBatch> batches = repository.findAvailableByProductId(request.getProductId());
+        long loaded = System.nanoTime();
+        metrics.recordLoad(loaded - started);
+
         if (batches.isEmpty()) {
-            throw new IllegalArgumentException("Product not found: " + request.getProductId());
+            throw soldOutOrNotFound(request);
         }
 
         // Use Factory Pattern to get the appropriate handler
-        InventoryHandler handler = handlerFactory.getHandler("FIFO");
-        Map<Long, Integer> batchReservations = handler.selectBatches(batches, request.getQuantity());
-
-        List<Long> reservedBatchIds = new ArrayList<>();
-
-        // Update inventory quantities
-        for (Map.Entry<Long, Integer> entry : batchReservations.entrySet()) {
-            Long batchId = entry.getKey();
-            Integer quantityToDeduct = entry.getValue();
-            
-            InventoryBatch batch = repository.findById(batchId)
-                    .orElseThrow(() -> new IllegalArgumentException("Batch not found: " + batchId));
-            
-            if (batch.getQuantity() < quantityToDeduct) {
+        InventoryHandler handler = handlerFactory.getHandler(request.getProductId(), request.getStrategy());
+        try {
+            handler.selectBatches(batches, request.getQuantity(), selection);
+        } catch (IllegalArgumentException e) {
+            metrics.insufficientStock();
+            throw e;
+        }
+        long selected = System.nanoTime();
+        metrics.recordSelect(selected - loaded);
+
+        List<Long> reservedBatchIds = applyDeductions(selection);
+        metrics.recordWrite(System.nanoTime() - selected, selection.size());
+
+        // Batches were read under the product lock, so the remaining stock is exact
+        int remainingQuantity = totalQuantity(batches) - request.getQuantity();
+
+        return new InventoryUpdateResponse(reservedBatchIds, batches.get(0).getProductName(),
+                remainingQuantity, "Inventory updated successfully");
+    }
+
+    public InventoryHoldResponse holdInventory(InventoryUpdateRequest request) {
+        return lockStripes.callLocked(request.getProductId(),
+                () -> transactionTemplate.execute(status -> hold(request)));
+    }
+
+    private InventoryHoldResponse hold(InventoryUpdateRequest request) {
+        BatchSelection selection = lockStripes.selectionFor(request.getProductId());
+        InventoryUpdateResponse reserved = reserve(request, selection);
+
+        InventoryHold hold = new InventoryHold();
+        hold.setProductId(request.getProductId());
+        hold.setQuantity(request.getQuantity());
+        hold.setStatus(HoldStatus.HELD);
+        hold.setExpiresAt(Instant.now().plusMillis(holdTtlMs));
+        for (int i = 0; i < selection.size(); i++) {
+            hold.getAllocations().add(new HoldAllocation(selection.batchId(i), selection.quantity(i)));
+        }
+        hold = holdRepository.save(hold);
+
+        // Queued before commit; if the transaction rolls back the entry finds no held row and is dropped
+        holdExpiryQueue.schedule(hold.getHoldId(), hold.getExpiresAt());
+
+        return new InventoryHoldResponse(hold.getHoldId(), HoldStatus.HELD.name(), reserved.getReservedBatchIds(),
+                reserved.getProductName(), reserved.getRemainingQuantity(), hold.getExpiresAt(), "Inventory held");
+    }
+
+    /**
+     * Confirming a hold that is already confirmed succeeds again, so a confirm whose response was lost
+     * can be retried.
+     */
+    @Transactional
+    public InventoryHoldResponse confirmHold(Long holdId) {
+        InventoryHold hold = findHold(holdId);
+        if (holdRepository.transition(List.of(holdId), HoldStatus.HELD, HoldStatus.CONFIRMED) == 0) {
+            if (holdRepository.findStatus(holdId).orElse(null) == HoldStatus.CONFIRMED) {
+                return holdResponse(hold, HoldStatus.CONFIRMED, "Hold already confirmed");
+            }
+            throw new IllegalStateException("Hold is no longer held: " + holdId);
+        }
+        return holdResponse(hold, HoldStatus.CONFIRMED, "Hold confirmed");
+    }
+
+    public InventoryHoldResponse releaseHold(Long holdId) {
+        // A hold never changes product, so its stripe can be looked up before the transaction
+        Long productId = holdRepository.findProductId(holdId)
+                .orElseThrow(() -> new IllegalArgumentException("Hold not found: " + holdId));
+        return lockStripes.callLocked(productId, () -> transactionTemplate.execute(status -> {
+            InventoryHold hold = findHold(holdId);
+            if (holdRepository.transition(List.of(holdId), HoldStatus.HELD, HoldStatus.RELEASED) == 0) {
+                throw new IllegalStateException("Hold is no longer held: " + holdId);
+            }
+            restock(List.of(hold));
+            return holdResponse(hold, HoldStatus.RELEASED, "Hold released");
+        }));
+    }
+
+    /**
+     * Confirms in one transaction; if any hold is no longer held, none is confirmed.
+     */
+    @Transactional
+    public List<InventoryHoldResponse> confirmHolds(List<Long> holdIds) {
+        List<InventoryHold> holds = holdRepository.findAllById(holdIds);
+        if (holds.size() < holdIds.size()) {
+            throw new IllegalArgumentException("Hold not found: " + missing(holdIds, holds));
+        }
+        if (holdRepository.transition(holdIds, HoldStatus.HELD, HoldStatus.CONFIRMED) < holdIds.size()) {
+            for (Long holdId : holdIds) {
+                if (holdRepository.findStatus(holdId).orElse(null) != HoldStatus.CONFIRMED) {
+                    throw new IllegalStateException("Hold is no longer held: " + holdId);
+                }
+            }
+        }
+        return holds.stream()
+                .map(hold -> holdResponse(hold, HoldStatus.CONFIRMED, "Hold confirmed"))
+                .toList();
+    }
+
+    public List<InventoryHoldResponse> releaseHolds(List<Long> holdIds) {
+        return returnHolds(holdIds, HoldStatus.RELEASED).stream()
+                .map(hold -> holdResponse(hold, HoldStatus.RELEASED, "Hold released"))
+                .toList();
+    }
+
+    public int expireHolds(Collection<Long> holdIds) {
+        return returnHolds(holdIds, HoldStatus.EXPIRED).size();
+    }
+
+    /**
+     * Moves the given holds that are still held to {@code to} and puts their stock back.
+     * @return The holds moved
+     */
+    private List<InventoryHold> returnHolds(Collection<Long> holdIds, HoldStatus to) {
+        List<InventoryHold> held = holdRepository.findWithAllocations(holdIds, HoldStatus.HELD);
+        if (held.isEmpty()) {
+            return List.of();
+        }
+        List<Long> productIds = held.stream().map(InventoryHold::getProductId).toList();
+        return lockStripes.callAllLocked(productIds, () -> transactionTemplate.execute(status -> {
+            // Holds confirmed or released since the read are left alone; if any were, reload the ones this update moved
+            List<Long> heldIds = held.stream().map(InventoryHold::getHoldId).toList();
+            int moved = holdRepository.transition(heldIds, HoldStatus.HELD, to);
+            if (moved == held.size()) {
+                restock(held);
+                return held;
+            }
+            if (moved == 0) {
+                return List.<InventoryHold>of();
+            }
+            List<InventoryHold> returned = holdRepository.findWithAllocations(heldIds, to);
+            restock(returned);
+            return returned;
+        }));
+    }
+
+    private static List<Long> missing(List<Long> holdIds, List<InventoryHold> found) {
+        List<Long> missing = new ArrayList<>(holdIds);
+        found.forEach(hold -> missing.remove(hold.getHoldId()));
+        return missing;
+    }
+
+    public InventoryBulkUpdateResponse updateInventoryBulk(InventoryBulkUpdateRequest request) {
+        List<InventoryUpdateRequest> items = request.getItems();
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("No items to update");
+        }
+
+        List<Long> productIds = items.stream()
+                .map(InventoryUpdateRequest::getProductId)
+                .distinct()
+                .collect(Collectors.toList());
+        return lockStripes.callAllLocked(productIds,
+                () -> transactionTemplate.execute(status -> reserveAll(items, productIds)));
+    }
+
+    private InventoryBulkUpdateResponse reserveAll(List<InventoryUpdateRequest> items, List<Long> productIds) {
+        BulkSelection selection = selectAll(items, productIds);
+        long selected = System.nanoTime();
+
+        // All items share one JDBC batch, so any failed guard rolls back the whole request
+        applyDeductions(selection.totalDeductions());
+        metrics.recordWrite(System.nanoTime() - selected, selection.totalDeductions().size());
+
+        return new InventoryBulkUpdateResponse(selection.results(), "Inventory updated successfully");
+    }
+
+    public List<InventoryHoldResponse> holdInventoryBulk(InventoryBulkUpdateRequest request) {
+        List<InventoryUpdateRequest> items = request.getItems();
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("No items to hold");
+        }
+
+        List<Long> productIds = items.stream()
+                .map(InventoryUpdateRequest::getProductId)
+                .distinct()
+                .collect(Collectors.toList());
+        return lockStripes.callAllLocked(productIds,
+                () -> transactionTemplate.execute(status -> holdAll(items, productIds)));
+    }
+
+    private List<InventoryHoldResponse> holdAll(List<InventoryUpdateRequest> items, List<Long> productIds) {
+        BulkSelection selection = selectAll(items, productIds);
+        long selected = System.nanoTime();
+
+        applyDeductions(selection.totalDeductions());
+        Instant expiresAt = Instant.now().plusMillis(holdTtlMs);
+        List<InventoryHold> holds = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            InventoryHold hold = new InventoryHold();
+            hold.setProductId(items.get(i).getProductId());
+            hold.setQuantity(items.get(i).getQuantity());
+            hold.setStatus(HoldStatus.HELD);
+            hold.setExpiresAt(expiresAt);
+            selection.allocations().get(i).forEach((batchId, quantity) ->
+                    hold.getAllocations().add(new HoldAllocation(batchId, quantity)));
+            holds.add(hold);
+        }
+        holds = holdRepository.saveAll(holds);
+        metrics.recordWrite(System.nanoTime() - selected, selection.totalDeductions().size());
+
+        List<InventoryHoldResponse> responses = new ArrayList<>(holds.size());
+        for (int i = 0; i < holds.size(); i++) {
+            InventoryHold hold = holds.get(i);
+            InventoryUpdateResponse reserved = selection.results().get(i);
+            holdExpiryQueue.schedule(hold.getHoldId(), hold.getExpiresAt());
+            responses.add(new InventoryHoldResponse(hold.getHoldId(), HoldStatus.HELD.name(),
+                    reserved.getReservedBatchIds(), reserved.getProductName(), reserved.getRemainingQuantity(),
+                    hold.getExpiresAt(), "Inventory held"));
+        }
+        return responses;
+    }
+
+    /**
+     * Selects batches for every item without writing anything. The batches of all products are loaded in
+     * one query, and items allocate from working copies so that a product listed twice sees the
+     * quantities left by the earlier item. Any item that cannot be covered rejects the whole request.
+     */
+    private BulkSelection selectAll(List<InventoryUpdateRequest> items, List<Long> productIds) {
+        responseCache.invalidateAfterCommit(productIds);
+
+        long started = System.nanoTime();
+        Map<Long, List<InventoryBatch>> batchesByProduct = new HashMap<>();
+        for (InventoryBatch batch : repository.findAvailableByProductIdIn(productIds)) {
+            batchesByProduct.computeIfAbsent(batch.getProductId(), id -> new ArrayList<>()).add(workingCopy(batch));
+        }
+        long loaded = System.nanoTime();
+        metrics.recordLoad(loaded - started);
+
+        Map<Long, Integer> totalDeductions = new LinkedHashMap<>();
+        List<Map<Long, Integer>> allocations = new ArrayList<>(items.size());
+        List<InventoryUpdateResponse> results = new ArrayList<>(items.size());
+
+        for (InventoryUpdateRequest item : items) {
+            List<InventoryBatch> batches = batchesByProduct.get(item.getProductId());
+            if (batches == null) {
+                throw soldOutOrNotFound(item);
+            }
+
+            InventoryHandler handler = handlerFactory.getHandler(item.getProductId(), item.getStrategy());
+            Map<Long, Integer> batchReservations;
+            try {
+                batchReservations = handler.selectBatches(batches, item.getQuantity());
+            } catch (IllegalArgumentException e) {
+                metrics.insufficientStock();
+                throw e;
+            }
+            for (InventoryBatch batch : batches) {
+                Integer reserved = batchReservations.get(batch.getBatchId());
+                if (reserved != null) {
+                    batch.setQuantity(batch.getQuantity() - reserved);
+                    totalDeductions.merge(batch.getBatchId(), reserved, Integer::sum);
+                }
+            }
+            allocations.add(batchReservations);
+            results.add(new InventoryUpdateResponse(
+                    new ArrayList<>(batchReservations.keySet()),
+                    batches.get(0).getProductName(),
+                    totalQuantity(batches),
+                    "Inventory updated successfully"));
+        }
+
+        metrics.recordSelect(System.nanoTime() - loaded);
+        return new BulkSelection(results, allocations, totalDeductions);
+    }
+
+    /**
+     * Reserves several requests for one product in one transaction. Requests allocate in list order
+     * from shared working copies, so each sees what the earlier ones took and gets back only its own
+     * batches. A request that cannot be covered is rejected on its own; the others still commit.
+     * A request whose key was already applied, earlier or by a request ahead of it in the group, is
+     * answered from its record, or rejected when it asks for a different reservation.
+     * @param idempotencyKeys Client-supplied key of each request, null where there is none
+     * @return One outcome per request, in the same order
+     */
+    public List<ReservationOutcome> updateInventoryCombined(Long productId, List<InventoryUpdateRequest> requests,
+                                                            List<String> idempotencyKeys) {
+        return lockStripes.callLocked(productId,
+                () -> transactionTemplate.execute(status -> reserveCombined(productId, requests, idempotencyKeys)));
+    }
+
+    private List<ReservationOutcome> reserveCombined(Long productId, List<InventoryUpdateRequest> requests,
+                                                     List<String> idempotencyKeys) {
+        responseCache.invalidateAfterCommit(productId);
+        long started = System.nanoTime();
+        Map<String, ReservationRecord> applied = appliedRecords(idempotencyKeys);
+
+        List<InventoryBatch> batches = new ArrayList<>();
+        for (InventoryBatch batch : repository.findAvailableByProductId(productId)) {
+            batches.add(workingCopy(batch));
+        }
+        long loaded = System.nanoTime();
+        metrics.recordLoad(loaded - started);
+
+        Map<Long, Integer> totalDeductions = new LinkedHashMap<>();
+        List<ReservationRecord> records = new ArrayList<>();
+        List<ReservationOutcome> outcomes = new ArrayList<>(requests.size());
+        int remainingQuantity = totalQuantity(batches);
+
+        for (int i = 0; i < requests.size(); i++) {
+            InventoryUpdateRequest request = requests.get(i);
+            String idempotencyKey = idempotencyKeys.get(i);
+            ReservationRecord record = isKeyed(idempotencyKey) ? applied.get(ReservationRecord.keyOf(idempotencyKey)) : null;
+            if (record != null) {
+                try {
+                    outcomes.add(ReservationOutcome.reserved(replay(record, request)));
+                } catch (IdempotencyKeyReusedException e) {
+                    outcomes.add(ReservationOutcome.rejected(e));
+                }
+                continue;
+            }
+            if (batches.isEmpty()) {
+                outcomes.add(ReservationOutcome.rejected(soldOutOrNotFound(request)));
+                continue;
+            }
+
+            InventoryHandler handler;
+            try {
+                handler = handlerFactory.getHandler(productId, request.getStrategy());
+            } catch (IllegalArgumentException e) {
+                // An unknown strategy rejects this request only
+                outcomes.add(ReservationOutcome.rejected(e));
+                continue;
+            }
+            Map<Long, Integer> batchReservations;
+            try {
+                batchReservations = handler.selectBatches(batches, request.getQuantity());
+            } catch (IllegalArgumentException e) {
+                metrics.insufficientStock();
+                outcomes.add(ReservationOutcome.rejected(e));
+                continue;
+            }
+            for (InventoryBatch batch : batches) {
+                Integer reserved = batchReservations.get(batch.getBatchId());
+                if (reserved != null) {
+                    batch.setQuantity(batch.getQuantity() - reserved);
+                    totalDeductions.merge(batch.getBatchId(), reserved, Integer::sum);
+                }
+            }
+            remainingQuantity -= request.getQuantity();
+            InventoryUpdateResponse response = new InventoryUpdateResponse(
+                    new ArrayList<>(batchReservations.keySet()),
+                    batches.get(0).getProductName(),
+                    remainingQuantity,
+                    "Inventory updated successfully");
+            outcomes.add(ReservationOutcome.reserved(response));
+            if (isKeyed(idempotencyKey)) {
+                // A later request of the group with the same key replays this one instead of reserving again
+                ReservationRecord reserved = ReservationRecord.of(idempotencyKey, request, response);
+                records.add(reserved);
+                applied.put(reserved.getRequestKey(), reserved);
+            }
+        }
+
+        long selected = System.nanoTime();
+        metrics.recordSelect(selected - loaded);
+
+        // One guarded JDBC batch for the whole group; the product lock makes a failed guard unexpected
+        if (!totalDeductions.isEmpty()) {
+            applyDeductions(totalDeductions);
+        }
+        if (!records.isEmpty()) {
+            recordRepository.saveAll(records);
+        }
+        metrics.recordWrite(System.nanoTime() - selected, totalDeductions.size());
+        return outcomes;
+    }
+
+    /**
+     * @return Records of the keys already applied, by stored key; no query when no request is keyed
+     */
+    private Map<String, ReservationRecord> appliedRecords(List<String> idempotencyKeys) {
+        Map<String, ReservationRecord> applied = new HashMap<>();
+        List<String> keys = idempotencyKeys.stream()
+                .filter(InventoryServiceImpl::isKeyed)
+                .map(ReservationRecord::keyOf)
+                .distinct()
+                .toList();
+        if (!keys.isEmpty()) {
+            for (ReservationRecord record : recordRepository.findAllById(keys)) {
+                applied.put(record.getRequestKey(), record);
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * @throws IdempotencyKeyReusedException when {@code request} is not the one the record was made for
+     */
+    private static InventoryUpdateResponse replay(ReservationRecord record, InventoryUpdateRequest request) {
+        if (!record.matches(request)) {
+            throw new IdempotencyKeyReusedException();
+        }
+        return record.toResponse();
+    }
+
+    private static boolean isKeyed(String idempotencyKey) {
+        return idempotencyKey != null && !idempotencyKey.isBlank();
+    }
+
+    /**
+     * Applies all deductions as guarded updates in one JDBC batch; a zero row count means the batch
+     * no longer holds enough stock, so the surrounding transaction is rolled back.
+     * @return Ids of the updated batches
+     */
+    private List<Long> applyDeductions(Map<Long, Integer> deductions) {
+        int[] updateCounts = repository.decrementQuantities(deductions);
+
+        List<Long> updatedBatchIds = new ArrayList<>(deductions.size());
+        int index = 0;
+        for (Long batchId : deductions.keySet()) {
+            if (updateCounts[index++] == 0) {
                 throw new IllegalArgumentException("Insufficient quantity in batch: " + batchId);
             }
-            
-            batch.setQuantity(batch.getQuantity() - quantityToDeduct);
-            repository.save(batch);
-            reservedBatchIds.add(batchId);
+            updatedBatchIds.add(batchId);
         }
+        return updatedBatchIds;
+    }
+
+    private List<Long> applyDeductions(BatchSelection selection) {
+        int[] updateCounts = repository.decrementQuantities(selection);
 
-        return new InventoryUpdateResponse(reservedBatchIds, "Inventory updated successfully");
+        List<Long> updatedBatchIds = new ArrayList<>(selection.size());
+        for (int i = 0; i < selection.size(); i++) {
+            if (updateCounts[i] == 0) {
+                throw new IllegalArgumentException("Insufficient quantity in batch: " + selection.batchId(i));
+            }
+            updatedBatchIds.add(selection.batchId(i));
+        }
+        return updatedBatchIds;
+    }
+
+    /**
+     * Puts the stock of released or expired holds back into the batches it was taken from, in one JDBC batch.
+     */
+    private void restock(List<InventoryHold> holds) {
+        Map<Long, Integer> additions = new LinkedHashMap<>();
+        List<Long> productIds = new ArrayList<>(holds.size());
+        for (InventoryHold hold : holds) {
+            productIds.add(hold.getProductId());
+            for (HoldAllocation allocation : hold.getAllocations()) {
+                additions.merge(allocation.getBatchId(), allocation.getQuantity(), Integer::sum);
+            }
+        }
+        repository.incrementQuantities(additions);
+        responseCache.invalidateAfterCommit(productIds);
     }
-}
 
+    private InventoryHold findHold(Long holdId) {
+        return holdRepository.findById(holdId)
+                .orElseThrow(() -> new IllegalArgumentException("Hold not found: " + holdId));
+    }
+
+    private InventoryHoldResponse holdResponse(InventoryHold hold, HoldStatus status, String message) {
+        List<Long> batchIds = hold.getAllocations().stream()
+                .map(HoldAllocation::getBatchId)
+                .collect(Collectors.toList());
+        return new InventoryHoldResponse(hold.getHoldId(), status.name(), batchIds, null, null,
+                hold.getExpiresAt(), message);
+    }
+
+    private String productNameOf(Long productId) {
+        return repository.findFirstByProductId(productId)
+                .map(InventoryBatch::getProductName)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found: " + productId));
+    }
+
+    /**
+     * Only reached when no batch of the product has stock left, so the extra lookup stays off the hot path.
+     */
+    private IllegalArgumentException soldOutOrNotFound(InventoryUpdateRequest request) {
+        if (repository.findFirstByProductId(request.getProductId()).isEmpty()) {
+            metrics.unknownProduct();
+            return new IllegalArgumentException("Product not found: " + request.getProductId());
+        }
+        metrics.insufficientStock();
+        return new IllegalArgumentException("Insufficient inventory. Required: " + request.getQuantity() + ", Available: 0");
+    }
+
+    private int totalQuantity(List<InventoryBatch> batches) {
+        int total = 0;
+        for (InventoryBatch batch : batches) {
+            total += batch.getQuantity();
+        }
+        return total;
+    }
+
+    private InventoryBatch workingCopy(InventoryBatch batch) {
+        InventoryBatch copy = new InventoryBatch();
+        copy.setBatchId(batch.getBatchId());
+        copy.setProductId(batch.getProductId());
+        copy.setProductName(batch.getProductName());
+        copy.setQuantity(batch.getQuantity());
+        copy.setExpiryDate(batch.getExpiryDate());
+        copy.setVersion(batch.getVersion());
+        return copy;
+    }
+
+    private record BulkSelection(List<InventoryUpdateResponse> results, List<Map<Long, Integer>> allocations,
+                                 Map<Long, Integer> totalDeductions) {
+    }
+}
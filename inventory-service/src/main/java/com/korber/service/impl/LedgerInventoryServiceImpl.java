@@ -0,0 +1,50 @@
+package com.korber.service.impl;
+
+import com.korber.dto.InventoryBulkUpdateRequest;
+import com.korber.dto.InventoryBulkUpdateResponse;
+import com.korber.dto.InventoryResponse;
+import com.korber.dto.InventoryUpdateRequest;
+import com.korber.dto.InventoryUpdateResponse;
+import com.korber.ledger.Reservation;
+import com.korber.ledger.StockLedger;
+import com.korber.service.InventoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Serves inventory from the in-memory {@link StockLedger}; the database is only written behind.
+ * Enabled with {@code inventory.engine=ledger}.
+ */
+@Service
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "ledger")
+@RequiredArgsConstructor
+public class LedgerInventoryServiceImpl implements InventoryService {
+    private final StockLedger ledger;
+
+    public InventoryResponse getInventoryByProductId(Long productId) {
+        return ledger.getInventory(productId);
+    }
+
+    public InventoryUpdateResponse updateInventory(InventoryUpdateRequest request) {
+        return toResponse(ledger.reserve(request.getProductId(), request.getQuantity()));
+    }
+
+    public InventoryBulkUpdateResponse updateInventoryBulk(InventoryBulkUpdateRequest request) {
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new IllegalArgumentException("No items to update");
+        }
+        List<InventoryUpdateResponse> results = ledger.reserveAll(request.getItems()).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+        return new InventoryBulkUpdateResponse(results, "Inventory updated successfully");
+    }
+
+    private InventoryUpdateResponse toResponse(Reservation reservation) {
+        return new InventoryUpdateResponse(reservation.batchIdList(), reservation.productName(),
+                reservation.remainingQuantity(), "Inventory updated successfully");
+    }
+}
@@ -1,6 +1,9 @@
 package com.korber;
 
 import com.korber.dto.InventoryBatchDto;
+import com.korber.dto.InventoryBulkUpdateRequest;
+import com.korber.dto.InventoryBulkUpdateResponse;
+import com.korber.dto.InventoryImportResponse;
 import com.korber.dto.InventoryResponse;
 import com.korber.dto.InventoryUpdateRequest;
 import com.korber.dto.InventoryUpdateResponse;
@@ -12,13 +15,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -130,5 +138,112 @@ class InventoryServiceIntegrationTest {
         // Then
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
-}
 
+    @Test
+    @Transactional
+    void testDecrementQuantities_GuardRejectsOversell() {
+        // Given - batch 3 (Headphones) is loaded with 20 units
+        Map<Long, Integer> deductions = new LinkedHashMap<>();
+        deductions.put(3L, 15);
+
+        // When
+        int[] firstCounts = repository.decrementQuantities(deductions);
+        int[] secondCounts = repository.decrementQuantities(deductions);
+
+        // Then - the second deduction would take the batch below zero and is rejected
+        assertArrayEquals(new int[]{1}, firstCounts);
+        assertArrayEquals(new int[]{0}, secondCounts);
+    }
+
+    @Test
+    void testUpdateInventoryBulk_AllOrNothing_Integration() {
+        // Given - the second line cannot be fulfilled
+        int initialQuantity = repository.findById(9L).orElseThrow().getQuantity();
+        InventoryBulkUpdateRequest request = new InventoryBulkUpdateRequest(List.of(
+                new InventoryUpdateRequest(1002L, 1),
+                new InventoryUpdateRequest(1004L, 10000)
+        ));
+
+        // When
+        ResponseEntity<InventoryBulkUpdateResponse> response = restTemplate.postForEntity(
+                baseUrl + "/update/bulk", request, InventoryBulkUpdateResponse.class);
+
+        // Then - the first line was rolled back too
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(initialQuantity, repository.findById(9L).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void testImportCsv_InsertsThenReplacesBatches() {
+        // Given - product 2001 has no stock yet
+        String csv = """
+                product_id,product_name,quantity,expiry_date
+                2001,Monitor,40,2026-08-01
+                2001,Monitor,25,2026-10-01
+                """;
+
+        // When
+        ResponseEntity<InventoryImportResponse> created = importBatches(csv, MediaType.parseMediaType("text/csv"));
+
+        // Then
+        assertEquals(HttpStatus.OK, created.getStatusCode());
+        assertEquals(2L, created.getBody().getRowsImported());
+        InventoryResponse before = restTemplate.getForEntity(baseUrl + "/2001", InventoryResponse.class).getBody();
+        assertEquals(List.of(40, 25), before.getBatches().stream().map(InventoryBatchDto::getQuantity).toList());
+
+        // When - the warehouse reports a new count for the first batch
+        Long batchId = before.getBatches().get(0).getBatchId();
+        ResponseEntity<InventoryImportResponse> replaced = importBatches(
+                "batch_id,product_id,product_name,quantity,expiry_date\n" + batchId + ",2001,Monitor,12,2026-08-01\n",
+                MediaType.parseMediaType("text/csv"));
+
+        // Then - the cached response was dropped, so the new count is visible straight away
+        assertEquals(HttpStatus.OK, replaced.getStatusCode());
+        InventoryResponse after = restTemplate.getForEntity(baseUrl + "/2001", InventoryResponse.class).getBody();
+        assertEquals(List.of(12, 25), after.getBatches().stream().map(InventoryBatchDto::getQuantity).toList());
+    }
+
+    @Test
+    void testImportNdjson_Integration() {
+        // Given
+        String ndjson = """
+                {"productId":2002,"productName":"Keyboard","quantity":60,"expiryDate":"2026-12-01"}
+                {"productId":2002,"productName":"Keyboard","quantity":15,"expiryDate":"2027-01-15"}
+                """;
+
+        // When
+        ResponseEntity<InventoryImportResponse> response = importBatches(ndjson, MediaType.APPLICATION_NDJSON);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2L, response.getBody().getRowsImported());
+        assertEquals(75, repository.findByProductIdOrderByExpiryDateAsc(2002L).stream()
+                .mapToInt(InventoryBatch::getQuantity).sum());
+    }
+
+    @Test
+    void testImportCsv_UnknownBatchRejected() {
+        // Given - batch 1 belongs to product 1001, not 2003
+        String csv = """
+                batch_id,product_id,product_name,quantity,expiry_date
+                ,2003,Mouse,10,2026-09-01
+                1,2003,Mouse,10,2026-09-01
+                """;
+
+        // When
+        ResponseEntity<InventoryImportResponse> response = importBatches(csv, MediaType.parseMediaType("text/csv"));
+
+        // Then - the chunk holding the bad row was rolled back
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertTrue(response.getBody().getMessage().startsWith("Line 3:"));
+        assertTrue(repository.findByProductIdOrderByExpiryDateAsc(2003L).isEmpty());
+        assertEquals(1001L, repository.findById(1L).orElseThrow().getProductId());
+    }
+
+    private ResponseEntity<InventoryImportResponse> importBatches(String payload, MediaType contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        return restTemplate.postForEntity(baseUrl + "/batches", new HttpEntity<>(payload, headers),
+                InventoryImportResponse.class);
+    }
+}
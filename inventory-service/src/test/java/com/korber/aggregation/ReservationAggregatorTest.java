@@ -0,0 +1,141 @@
+package com.korber.aggregation;
+
+import com.korber.dto.InventoryUpdateRequest;
+import com.korber.dto.InventoryUpdateResponse;
+import com.korber.model.InventoryBatch;
+import com.korber.repository.InventoryBatchRepository;
+import com.korber.service.InventoryService;
+import com.korber.service.impl.AggregatingInventoryServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "inventory.aggregation.enabled=true",
+        "inventory.aggregation.window-ms=20",
+        "inventory.aggregation.max-batch-size=16",
+        "spring.datasource.url=jdbc:h2:mem:test_aggregationdb;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+class ReservationAggregatorTest {
+
+    private static final int RESERVERS = 64;
+    private static final int ATTEMPTS_PER_RESERVER = 5;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryBatchRepository repository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ReservationAggregator aggregator;
+
+    @Test
+    void testConcurrentReservations_CombinedWithoutOverselling() throws Exception {
+        // Given - product 1005 (Smartwatch) is spread over three batches
+        assertInstanceOf(AggregatingInventoryServiceImpl.class, inventoryService);
+        Long productId = 1005L;
+        Map<Long, Integer> initialByBatch = quantitiesByBatch(productId);
+        int initialStock = initialByBatch.values().stream().mapToInt(Integer::intValue).sum();
+        assertTrue(initialStock < RESERVERS * ATTEMPTS_PER_RESERVER, "Demand must exceed stock");
+        double groupsBefore = counter("inventory.aggregation.groups");
+        double requestsBefore = counter("inventory.aggregation.requests");
+
+        ExecutorService executor = Executors.newFixedThreadPool(RESERVERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        Map<Long, AtomicInteger> reservedByBatch = new ConcurrentHashMap<>();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When - 64 reservers race for the same product, one unit at a time
+        for (int i = 0; i < RESERVERS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int attempt = 0; attempt < ATTEMPTS_PER_RESERVER; attempt++) {
+                    try {
+                        InventoryUpdateResponse response =
+                                inventoryService.updateInventory(new InventoryUpdateRequest(productId, 1));
+                        // One unit always comes from exactly one batch
+                        assertEquals(1, response.getReservedBatchIds().size());
+                        reservedByBatch.computeIfAbsent(response.getReservedBatchIds().get(0),
+                                id -> new AtomicInteger()).incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then - the batch ids handed to callers add up to exactly what each batch lost
+        assertEquals(RESERVERS * ATTEMPTS_PER_RESERVER - initialStock, rejected.get());
+        assertEquals(0, quantitiesByBatch(productId).values().stream().mapToInt(Integer::intValue).sum());
+        initialByBatch.forEach((batchId, quantity) ->
+                assertEquals(quantity, reservedByBatch.getOrDefault(batchId, new AtomicInteger()).get()));
+
+        // Reservations were grouped: fewer transactions than requests
+        double groups = counter("inventory.aggregation.groups") - groupsBefore;
+        double requests = counter("inventory.aggregation.requests") - requestsBefore;
+        assertEquals(RESERVERS * ATTEMPTS_PER_RESERVER, requests);
+        assertTrue(groups < requests);
+        assertEquals(0, aggregator.queuedProducts());
+    }
+
+    @Test
+    void testLoneReservations_DispatchedWithoutWindowAndQueuesDropped() {
+        // Given - one caller at a time, so every leader finds nobody queued behind it
+        int reservations = 10;
+        reserveOneAtATime(reservations);
+        long started = System.nanoTime();
+
+        // When
+        reserveOneAtATime(reservations);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // Then - none of them waited out the 20 ms window, and no queue outlives its reservations
+        assertTrue(elapsedMs < reservations * 20L, "took " + elapsedMs + " ms");
+        assertEquals(0, aggregator.queuedProducts());
+    }
+
+    private void reserveOneAtATime(int reservations) {
+        for (int i = 0; i < reservations; i++) {
+            inventoryService.updateInventory(new InventoryUpdateRequest(1001L + i % 2, 1));
+        }
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).functionCounter().count();
+    }
+
+    private Map<Long, Integer> quantitiesByBatch(Long productId) {
+        Map<Long, Integer> quantities = new ConcurrentHashMap<>();
+        for (InventoryBatch batch : repository.findByProductIdOrderByExpiryDateAsc(productId)) {
+            quantities.put(batch.getBatchId(), batch.getQuantity());
+        }
+        return quantities;
+    }
+}
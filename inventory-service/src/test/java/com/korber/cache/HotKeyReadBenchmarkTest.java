@@ -0,0 +1,145 @@
+package com.korber.cache;
+
+import com.korber.concurrency.ProductLockStripes;
+import com.korber.dto.InventoryResponse;
+import com.korber.factory.InventoryHandlerFactory;
+import com.korber.hold.HoldExpiryQueue;
+import com.korber.metrics.ReservationMetrics;
+import com.korber.model.InventoryBatch;
+import com.korber.repository.InventoryBatchRepository;
+import com.korber.service.impl.InventoryServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Hot-key read workload: many concurrent readers of one product while reservations keep invalidating
+ * its cached response. Compares one query per read with the service path, where concurrent readers of
+ * the product share one in-flight load. The database is simulated by a pool of 10 connections and a
+ * fixed query latency, so queued queries show up in the latency tail.
+ *
+ * Run with: ../mvnw -Pperf test -Dtest=HotKeyReadBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HotKeyReadBenchmarkTest {
+
+    private static final long PRODUCT_ID = 1001L;
+    private static final int READERS = 200;
+    private static final int READS_PER_READER = 100;
+    private static final int CONNECTIONS = 10;
+    private static final long QUERY_MICROS = 1000;
+    private static final long INVALIDATE_EVERY_MICROS = 1000;
+
+    private final AtomicLong queries = new AtomicLong();
+    private final Semaphore connections = new Semaphore(CONNECTIONS, true);
+
+    @Test
+    void compareUncoalescedAndCoalescedReads() throws Exception {
+        InventoryBatchRepository repository = mock(InventoryBatchRepository.class, withSettings().stubOnly());
+        List<InventoryBatch> batches = List.of(
+                new InventoryBatch(1L, PRODUCT_ID, "Laptop", 50, LocalDate.of(2026, 6, 25), 0L),
+                new InventoryBatch(2L, PRODUCT_ID, "Laptop", 30, LocalDate.of(2026, 9, 1), 0L));
+        when(repository.findAvailableByProductId(anyLong())).thenAnswer(invocation -> query(batches));
+
+        InventoryResponseCache responseCache = new InventoryResponseCache(10000, 60000);
+        InventoryServiceImpl service = new InventoryServiceImpl(repository, mock(InventoryHandlerFactory.class),
+                new ProductLockStripes(64), responseCache, null, null, new HoldExpiryQueue(),
+                new ReservationMetrics(new SimpleMeterRegistry()), null);
+
+        // Warm up the JIT on the coalesced path
+        run(productId -> service.getInventoryByProductId(productId), responseCache);
+
+        Result uncoalesced = run(productId -> {
+            repository.findAvailableByProductId(productId);
+            return null;
+        }, responseCache);
+        Result coalesced = run(service::getInventoryByProductId, responseCache);
+
+        System.out.println("one query per read " + uncoalesced);
+        System.out.println("coalesced          " + coalesced);
+
+        assertEquals((long) READERS * READS_PER_READER, uncoalesced.queries());
+        assertTrue(coalesced.queries() < uncoalesced.queries() / 10);
+        assertTrue(coalesced.p99Micros() < uncoalesced.p99Micros());
+    }
+
+    private Result run(LongFunction<InventoryResponse> read, InventoryResponseCache responseCache) throws Exception {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<long[]>> readers = new ArrayList<>(READERS);
+
+        for (int i = 0; i < READERS; i++) {
+            readers.add(executor.submit(() -> {
+                start.await();
+                long[] latencies = new long[READS_PER_READER];
+                for (int r = 0; r < READS_PER_READER; r++) {
+                    long started = System.nanoTime();
+                    read.apply(PRODUCT_ID);
+                    latencies[r] = System.nanoTime() - started;
+                }
+                return latencies;
+            }));
+        }
+        // Stands in for reservations committing on the hot product
+        Future<?> writer = executor.submit(() -> {
+            start.await();
+            while (running.get()) {
+                responseCache.invalidateAfterCommit(PRODUCT_ID);
+                TimeUnit.MICROSECONDS.sleep(INVALIDATE_EVERY_MICROS);
+            }
+            return null;
+        });
+
+        queries.set(0);
+        start.countDown();
+        long[] latencies = new long[READERS * READS_PER_READER];
+        for (int i = 0; i < READERS; i++) {
+            System.arraycopy(readers.get(i).get(60, TimeUnit.SECONDS), 0, latencies, i * READS_PER_READER, READS_PER_READER);
+        }
+        running.set(false);
+        writer.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        Arrays.sort(latencies);
+        return new Result(queries.get(),
+                TimeUnit.NANOSECONDS.toMicros(latencies[latencies.length / 2]),
+                TimeUnit.NANOSECONDS.toMicros(latencies[(int) Math.ceil(latencies.length * 0.99) - 1]));
+    }
+
+    private List<InventoryBatch> query(List<InventoryBatch> batches) throws InterruptedException {
+        connections.acquire();
+        try {
+            queries.incrementAndGet();
+            TimeUnit.MICROSECONDS.sleep(QUERY_MICROS);
+            return batches;
+        } finally {
+            connections.release();
+        }
+    }
+
+    private record Result(long queries, long p50Micros, long p99Micros) {
+        @Override
+        public String toString() {
+            return String.format("queries=%d p50=%dus p99=%dus", queries, p50Micros, p99Micros);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.korber.concurrency;
+
+import com.korber.handler.BatchSelection;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductLockStripesTest {
+
+    private final ProductLockStripes stripes = new ProductLockStripes(64);
+
+    @Test
+    void testSelectionFor_SharedByThreadsHoldingTheStripe() throws Exception {
+        // Given
+        BatchSelection first = stripes.callLocked(1001L, () -> stripes.selectionFor(1001L));
+
+        // When - another reservation of the product, on a virtual thread of its own
+        BatchSelection second;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<BatchSelection> future = executor.submit(() -> stripes.callLocked(1001L, () -> stripes.selectionFor(1001L)));
+            second = future.get();
+        }
+
+        // Then - the buffer belongs to the stripe, not to the thread
+        assertSame(first, second);
+    }
+
+    @Test
+    void testSelectionFor_StripeNotHeld_Rejected() {
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> stripes.selectionFor(1001L));
+    }
+}
@@ -0,0 +1,83 @@
+package com.korber.concurrency;
+
+import com.korber.dto.InventoryUpdateRequest;
+import com.korber.model.InventoryBatch;
+import com.korber.repository.InventoryBatchRepository;
+import com.korber.service.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationStressTest {
+
+    private static final int RESERVERS = 64;
+    private static final int ATTEMPTS_PER_RESERVER = 5;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryBatchRepository repository;
+
+    @Test
+    void testConcurrentReservations_NeverOversell() throws Exception {
+        // Given - product 1005 (Smartwatch) is spread over three batches and is not used by other tests
+        Long productId = 1005L;
+        int initialStock = totalQuantity(productId);
+        assertTrue(initialStock < RESERVERS * ATTEMPTS_PER_RESERVER, "Demand must exceed stock");
+
+        ExecutorService executor = Executors.newFixedThreadPool(RESERVERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When - 64 reservers race for the same product, one unit at a time
+        for (int i = 0; i < RESERVERS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int attempt = 0; attempt < ATTEMPTS_PER_RESERVER; attempt++) {
+                    try {
+                        inventoryService.updateInventory(new InventoryUpdateRequest(productId, 1));
+                        reserved.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then - every unit was sold exactly once and no batch went negative
+        assertEquals(initialStock, reserved.get());
+        assertEquals(RESERVERS * ATTEMPTS_PER_RESERVER - initialStock, rejected.get());
+        assertEquals(0, totalQuantity(productId));
+        repository.findByProductIdOrderByExpiryDateAsc(productId)
+                .forEach(batch -> assertTrue(batch.getQuantity() >= 0));
+    }
+
+    private int totalQuantity(Long productId) {
+        return repository.findByProductIdOrderByExpiryDateAsc(productId).stream()
+                .mapToInt(InventoryBatch::getQuantity)
+                .sum();
+    }
+}
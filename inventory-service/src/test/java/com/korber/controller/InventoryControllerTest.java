@@ -1,14 +1,19 @@
 package com.korber.controller;
 
 import com.korber.dto.InventoryBatchDto;
+import com.korber.dto.InventoryBulkUpdateRequest;
+import com.korber.dto.InventoryBulkUpdateResponse;
 import com.korber.dto.InventoryResponse;
 import com.korber.dto.InventoryUpdateRequest;
 import com.korber.dto.InventoryUpdateResponse;
+import com.korber.idempotency.IdempotencyKeyReusedException;
+import com.korber.idempotency.IdempotencyStore;
 import com.korber.service.InventoryService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -24,6 +29,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(InventoryController.class)
+@Import(IdempotencyStore.class)
 class InventoryControllerTest {
 
     @Autowired
@@ -75,10 +81,10 @@ class InventoryControllerTest {
         request.setQuantity(20);
 
         InventoryUpdateResponse response = new InventoryUpdateResponse(
-                Arrays.asList(1L), "Inventory updated successfully"
+                Arrays.asList(1L), "Laptop", 30, "Inventory updated successfully"
         );
 
-        when(inventoryService.updateInventory(any(InventoryUpdateRequest.class))).thenReturn(response);
+        when(inventoryService.updateInventory(any(InventoryUpdateRequest.class), any())).thenReturn(response);
 
         // When & Then
         mockMvc.perform(post("/inventory/update")
@@ -87,24 +93,109 @@ class InventoryControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.reservedBatchIds[0]").value(1L))
+                .andExpect(jsonPath("$.productName").value("Laptop"))
+                .andExpect(jsonPath("$.remainingQuantity").value(30))
                 .andExpect(jsonPath("$.message").value("Inventory updated successfully"));
 
-        verify(inventoryService, times(1)).updateInventory(any(InventoryUpdateRequest.class));
+        verify(inventoryService, times(1)).updateInventory(any(InventoryUpdateRequest.class), any());
     }
 
     @Test
     void testUpdateInventory_BadRequest() throws Exception {
         // Given
-        when(inventoryService.updateInventory(any(InventoryUpdateRequest.class)))
+        when(inventoryService.updateInventory(any(InventoryUpdateRequest.class), any()))
                 .thenThrow(new IllegalArgumentException("Product not found: 9999"));
 
         // When & Then
         mockMvc.perform(post("/inventory/update")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"productId\":9999,\"quantity\":10}"))
-                .andExpect(status().isBadRequest());
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Product not found: 9999"));
 
-        verify(inventoryService, times(1)).updateInventory(any(InventoryUpdateRequest.class));
+        verify(inventoryService, times(1)).updateInventory(any(InventoryUpdateRequest.class), any());
     }
-}
 
+    @Test
+    void testUpdateInventory_KeyReusedForOtherReservation_Unprocessable() throws Exception {
+        // Given - the key's first use is on record in the database, not in the in-memory store
+        when(inventoryService.updateInventory(any(InventoryUpdateRequest.class), eq("order-outbox-9")))
+                .thenThrow(new IdempotencyKeyReusedException());
+
+        // When & Then
+        mockMvc.perform(post("/inventory/update")
+                        .header(IdempotencyStore.HEADER, "order-outbox-9")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":1001,\"quantity\":30}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("Idempotency-Key was already used for a different reservation"));
+    }
+
+    @Test
+    void testUpdateInventory_UnknownStrategy_BadRequest() throws Exception {
+        // Given
+        when(inventoryService.updateInventory(argThat(request -> "NEWEST".equals(request.getStrategy())), any()))
+                .thenThrow(new IllegalArgumentException("Unknown inventory strategy: NEWEST"));
+
+        // When & Then
+        mockMvc.perform(post("/inventory/update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":1001,\"quantity\":10,\"strategy\":\"NEWEST\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown inventory strategy: NEWEST"));
+    }
+
+    @Test
+    void testUpdateInventory_RetryWithSameKeyReplays() throws Exception {
+        // Given
+        when(inventoryService.updateInventory(any(InventoryUpdateRequest.class), any())).thenReturn(
+                new InventoryUpdateResponse(Arrays.asList(1L), "Laptop", 30, "Inventory updated successfully"));
+
+        // When - the client retries after losing the first response
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/inventory/update")
+                            .header(IdempotencyStore.HEADER, "update-retry-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"productId\":1001,\"quantity\":20}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.remainingQuantity").value(30));
+        }
+
+        // Then - stock was decremented once
+        verify(inventoryService, times(1)).updateInventory(any(InventoryUpdateRequest.class), any());
+    }
+
+    @Test
+    void testUpdateInventoryBulk_Success() throws Exception {
+        // Given
+        InventoryBulkUpdateResponse response = new InventoryBulkUpdateResponse(Arrays.asList(
+                new InventoryUpdateResponse(Arrays.asList(1L), "Laptop", 66, "Inventory updated successfully"),
+                new InventoryUpdateResponse(Arrays.asList(9L), "Smartphone", 111, "Inventory updated successfully")
+        ), "Inventory updated successfully");
+
+        when(inventoryService.updateInventoryBulk(any(InventoryBulkUpdateRequest.class))).thenReturn(response);
+
+        // When & Then
+        mockMvc.perform(post("/inventory/update/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\":[{\"productId\":1001,\"quantity\":2},{\"productId\":1002,\"quantity\":1}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].reservedBatchIds[0]").value(1L))
+                .andExpect(jsonPath("$.results[1].productName").value("Smartphone"));
+
+        verify(inventoryService, times(1)).updateInventoryBulk(any(InventoryBulkUpdateRequest.class));
+    }
+
+    @Test
+    void testUpdateInventoryBulk_BadRequest() throws Exception {
+        // Given
+        when(inventoryService.updateInventoryBulk(any(InventoryBulkUpdateRequest.class)))
+                .thenThrow(new IllegalArgumentException("Product not found: 9999"));
+
+        // When & Then
+        mockMvc.perform(post("/inventory/update/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\":[{\"productId\":9999,\"quantity\":1}]}"))
+                .andExpect(status().isBadRequest());
+    }
+}
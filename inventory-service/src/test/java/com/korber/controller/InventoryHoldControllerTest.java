@@ -0,0 +1,89 @@
+package com.korber.controller;
+
+import com.korber.dto.InventoryHoldResponse;
+import com.korber.dto.InventoryUpdateRequest;
+import com.korber.idempotency.IdempotencyStore;
+import com.korber.service.InventoryHoldService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(InventoryHoldController.class)
+@Import(IdempotencyStore.class)
+class InventoryHoldControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private InventoryHoldService holdService;
+
+    @Test
+    void testHoldInventory_Success() throws Exception {
+        // Given
+        InventoryHoldResponse response = new InventoryHoldResponse(7L, "HELD", List.of(1L), "Laptop", 40,
+                Instant.parse("2026-10-17T10:00:30Z"), "Inventory held");
+        when(holdService.holdInventory(any(InventoryUpdateRequest.class))).thenReturn(response);
+
+        // When & Then
+        mockMvc.perform(post("/inventory/hold")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":1001,\"quantity\":10}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.holdId").value(7L))
+                .andExpect(jsonPath("$.status").value("HELD"))
+                .andExpect(jsonPath("$.remainingQuantity").value(40));
+    }
+
+    @Test
+    void testConfirmHold_Expired() throws Exception {
+        // Given
+        when(holdService.confirmHold(7L)).thenThrow(new IllegalStateException("Hold is no longer held: 7"));
+
+        // When & Then
+        mockMvc.perform(post("/inventory/hold/{holdId}/confirm", 7L))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Hold is no longer held: 7"));
+    }
+
+    @Test
+    void testReleaseHold_RetryWithSameKey_Replayed() throws Exception {
+        // Given
+        InventoryHoldResponse response = new InventoryHoldResponse(8L, "RELEASED", List.of(1L), null, null,
+                Instant.parse("2026-10-17T10:00:30Z"), "Hold released");
+        when(holdService.releaseHold(8L)).thenReturn(response);
+
+        // When - the second release carries the same key, as a retry after a lost response would
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/inventory/hold/{holdId}/release", 8L)
+                            .header(IdempotencyStore.HEADER, "release-8"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value("RELEASED"));
+        }
+
+        // Then - the hold was released once
+        verify(holdService, times(1)).releaseHold(8L);
+    }
+
+    @Test
+    void testReleaseHold_NotFound() throws Exception {
+        // Given
+        when(holdService.releaseHold(99L)).thenThrow(new IllegalArgumentException("Hold not found: 99"));
+
+        // When & Then
+        mockMvc.perform(post("/inventory/hold/{holdId}/release", 99L))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,80 @@
+package com.korber.controller;
+
+import com.korber.dto.InventoryImportResponse;
+import com.korber.ingest.ImportRejectedException;
+import com.korber.service.InventoryImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(InventoryImportController.class)
+class InventoryImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private InventoryImportService importService;
+
+    @Test
+    void testImportCsv_Success() throws Exception {
+        // Given
+        when(importService.importCsv(any(InputStream.class))).thenReturn(new InventoryImportResponse(2L, "Import complete"));
+
+        // When & Then
+        mockMvc.perform(post("/inventory/batches")
+                        .contentType(InventoryImportController.TEXT_CSV_VALUE)
+                        .content("product_id,product_name,quantity,expiry_date\n1001,Laptop,40,2026-12-01\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsImported").value(2L));
+        verify(importService, never()).importNdjson(any());
+    }
+
+    @Test
+    void testImportNdjson_MalformedRow() throws Exception {
+        // Given
+        when(importService.importNdjson(any(InputStream.class)))
+                .thenThrow(new ImportRejectedException("Line 1: quantity must not be negative", 0, null));
+
+        // When & Then
+        mockMvc.perform(post("/inventory/batches")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"productId\":1001,\"productName\":\"Laptop\",\"quantity\":-1,\"expiryDate\":\"2026-12-01\"}\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Line 1: quantity must not be negative (0 rows imported before it)"))
+                .andExpect(jsonPath("$.rowsImported").value(0L));
+    }
+
+    @Test
+    void testImportCsv_RejectedAfterCommittedChunks() throws Exception {
+        // Given - the bad row comes after two chunks were committed
+        when(importService.importCsv(any(InputStream.class)))
+                .thenThrow(new ImportRejectedException("Line 10002: product 1001 has no batch 99", 10000, null));
+
+        // When & Then - the import is not atomic, so the response says what went in
+        mockMvc.perform(post("/inventory/batches")
+                        .contentType(InventoryImportController.TEXT_CSV_VALUE)
+                        .content("batch_id,product_id,product_name,quantity,expiry_date\n99,1001,Laptop,40,2026-12-01\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.rowsImported").value(10000L));
+    }
+
+    @Test
+    void testImport_UnsupportedContentType() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/inventory/batches")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+}
@@ -0,0 +1,120 @@
+package com.korber.factory;
+
+import com.korber.handler.impl.FIFOInventoryHandler;
+import com.korber.handler.impl.FewestBatchesInventoryHandler;
+import com.korber.handler.impl.LIFOInventoryHandler;
+import com.korber.handler.impl.MinShelfLifeInventoryHandler;
+import com.korber.model.InventoryBatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryHandlerFactoryTest {
+
+    private InventoryHandlerFactory factory;
+    private List<InventoryBatch> batches;
+
+    @BeforeEach
+    void setUp() {
+        factory = newFactory();
+        ReflectionTestUtils.setField(factory, "productTypeMappings", "1002=LIFO, 1003=FEWEST_BATCHES");
+        factory.init();
+
+        // Sorted by expiry date, as the repository returns them; batch 1 expires in 3 days
+        LocalDate today = LocalDate.now();
+        batches = List.of(
+                batch(1L, 20, today.plusDays(3)),
+                batch(2L, 10, today.plusDays(30)),
+                batch(3L, 60, today.plusDays(60)),
+                batch(4L, 15, today.plusDays(90)));
+    }
+
+    @Test
+    void testGetHandler_ResolvesRequestThenProductThenDefault() {
+        assertInstanceOf(FIFOInventoryHandler.class, factory.getHandler(1001L, null));
+        assertInstanceOf(LIFOInventoryHandler.class, factory.getHandler(1002L, null));
+        assertInstanceOf(FewestBatchesInventoryHandler.class, factory.getHandler(1003L, null));
+        assertInstanceOf(MinShelfLifeInventoryHandler.class, factory.getHandler(1002L, "FEFO"));
+    }
+
+    @Test
+    void testGetHandler_UnknownRequestedStrategy_Rejected() {
+        // The caller asked for a strategy that does not exist; reserving FIFO instead would hide the mistake
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> factory.getHandler(1001L, "UNKNOWN"));
+
+        assertEquals("Unknown inventory strategy: UNKNOWN", exception.getMessage());
+    }
+
+    @Test
+    void testInit_UnknownConfiguredStrategy_FailsStartup() {
+        InventoryHandlerFactory misconfigured = newFactory();
+        ReflectionTestUtils.setField(misconfigured, "productTypeMappings", "1002=LIFO, 1003=NEWEST");
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, misconfigured::init);
+        assertTrue(exception.getMessage().contains("1003=NEWEST"), exception.getMessage());
+
+        InventoryHandlerFactory wrongDefault = newFactory();
+        ReflectionTestUtils.setField(wrongDefault, "defaultType", "FIFOO");
+        assertThrows(IllegalStateException.class, wrongDefault::init);
+    }
+
+    @Test
+    void testMinShelfLife_SkipsBatchesExpiringSoon() {
+        Map<Long, Integer> selected = factory.getHandler("FEFO").selectBatches(batches, 25);
+
+        assertEquals(Map.of(2L, 10, 3L, 15), selected);
+        assertEquals(List.of(2L, 3L), List.copyOf(selected.keySet()));
+    }
+
+    @Test
+    void testMinShelfLife_InsufficientShelfLife() {
+        // 105 units exist, but only 85 have at least 7 days left
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> factory.getHandler("FEFO").selectBatches(batches, 90));
+
+        assertTrue(exception.getMessage().contains("Available: 85"));
+    }
+
+    @Test
+    void testLifo_LatestExpiryFirst() {
+        Map<Long, Integer> selected = factory.getHandler("LIFO").selectBatches(batches, 20);
+
+        assertEquals(List.of(4L, 3L), List.copyOf(selected.keySet()));
+        assertEquals(15, selected.get(4L));
+        assertEquals(5, selected.get(3L));
+    }
+
+    @Test
+    void testFewestBatches_TouchesOneRowWhenOneBatchCovers() {
+        // FIFO would touch batches 1, 2 and 3
+        Map<Long, Integer> selected = factory.getHandler("FEWEST_BATCHES").selectBatches(batches, 40);
+
+        assertEquals(Map.of(3L, 40), selected);
+        assertEquals(3, factory.getHandler("FIFO").selectBatches(batches, 40).size());
+    }
+
+    @Test
+    void testFewestBatches_DrainsChosenBatchesInExpiryOrder() {
+        Map<Long, Integer> selected = factory.getHandler("FEWEST_BATCHES").selectBatches(batches, 70);
+
+        assertEquals(List.of(1L, 3L), List.copyOf(selected.keySet()));
+        assertEquals(20, selected.get(1L));
+        assertEquals(50, selected.get(3L));
+    }
+
+    private static InventoryHandlerFactory newFactory() {
+        return new InventoryHandlerFactory(new FIFOInventoryHandler(), new MinShelfLifeInventoryHandler(7),
+                new LIFOInventoryHandler(), new FewestBatchesInventoryHandler());
+    }
+
+    private InventoryBatch batch(Long batchId, int quantity, LocalDate expiryDate) {
+        return new InventoryBatch(batchId, 1001L, "Laptop", quantity, expiryDate, 0L);
+    }
+}
@@ -0,0 +1,86 @@
+package com.korber.handler;
+
+import com.korber.handler.impl.FIFOInventoryHandler;
+import com.korber.model.InventoryBatch;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FIFOInventoryHandlerTest {
+
+    private final FIFOInventoryHandler handler = new FIFOInventoryHandler();
+
+    @Test
+    void testSelectBatches_IntoBufferInExpiryOrder() {
+        // Given - the earliest batch is depleted
+        List<InventoryBatch> batches = List.of(
+                batch(1L, 0, LocalDate.of(2026, 1, 1)),
+                batch(2L, 10, LocalDate.of(2026, 2, 1)),
+                batch(3L, 30, LocalDate.of(2026, 3, 1)));
+        BatchSelection selection = new BatchSelection(1);
+
+        // When
+        handler.selectBatches(batches, 25, selection);
+
+        // Then - depleted batch skipped, the rest consumed in expiry order
+        assertEquals(2, selection.size());
+        assertEquals(2L, selection.batchId(0));
+        assertEquals(10, selection.quantity(0));
+        assertEquals(3L, selection.batchId(1));
+        assertEquals(15, selection.quantity(1));
+    }
+
+    @Test
+    void testSelectBatches_BufferReusedAcrossCalls() {
+        // Given
+        List<InventoryBatch> batches = List.of(
+                batch(1L, 10, LocalDate.of(2026, 1, 1)),
+                batch(2L, 10, LocalDate.of(2026, 2, 1)));
+        BatchSelection selection = new BatchSelection();
+        handler.selectBatches(batches, 15, selection);
+
+        // When
+        handler.selectBatches(batches, 5, selection);
+
+        // Then - the earlier selection is cleared
+        assertEquals(1, selection.size());
+        assertEquals(1L, selection.batchId(0));
+        assertEquals(5, selection.quantity(0));
+    }
+
+    @Test
+    void testSelectBatches_InsufficientInventory() {
+        // Given
+        List<InventoryBatch> batches = List.of(batch(1L, 10, LocalDate.of(2026, 1, 1)));
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> handler.selectBatches(batches, 11, new BatchSelection()));
+
+        assertEquals("Insufficient inventory. Required: 11, Available: 10", exception.getMessage());
+    }
+
+    @Test
+    void testSelectBatches_MapKeepsExpiryOrder() {
+        // Given
+        List<InventoryBatch> batches = new ArrayList<>();
+        for (long id = 20; id > 0; id--) {
+            batches.add(batch(id, 1, LocalDate.of(2026, 1, 1).plusDays(20 - id)));
+        }
+
+        // When
+        Map<Long, Integer> selected = handler.selectBatches(batches, 20);
+
+        // Then
+        assertEquals(batches.stream().map(InventoryBatch::getBatchId).toList(), new ArrayList<>(selected.keySet()));
+    }
+
+    private InventoryBatch batch(Long batchId, int quantity, LocalDate expiryDate) {
+        return new InventoryBatch(batchId, 1001L, "Laptop", quantity, expiryDate, 0L);
+    }
+}
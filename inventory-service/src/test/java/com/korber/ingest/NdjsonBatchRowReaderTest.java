@@ -0,0 +1,51 @@
+package com.korber.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.korber.model.InventoryBatch;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdjsonBatchRowReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void testNext_ReportsLineOfRowJustRead() {
+        // Given - a blank line between the rows
+        NdjsonBatchRowReader reader = reader("""
+                {"productId":1001,"productName":"Laptop","quantity":40,"expiryDate":"2026-12-01"}
+
+                {"productId":1002,"productName":"Mouse","quantity":-1,"expiryDate":"2026-12-01"}
+                """);
+
+        // When & Then
+        assertEquals(1001L, reader.next().getProductId());
+        assertEquals(1, reader.line());
+        InventoryBatch second = reader.next();
+        assertEquals(1002L, second.getProductId());
+        assertEquals(3, reader.line());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    void testNext_MalformedRow_NamesItsLine() {
+        // Given
+        NdjsonBatchRowReader reader = reader("""
+                {"productId":1001,"productName":"Laptop","quantity":40,"expiryDate":"2026-12-01"}
+                {"productId":1002,"productName":"Mouse","quantity":"many","expiryDate":"2026-12-01"}
+                """);
+        reader.next();
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, reader::next);
+        assertTrue(exception.getMessage().startsWith("Line 2: "), exception.getMessage());
+    }
+
+    private NdjsonBatchRowReader reader(String ndjson) {
+        return new NdjsonBatchRowReader(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), objectMapper);
+    }
+}
@@ -0,0 +1,125 @@
+package com.korber.ledger;
+
+import com.korber.dto.InventoryResponse;
+import com.korber.dto.InventoryUpdateRequest;
+import com.korber.dto.InventoryUpdateResponse;
+import com.korber.repository.InventoryBatchRepository;
+import com.korber.service.InventoryService;
+import com.korber.service.impl.LedgerInventoryServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "inventory.engine=ledger",
+        "inventory.ledger.flush-interval-ms=3600000",
+        "spring.datasource.url=jdbc:h2:mem:test_ledgerdb;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+class StockLedgerTest {
+
+    @TempDir
+    static Path journalDirectory;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) {
+        registry.add("inventory.ledger.journal-dir", () -> journalDirectory.toString());
+    }
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private StockLedger ledger;
+
+    @Autowired
+    private InventoryBatchRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void testReservation_ServedFromMemoryAndWrittenBehind() {
+        // Given - batch 9 (Smartphone, earliest expiry) holds 29 units
+        assertInstanceOf(LedgerInventoryServiceImpl.class, inventoryService);
+
+        // When
+        InventoryUpdateResponse response = inventoryService.updateInventory(new InventoryUpdateRequest(1002L, 30));
+
+        // Then - memory reflects the reservation immediately, the database only after a flush
+        assertEquals(2, response.getReservedBatchIds().size());
+        assertEquals(9L, response.getReservedBatchIds().get(0));
+        assertEquals(82, response.getRemainingQuantity());
+        InventoryResponse inventory = inventoryService.getInventoryByProductId(1002L);
+        assertEquals(0, inventory.getBatches().get(0).getQuantity());
+        assertEquals(82, inventory.getBatches().get(1).getQuantity());
+        assertEquals(29, repository.findById(9L).orElseThrow().getQuantity());
+
+        ledger.flush();
+
+        assertEquals(0, repository.findById(9L).orElseThrow().getQuantity());
+        assertEquals(82, repository.findById(10L).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void testRecovery_ReplaysUnflushedJournal() throws Exception {
+        // Given - a reservation is journaled but the ledger dies before flushing it
+        ledger.flush();
+        int before = repository.findById(4L).orElseThrow().getQuantity();
+        inventoryService.updateInventory(new InventoryUpdateRequest(1003L, 5));
+
+        // When - a fresh ledger starts from the same database and journal
+        try (StockLedger recovered = new StockLedger(repository, jdbcTemplate, transactionTemplate,
+                4, journalDirectory.toString(), 3600000)) {
+            recovered.start();
+
+            // Then - the reservation is visible in memory and reaches the database exactly once
+            assertEquals(before - 5, recovered.getInventory(1003L).getBatches().get(0).getQuantity());
+            recovered.flush();
+            assertEquals(before - 5, repository.findById(4L).orElseThrow().getQuantity());
+        }
+    }
+
+    @Test
+    void testRestart_FreshDatabase_DiscardsJournalOfPreviousOne() throws Exception {
+        // Given - a reservation is journaled, then the in-memory database is lost and reseeded: same stock, no journal id
+        ledger.flush();
+        int seeded = repository.findById(4L).orElseThrow().getQuantity();
+        inventoryService.updateInventory(new InventoryUpdateRequest(1003L, 5));
+        jdbcTemplate.update("DELETE FROM inventory_ledger_journal");
+
+        // When - a fresh ledger starts on the old journal
+        try (StockLedger restarted = new StockLedger(repository, jdbcTemplate, transactionTemplate,
+                4, journalDirectory.toString(), 3600000)) {
+            restarted.start();
+
+            // Then - the stale reservation is not replayed onto the reseeded stock
+            assertEquals(seeded, restarted.getInventory(1003L).getBatches().get(0).getQuantity());
+            restarted.flush();
+            assertEquals(seeded, repository.findById(4L).orElseThrow().getQuantity());
+            assertEquals(1, jdbcTemplate.queryForList("SELECT journal_id FROM inventory_ledger_journal").size());
+        }
+    }
+
+    @Test
+    void testReservation_InsufficientInventory() {
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                inventoryService.updateInventory(new InventoryUpdateRequest(1004L, 10000)));
+
+        assertTrue(exception.getMessage().startsWith("Insufficient inventory"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.korber.logging;
+
+import com.korber.InventoryServiceApplication;
+import com.korber.repository.InventoryBatchRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures batch lookup throughput under the default logging setup (show-sql, format_sql and DEBUG
+ * Liquibase, as in application.properties) and under the perf profile. Each run starts its own
+ * application context on its own in-memory database.
+ *
+ * Run with: ../mvnw -Pperf test -Dtest=LoggingProfileBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LoggingProfileBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int QUERIES_PER_THREAD = 5000;
+    private static final long[] PRODUCT_IDS = {1001L, 1002L, 1003L, 1004L, 1005L};
+
+    @Test
+    void compareDefaultAndPerfLogging() throws Exception {
+        double current = run("current", new String[]{"test"},
+                "--spring.jpa.show-sql=true",
+                "--spring.jpa.properties.hibernate.format_sql=true",
+                "--logging.level.liquibase=DEBUG");
+        double perf = run("perf", new String[]{"test", "perf"});
+
+        System.out.printf("show-sql + format_sql  %.0f queries/s%n", current);
+        System.out.printf("perf profile           %.0f queries/s (%+.0f%%)%n", perf, (perf / current - 1) * 100);
+
+        assertTrue(perf > current);
+    }
+
+    private double run(String name, String[] profiles, String... args) throws Exception {
+        List<String> arguments = new ArrayList<>(List.of(args));
+        arguments.add("--spring.datasource.url=jdbc:h2:mem:logging_" + name + ";DB_CLOSE_DELAY=-1");
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(InventoryServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profiles)
+                .run(arguments.toArray(String[]::new))) {
+            InventoryBatchRepository repository = context.getBean(InventoryBatchRepository.class);
+
+            // Warm up the JIT and the connection pool
+            lookups(repository, QUERIES_PER_THREAD / 5);
+            long started = System.nanoTime();
+            lookups(repository, QUERIES_PER_THREAD);
+            long elapsed = System.nanoTime() - started;
+            return THREADS * QUERIES_PER_THREAD * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+        }
+    }
+
+    private void lookups(InventoryBatchRepository repository, int perThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    assertFalse(repository.findAvailableByProductId(PRODUCT_IDS[(i + offset) % PRODUCT_IDS.length]).isEmpty());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,128 @@
+package com.korber.repository;
+
+import com.korber.InventoryServiceApplication;
+import com.korber.model.InventoryBatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streams 1M new batch rows through POST /inventory/batches as CSV and as NDJSON, then replaces the
+ * same rows by batch id, and compares with saving entities through JPA in transactions of the same
+ * chunk size (on 100k rows, as that path is much slower).
+ *
+ * Run with: ../mvnw -Pperf test -Dtest=BatchImportBenchmarkTest -DargLine=-Xmx4g
+ * Row count defaults to 1M and can be changed with -Dbenchmark.rows.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BatchImportBenchmarkTest {
+
+    private static final long FIRST_PRODUCT_ID = 100_000L;
+    private static final int PRODUCTS = 10_000;
+    private static final int JPA_ROWS = 100_000;
+    private static final int ROWS_PER_TRANSACTION = 5000;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    void compareImportFormatsAndJpa() throws Exception {
+        int rows = Integer.getInteger("benchmark.rows", 1_000_000);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(InventoryServiceApplication.class)
+                .profiles("test", "perf")
+                .run("--server.port=0", "--spring.datasource.url=jdbc:h2:mem:import_benchmark;DB_CLOSE_DELAY=-1")) {
+            String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/inventory/batches";
+            InventoryBatchRepository repository = context.getBean(InventoryBatchRepository.class);
+            long loaded = repository.count();
+
+            // Warm up the JIT and the connection pool
+            post(url, "text/csv", csv(rows / 10, i -> ""));
+
+            double csvInsert = post(url, "text/csv", csv(rows, i -> ""));
+            double ndjsonInsert = post(url, "application/x-ndjson", ndjson(rows));
+            // Replaces the NDJSON rows, which took the last ids handed out, one block after another
+            long firstId = context.getBean(JdbcTemplate.class)
+                    .queryForObject("SELECT MAX(batch_id) FROM inventory_batch", Long.class) - rows + 1;
+            double csvReplace = post(url, "text/csv", csv(rows, i -> String.valueOf(firstId + i)));
+            double jpa = saveAll(context, repository);
+
+            System.out.printf("CSV insert       %.0f rows/s%n", csvInsert);
+            System.out.printf("NDJSON insert    %.0f rows/s%n", ndjsonInsert);
+            System.out.printf("CSV replace      %.0f rows/s%n", csvReplace);
+            System.out.printf("JPA saveAll      %.0f rows/s%n", jpa);
+
+            assertEquals(loaded + rows / 10 + 2L * rows + JPA_ROWS, repository.count());
+            assertTrue(csvInsert > jpa);
+        }
+    }
+
+    /**
+     * Posts the payload as a stream and waits for the import to finish.
+     * @return Rows per second
+     */
+    private double post(String url, String contentType, Payload payload) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new ByteArrayInputStream(payload.bytes())))
+                .build();
+        long started = System.nanoTime();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        long elapsed = System.nanoTime() - started;
+        assertEquals(200, response.statusCode(), response.body());
+        return payload.rows() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    private double saveAll(ConfigurableApplicationContext context, InventoryBatchRepository repository) {
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        long started = System.nanoTime();
+        for (int saved = 0; saved < JPA_ROWS; saved += ROWS_PER_TRANSACTION) {
+            List<InventoryBatch> chunk = new ArrayList<>(ROWS_PER_TRANSACTION);
+            for (int i = 0; i < ROWS_PER_TRANSACTION; i++) {
+                chunk.add(new InventoryBatch(null, FIRST_PRODUCT_ID + (saved + i) % PRODUCTS, "Product", 50,
+                        LocalDate.of(2027, 1, 1), null));
+            }
+            transactionTemplate.executeWithoutResult(status -> repository.saveAll(chunk));
+        }
+        long elapsed = System.nanoTime() - started;
+        return JPA_ROWS * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    private Payload csv(int rows, LongFunction<String> batchId) {
+        StringBuilder csv = new StringBuilder(rows * 48).append("batch_id,product_id,product_name,quantity,expiry_date\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(batchId.apply(i)).append(',').append(FIRST_PRODUCT_ID + i % PRODUCTS).append(",Product,")
+                    .append(i % 100).append(",2027-01-01\n");
+        }
+        return new Payload(csv.toString().getBytes(StandardCharsets.UTF_8), rows);
+    }
+
+    private Payload ndjson(int rows) {
+        StringBuilder ndjson = new StringBuilder(rows * 96);
+        for (int i = 0; i < rows; i++) {
+            ndjson.append("{\"productId\":").append(FIRST_PRODUCT_ID + i % PRODUCTS)
+                    .append(",\"productName\":\"Product\",\"quantity\":").append(i % 100)
+                    .append(",\"expiryDate\":\"2027-01-01\"}\n");
+        }
+        return new Payload(ndjson.toString().getBytes(StandardCharsets.UTF_8), rows);
+    }
+
+    private record Payload(byte[] bytes, int rows) {
+    }
+}
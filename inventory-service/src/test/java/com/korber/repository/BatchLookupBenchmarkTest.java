@@ -0,0 +1,122 @@
+package com.korber.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Times the FIFO batch lookup on a large inventory_batch table: the original full query without an
+ * index, the same query on the (product_id, expiry_date) index, and the index with depleted batches
+ * filtered out. Each product has 100 batches, of which the 90 earliest-expiring are depleted.
+ *
+ * Run with: ../mvnw -Pperf test -Dtest=BatchLookupBenchmarkTest -DargLine=-Xmx6g
+ * Table size defaults to 10M rows and can be changed with -Dbenchmark.rows.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BatchLookupBenchmarkTest {
+
+    private static final int BATCHES_PER_PRODUCT = 100;
+    private static final int DEPLETED_PER_PRODUCT = 90;
+
+    private static final String FULL_QUERY =
+            "SELECT * FROM inventory_batch WHERE product_id = ? ORDER BY expiry_date ASC";
+    private static final String AVAILABLE_QUERY =
+            "SELECT * FROM inventory_batch WHERE product_id = ? AND quantity > 0 ORDER BY expiry_date ASC";
+
+    private static Connection connection;
+    private static long products;
+
+    @BeforeAll
+    static void loadBatches() throws Exception {
+        long rows = Long.getLong("benchmark.rows", 10_000_000L);
+        products = rows / BATCHES_PER_PRODUCT;
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:batch_lookup_benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE inventory_batch ("
+                    + "batch_id BIGINT PRIMARY KEY, product_id BIGINT NOT NULL, product_name VARCHAR(255) NOT NULL, "
+                    + "quantity INTEGER NOT NULL, expiry_date DATE NOT NULL, version BIGINT DEFAULT 0 NOT NULL)");
+            long started = System.nanoTime();
+            statement.execute("INSERT INTO inventory_batch (batch_id, product_id, product_name, quantity, expiry_date) "
+                    + "SELECT X, X / " + BATCHES_PER_PRODUCT + ", 'Product', "
+                    + "CASE WHEN MOD(X, " + BATCHES_PER_PRODUCT + ") < " + DEPLETED_PER_PRODUCT + " THEN 0 ELSE 50 END, "
+                    + "DATEADD('DAY', MOD(X, " + BATCHES_PER_PRODUCT + "), DATE '2026-01-01') "
+                    + "FROM SYSTEM_RANGE(0, " + (rows - 1) + ")");
+            System.out.printf("loaded %d batch rows in %d ms%n", rows,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+    }
+
+    @AfterAll
+    static void dropBatches() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Test
+    void compareBatchLookups() throws Exception {
+        // A full scan per lookup is slow at this size, so the unindexed run takes fewer samples
+        Result unindexed = time(FULL_QUERY, 20);
+
+        try (Statement statement = connection.createStatement()) {
+            long started = System.nanoTime();
+            statement.execute("CREATE INDEX idx_inventory_batch_product_expiry ON inventory_batch (product_id, expiry_date)");
+            System.out.printf("built index in %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+        Result indexed = time(FULL_QUERY, 2000);
+        Result indexedAvailable = time(AVAILABLE_QUERY, 2000);
+
+        System.out.println("no index, all batches        " + unindexed);
+        System.out.println("index, all batches           " + indexed);
+        System.out.println("index, batches with stock    " + indexedAvailable);
+
+        assertEquals(BATCHES_PER_PRODUCT, indexed.rowsPerLookup());
+        assertEquals(BATCHES_PER_PRODUCT - DEPLETED_PER_PRODUCT, indexedAvailable.rowsPerLookup());
+        assertTrue(indexedAvailable.p50Micros() < unindexed.p50Micros());
+    }
+
+    private Result time(String sql, int lookups) throws Exception {
+        SplittableRandom random = new SplittableRandom(42);
+        long[] latencies = new long[lookups];
+        long rowsRead = 0;
+
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < lookups; i++) {
+                statement.setLong(1, random.nextLong(products));
+                long started = System.nanoTime();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        rowsRead++;
+                    }
+                }
+                latencies[i] = System.nanoTime() - started;
+            }
+        }
+
+        Arrays.sort(latencies);
+        return new Result((int) (rowsRead / lookups),
+                TimeUnit.NANOSECONDS.toMicros(latencies[lookups / 2]),
+                TimeUnit.NANOSECONDS.toMicros(latencies[(int) Math.ceil(lookups * 0.99) - 1]));
+    }
+
+    private record Result(int rowsPerLookup, long p50Micros, long p99Micros) {
+        @Override
+        public String toString() {
+            return String.format("rows/lookup=%d p50=%dus p99=%dus", rowsPerLookup, p50Micros, p99Micros);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.korber.repository;
+
+import com.korber.InventoryServiceApplication;
+import com.korber.dto.InventoryHoldResponse;
+import com.korber.dto.InventoryUpdateRequest;
+import com.korber.service.InventoryHoldService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the in-memory database with the durable profile: startup time (for the file database, both
+ * the first start that creates the schema and loads inventory.csv, and a restart on the existing file)
+ * and write throughput. Each write is a hold and its release, two committed transactions that leave
+ * stock unchanged. The first context in the JVM pays for class loading, so the in-memory database is
+ * run again once the JVM is warm, and the durable restart is repeated with the opt-in write delay.
+ *
+ * Run with: ../mvnw -Pperf test -Dtest=DatabaseModeBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class DatabaseModeBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int WRITES_PER_THREAD = 1000;
+    private static final long[] PRODUCT_IDS = {1001L, 1002L, 1003L, 1004L, 1005L};
+
+    @TempDir
+    Path dataDirectory;
+
+    @Test
+    void compareInMemoryAndDurable() throws Exception {
+        Result memory = run(new String[]{"test"}, "--spring.datasource.url=jdbc:h2:mem:mode_benchmark;DB_CLOSE_DELAY=-1");
+        String dir = "--inventory.db.dir=" + dataDirectory;
+        Result durableFirst = run(new String[]{"test", "durable"}, dir);
+        Result durableRestart = run(new String[]{"test", "durable"}, dir);
+        Result durableDelayed = run(new String[]{"test", "durable"}, dir, "--inventory.db.write-delay-ms=500");
+        Result memoryWarm = run(new String[]{"test"}, "--spring.datasource.url=jdbc:h2:mem:mode_benchmark_warm;DB_CLOSE_DELAY=-1");
+
+        System.out.println("in-memory, first in JVM " + memory);
+        System.out.println("in-memory, warm JVM     " + memoryWarm);
+        System.out.println("durable, created        " + durableFirst);
+        System.out.println("durable, restart        " + durableRestart);
+        System.out.println("durable, 500 ms delay   " + durableDelayed);
+
+        assertTrue(dataDirectory.resolve("inventorydb.mv.db").toFile().exists());
+    }
+
+    private Result run(String[] profiles, String... args) throws Exception {
+        long started = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(InventoryServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profiles)
+                .run(args)) {
+            long startupMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            InventoryHoldService holdService = context.getBean(InventoryHoldService.class);
+
+            // Warm up the JIT and the connection pool
+            holdAndRelease(holdService, WRITES_PER_THREAD / 5);
+            long writesStarted = System.nanoTime();
+            holdAndRelease(holdService, WRITES_PER_THREAD);
+            long elapsed = System.nanoTime() - writesStarted;
+            return new Result(startupMs, 2.0 * THREADS * WRITES_PER_THREAD * TimeUnit.SECONDS.toNanos(1) / elapsed);
+        }
+    }
+
+    private void holdAndRelease(InventoryHoldService holdService, int perThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    long productId = PRODUCT_IDS[(i + offset) % PRODUCT_IDS.length];
+                    InventoryHoldResponse hold = holdService.holdInventory(new InventoryUpdateRequest(productId, 1));
+                    holdService.releaseHold(hold.getHoldId());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+    }
+
+    private record Result(long startupMs, double transactionsPerSecond) {
+        @Override
+        public String toString() {
+            return String.format("startup=%dms writes=%.0f tx/s", startupMs, transactionsPerSecond);
+        }
+    }
+}
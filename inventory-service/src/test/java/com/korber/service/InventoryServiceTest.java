@@ -1,27 +1,55 @@
 package com.korber.service;
 
+import com.korber.aggregation.ReservationOutcome;
+import com.korber.cache.InventoryResponseCache;
+import com.korber.concurrency.ProductLockStripes;
 import com.korber.dto.InventoryBatchDto;
+import com.korber.dto.InventoryBulkUpdateRequest;
+import com.korber.dto.InventoryBulkUpdateResponse;
+import com.korber.dto.InventoryHoldResponse;
 import com.korber.dto.InventoryResponse;
 import com.korber.dto.InventoryUpdateRequest;
 import com.korber.dto.InventoryUpdateResponse;
 import com.korber.factory.InventoryHandlerFactory;
+import com.korber.handler.BatchSelection;
 import com.korber.handler.InventoryHandler;
+import com.korber.hold.HoldExpiryQueue;
+import com.korber.idempotency.IdempotencyKeyReusedException;
+import com.korber.metrics.ReservationMetrics;
+import com.korber.model.HoldAllocation;
+import com.korber.model.HoldStatus;
 import com.korber.model.InventoryBatch;
+import com.korber.model.InventoryHold;
+import com.korber.model.ReservationRecord;
 import com.korber.repository.InventoryBatchRepository;
+import com.korber.repository.InventoryHoldRepository;
+import com.korber.repository.ReservationRecordRepository;
 import com.korber.service.impl.InventoryServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +64,27 @@ class InventoryServiceTest {
     @Mock
     private InventoryHandler inventoryHandler;
 
+    @Spy
+    private ProductLockStripes lockStripes = new ProductLockStripes(64);
+
+    @Spy
+    private InventoryResponseCache responseCache = new InventoryResponseCache(100, 60000);
+
+    @Mock
+    private InventoryHoldRepository holdRepository;
+
+    @Mock
+    private ReservationRecordRepository recordRepository;
+
+    @Spy
+    private HoldExpiryQueue holdExpiryQueue = new HoldExpiryQueue();
+
+    @Spy
+    private ReservationMetrics metrics = new ReservationMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private InventoryServiceImpl inventoryService;
 
@@ -66,7 +115,7 @@ class InventoryServiceTest {
     void testGetInventoryByProductId_Success() {
         // Given
         Long productId = 1001L;
-        when(repository.findByProductIdOrderByExpiryDateAsc(productId)).thenReturn(batches);
+        when(repository.findAvailableByProductId(productId)).thenReturn(batches);
 
         // When
         InventoryResponse response = inventoryService.getInventoryByProductId(productId);
@@ -78,14 +127,14 @@ class InventoryServiceTest {
         assertEquals(2, response.getBatches().size());
         assertEquals(1L, response.getBatches().get(0).getBatchId());
         assertEquals(2L, response.getBatches().get(1).getBatchId());
-        verify(repository, times(1)).findByProductIdOrderByExpiryDateAsc(productId);
+        verify(repository, times(1)).findAvailableByProductId(productId);
     }
 
     @Test
     void testGetInventoryByProductId_ProductNotFound() {
         // Given
         Long productId = 9999L;
-        when(repository.findByProductIdOrderByExpiryDateAsc(productId)).thenReturn(Collections.emptyList());
+        when(repository.findAvailableByProductId(productId)).thenReturn(Collections.emptyList());
 
         // When & Then
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -93,7 +142,43 @@ class InventoryServiceTest {
         });
 
         assertEquals("Product not found: 9999", exception.getMessage());
-        verify(repository, times(1)).findByProductIdOrderByExpiryDateAsc(productId);
+        verify(repository, times(1)).findAvailableByProductId(productId);
+    }
+
+    @Test
+    void testGetInventoryByProductId_ServedFromCache() {
+        // Given
+        Long productId = 1001L;
+        when(repository.findAvailableByProductId(productId)).thenReturn(batches);
+
+        // When
+        InventoryResponse first = inventoryService.getInventoryByProductId(productId);
+        InventoryResponse second = inventoryService.getInventoryByProductId(productId);
+
+        // Then - only the first read touches the repository
+        assertSame(first, second);
+        verify(repository, times(1)).findAvailableByProductId(productId);
+    }
+
+    @Test
+    void testGetInventoryByProductId_ReloadedAfterUpdate() {
+        // Given
+        Long productId = 1001L;
+        Map<Long, Integer> batchReservations = Map.of(1L, 20);
+        when(repository.findAvailableByProductId(productId)).thenReturn(batches);
+        when(handlerFactory.getHandler(anyLong(), isNull())).thenReturn(inventoryHandler);
+        doAnswer(selects(batchReservations)).when(inventoryHandler).selectBatches(eq(batches), eq(20), any(BatchSelection.class));
+        when(repository.decrementQuantities(any(BatchSelection.class))).thenReturn(new int[]{1});
+
+        inventoryService.getInventoryByProductId(productId);
+
+        // When
+        inventoryService.updateInventory(new InventoryUpdateRequest(productId, 20));
+        inventoryService.getInventoryByProductId(productId);
+
+        // Then - the reservation dropped the cached response, so the next read loads again
+        verify(responseCache).invalidateAfterCommit(productId);
+        verify(repository, times(3)).findAvailableByProductId(productId);
     }
 
     @Test
@@ -103,14 +188,13 @@ class InventoryServiceTest {
         request.setProductId(1001L);
         request.setQuantity(20);
 
-        Map<Long, Integer> batchReservations = new HashMap<>();
+        Map<Long, Integer> batchReservations = new LinkedHashMap<>();
         batchReservations.put(1L, 20);
 
-        when(repository.findByProductIdOrderByExpiryDateAsc(1001L)).thenReturn(batches);
-        when(handlerFactory.getHandler("FIFO")).thenReturn(inventoryHandler);
-        when(inventoryHandler.selectBatches(batches, 20)).thenReturn(batchReservations);
-        when(repository.findById(1L)).thenReturn(Optional.of(batch1));
-        when(repository.save(any(InventoryBatch.class))).thenReturn(batch1);
+        when(repository.findAvailableByProductId(1001L)).thenReturn(batches);
+        when(handlerFactory.getHandler(anyLong(), isNull())).thenReturn(inventoryHandler);
+        doAnswer(selects(batchReservations)).when(inventoryHandler).selectBatches(eq(batches), eq(20), any(BatchSelection.class));
+        when(repository.decrementQuantities(any(BatchSelection.class))).thenReturn(new int[]{1});
 
         // When
         InventoryUpdateResponse response = inventoryService.updateInventory(request);
@@ -119,9 +203,61 @@ class InventoryServiceTest {
         assertNotNull(response);
         assertEquals(1, response.getReservedBatchIds().size());
         assertEquals(1L, response.getReservedBatchIds().get(0));
+        assertEquals("Laptop", response.getProductName());
+        assertEquals(60, response.getRemainingQuantity()); // 50 + 30 - 20
         assertEquals("Inventory updated successfully", response.getMessage());
-        assertEquals(30, batch1.getQuantity()); // 50 - 20 = 30
-        verify(repository, times(1)).save(batch1);
+        verify(repository, times(1)).decrementQuantities(any(BatchSelection.class));
+        verify(repository, never()).findById(anyLong());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void testUpdateInventory_Keyed_RecordsReservation() {
+        // Given
+        Map<Long, Integer> batchReservations = new LinkedHashMap<>();
+        batchReservations.put(1L, 20);
+        when(repository.findAvailableByProductId(1001L)).thenReturn(batches);
+        when(handlerFactory.getHandler(anyLong(), isNull())).thenReturn(inventoryHandler);
+        doAnswer(selects(batchReservations)).when(inventoryHandler).selectBatches(eq(batches), eq(20), any(BatchSelection.class));
+        when(repository.decrementQuantities(any(BatchSelection.class))).thenReturn(new int[]{1});
+
+        // When
+        inventoryService.updateInventory(new InventoryUpdateRequest(1001L, 20), "order-outbox-7");
+
+        // Then - the key is committed together with the stock it took
+        verify(recordRepository, times(1)).save(argThat(record ->
+                record.getRequestKey().equals(ReservationRecord.keyOf("order-outbox-7"))
+                        && record.getReservedBatchIds().equals("1")
+                        && record.getRemainingQuantity() == 60));
+    }
+
+    @Test
+    void testUpdateInventory_KeyAlreadyApplied_Replayed() {
+        // Given - the reservation committed, but its answer never reached the caller
+        when(recordRepository.findById(ReservationRecord.keyOf("order-outbox-7"))).thenReturn(Optional.of(
+                appliedRecord("order-outbox-7", new InventoryUpdateRequest(1001L, 20))));
+
+        // When
+        InventoryUpdateResponse response = inventoryService.updateInventory(new InventoryUpdateRequest(1001L, 20), "order-outbox-7");
+
+        // Then - answered from the record without taking stock again
+        assertEquals(List.of(1L, 2L), response.getReservedBatchIds());
+        assertEquals(40, response.getRemainingQuantity());
+        verify(repository, never()).decrementQuantities(any(BatchSelection.class));
+        verify(recordRepository, never()).save(any());
+    }
+
+    @Test
+    void testUpdateInventory_KeyAppliedToOtherQuantity_Rejected() {
+        // Given - the key was first used to reserve 20
+        when(recordRepository.findById(ReservationRecord.keyOf("order-outbox-7"))).thenReturn(Optional.of(
+                appliedRecord("order-outbox-7", new InventoryUpdateRequest(1001L, 20))));
+
+        // When & Then - a request for 30 under the same key is neither reserved nor given the old answer
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> inventoryService.updateInventory(new InventoryUpdateRequest(1001L, 30), "order-outbox-7"));
+        verify(repository, never()).findAvailableByProductId(anyLong());
+        verify(recordRepository, never()).save(any());
     }
 
     @Test
@@ -131,7 +267,7 @@ class InventoryServiceTest {
         request.setProductId(9999L);
         request.setQuantity(10);
 
-        when(repository.findByProductIdOrderByExpiryDateAsc(9999L)).thenReturn(Collections.emptyList());
+        when(repository.findAvailableByProductId(9999L)).thenReturn(Collections.emptyList());
 
         // When & Then
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -139,7 +275,26 @@ class InventoryServiceTest {
         });
 
         assertEquals("Product not found: 9999", exception.getMessage());
-        verify(repository, never()).save(any());
+        verify(repository, never()).decrementQuantities(any(BatchSelection.class));
+        verify(repository, never()).decrementQuantities(anyMap());
+        verify(metrics).unknownProduct();
+    }
+
+    @Test
+    void testUpdateInventory_SoldOut() {
+        // Given - every batch of the product is depleted, so none is loaded
+        when(repository.findAvailableByProductId(1001L)).thenReturn(Collections.emptyList());
+        when(repository.findFirstByProductId(1001L)).thenReturn(Optional.of(batch1));
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            inventoryService.updateInventory(new InventoryUpdateRequest(1001L, 10));
+        });
+
+        assertEquals("Insufficient inventory. Required: 10, Available: 0", exception.getMessage());
+        verify(repository, never()).decrementQuantities(any(BatchSelection.class));
+        verify(repository, never()).decrementQuantities(anyMap());
+        verify(metrics).insufficientStock();
     }
 
     @Test
@@ -149,13 +304,13 @@ class InventoryServiceTest {
         request.setProductId(1001L);
         request.setQuantity(100); // More than available (50 + 30 = 80)
 
-        Map<Long, Integer> batchReservations = new HashMap<>();
+        Map<Long, Integer> batchReservations = new LinkedHashMap<>();
         batchReservations.put(1L, 100); // Trying to reserve more than available in batch
 
-        when(repository.findByProductIdOrderByExpiryDateAsc(1001L)).thenReturn(batches);
-        when(handlerFactory.getHandler("FIFO")).thenReturn(inventoryHandler);
-        when(inventoryHandler.selectBatches(batches, 100)).thenReturn(batchReservations);
-        when(repository.findById(1L)).thenReturn(Optional.of(batch1));
+        when(repository.findAvailableByProductId(1001L)).thenReturn(batches);
+        when(handlerFactory.getHandler(anyLong(), isNull())).thenReturn(inventoryHandler);
+        doAnswer(selects(batchReservations)).when(inventoryHandler).selectBatches(eq(batches), eq(100), any(BatchSelection.class));
+        when(repository.decrementQuantities(any(BatchSelection.class))).thenReturn(new int[]{0}); // Guard rejected the update
 
         // When & Then
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -172,16 +327,14 @@ class InventoryServiceTest {
         request.setProductId(1001L);
         request.setQuantity(60); // Requires both batches
 
-        Map<Long, Integer> batchReservations = new HashMap<>();
+        Map<Long, Integer> batchReservations = new LinkedHashMap<>();
         batchReservations.put(1L, 50); // Full batch1
         batchReservations.put(2L, 10); // Partial batch2
 
-        when(repository.findByProductIdOrderByExpiryDateAsc(1001L)).thenReturn(batches);
-        when(handlerFactory.getHandler("FIFO")).thenReturn(inventoryHandler);
-        when(inventoryHandler.selectBatches(batches, 60)).thenReturn(batchReservations);
-        when(repository.findById(1L)).thenReturn(Optional.of(batch1));
-        when(repository.findById(2L)).thenReturn(Optional.of(batch2));
-        when(repository.save(any(InventoryBatch.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.findAvailableByProductId(1001L)).thenReturn(batches);
+        when(handlerFactory.getHandler(anyLong(), isNull())).thenReturn(inventoryHandler);
+        doAnswer(selects(batchReservations)).when(inventoryHandler).selectBatches(eq(batches), eq(60), any(BatchSelection.class));
+        when(repository.decrementQuantities(any(BatchSelection.class))).thenReturn(new int[]{1, 1});
 
         // When
         InventoryUpdateResponse response = inventoryService.updateInventory(request);
@@ -191,9 +344,325 @@ class InventoryServiceTest {
         assertEquals(2, response.getReservedBatchIds().size());
         assertTrue(response.getReservedBatchIds().contains(1L));
         assertTrue(response.getReservedBatchIds().contains(2L));
-        assertEquals(0, batch1.getQuantity()); // 50 - 50 = 0
-        assertEquals(20, batch2.getQuantity()); // 30 - 10 = 20
-        verify(repository, times(2)).save(any(InventoryBatch.class));
+        verify(repository, times(1)).decrementQuantities(any(BatchSelection.class));
+        verify(repository, never()).save(any());
+        verify(metrics).recordWrite(anyLong(), eq(2));
+    }
+
+    @Test
+    void testUpdateInventoryBulk_SameProductTwice() {
+        // Given - two lines for the same product; the second must see what the first took
+        InventoryBulkUpdateRequest request = new InventoryBulkUpdateRequest(Arrays.asList(
+                new InventoryUpdateRequest(1001L, 50),
+                new InventoryUpdateRequest(1001L, 10)
+        ));
+
+        when(repository.findAvailableByProductIdIn(List.of(1001L))).thenReturn(batches);
+        when(handlerFactory.getHandler(anyLong(), isNull())).thenReturn(inventoryHandler);
+        when(inventoryHandler.selectBatches(anyList(), eq(50))).thenReturn(Map.of(1L, 50));
+        when(inventoryHandler.selectBatches(anyList(), eq(10))).thenAnswer(invocation -> {
+            List<InventoryBatch> workingCopies = invocation.getArgument(0);
+            assertEquals(0, workingCopies.get(0).getQuantity()); // batch1 drained by the first line
+            return Map.of(2L, 10);
+        });
+        when(repository.decrementQuantities(anyMap())).thenReturn(new int[]{1, 1});
+
+        // When
+        InventoryBulkUpdateResponse response = inventoryService.updateInventoryBulk(request);
+
+        // Then - one guarded batch update carries both lines, entities stay untouched
+        assertEquals(2, response.getResults().size());
+        assertEquals(List.of(1L), response.getResults().get(0).getReservedBatchIds());
+        assertEquals(List.of(2L), response.getResults().get(1).getReservedBatchIds());
+        assertEquals(30, response.getResults().get(0).getRemainingQuantity());
+        assertEquals(20, response.getResults().get(1).getRemainingQuantity());
+        assertEquals(50, batch1.getQuantity());
+        verify(repository, times(1)).decrementQuantities(Map.of(1L, 50, 2L, 10));
+        verify(lockStripes, times(1)).callAllLocked(eq(List.of(1001L)), any());
+        verify(metrics).recordLoad(anyLong());
+        verify(metrics).recordSelect(anyLong());
+        verify(metrics).recordWrite(anyLong(), eq(2));
+    }
+
+    @Test
+    void testUpdateInventoryCombined_EachRequestGetsItsOwnBatches() {
+        // Given - three queued requests; the third asks for more than the first two left
+        List<InventoryUpdateRequest> requests = Arrays.asList(
+                new InventoryUpdateRequest(1001L, 40),
+                new InventoryUpdateRequest(1001L, 30),
+                new InventoryUpdateRequest(1001L, 20));
+
+        when(repository.findAvailableByProductId(1001L)).thenReturn(batches);
+        when(handlerFactory.getHandler(anyLong(), isNull())).thenReturn(inventoryHandler);
+        when(inventoryHandler.selectBatches(anyList(), eq(40))).thenReturn(Map.of(1L, 40));
+        when(inventoryHandler.selectBatches(anyList(), eq(30))).thenAnswer(invocation -> {
+            List<InventoryBatch> workingCopies = invocation.getArgument(0);
+            assertEquals(10, workingCopies.get(0).getQuantity()); // batch1 partly taken by the first request
+            return new LinkedHashMap<>(Map.of(1L, 10, 2L, 20));
+        });
+        when(inventoryHandler.selectBatches(anyList(), eq(20)))
+                .thenThrow(new IllegalArgumentException("Insufficient inventory. Required: 20, Available: 10"));
+        when(repository.decrementQuantities(anyMap())).thenReturn(new int[]{1, 1});
+        when(recordRepository.findAllById(List.of(ReservationRecord.keyOf("order-outbox-2")))).thenReturn(List.of());
+
+        // When
+        List<ReservationOutcome> outcomes = inventoryService.updateInventoryCombined(1001L, requests,
+                Arrays.asList(null, "order-outbox-2", null));
+
+        // Then - one guarded batch update for the group; only the third request is rejected
+        assertEquals(3, outcomes.size());
+        assertEquals(List.of(1L), outcomes.get(0).response().getReservedBatchIds());
+        assertEquals(40, outcomes.get(0).response().getRemainingQuantity());
+        assertEquals(Set.of(1L, 2L), new HashSet<>(outcomes.get(1).response().getReservedBatchIds()));
+        assertEquals(10, outcomes.get(1).response().getRemainingQuantity());
+        assertNull(outcomes.get(2).response());
+        assertTrue(outcomes.get(2).rejection().getMessage().contains("Insufficient inventory"));
+        verify(repository, times(1)).decrementQuantities(Map.of(1L, 50, 2L, 20));
+        verify(lockStripes, times(1)).callLocked(eq(1001L), any());
+        verify(recordRepository, times(1)).saveAll(argThat((List<ReservationRecord> records) -> records.size() == 1
+                && records.get(0).getRequestKey().equals(ReservationRecord.keyOf("order-outbox-2"))));
+        verify(metrics).recordLoad(anyLong());
+        verify(metrics).recordSelect(anyLong());
+        verify(metrics).recordWrite(anyLong(), eq(2));
+    }
+
+    @Test
+    void testUpdateInventoryCombined_DuplicateKeyInGroup_ReservesOnce() {
+        // Given - a redelivery lands in the same group as the original, then the key is reused for 5
+        List<InventoryUpdateRequest> requests = Arrays.asList(
+                new InventoryUpdateRequest(1001L, 10),
+                new InventoryUpdateRequest(1001L, 10),
+                new InventoryUpdateRequest(1001L, 5));
+
+        when(repository.findAvailableByProductId(1001L)).thenReturn(batches);
+        when(handlerFactory.getHandler(anyLong(), isNull())).thenReturn(inventoryHandler);
+        when(inventoryHandler.selectBatches(anyList(), eq(10))).thenReturn(Map.of(1L, 10));
+        when(repository.decrementQuantities(anyMap())).thenReturn(new int[]{1});
+        when(recordRepository.findAllById(List.of(ReservationRecord.keyOf("order-outbox-3")))).thenReturn(List.of());
+
+        // When
+        List<ReservationOutcome> outcomes = inventoryService.updateInventoryCombined(1001L, requests,
+                List.of("order-outbox-3", "order-outbox-3", "order-outbox-3"));
+
+        // Then - the redelivery gets the original answer, the reuse is refused, and stock is taken once
+        assertEquals(outcomes.get(0).response().getReservedBatchIds(), outcomes.get(1).response().getReservedBatchIds());
+        assertEquals(70, outcomes.get(1).response().getRemainingQuantity());
+        assertInstanceOf(IdempotencyKeyReusedException.class, outcomes.get(2).rejection());
+        verify(inventoryHandler, times(1)).selectBatches(anyList(), anyInt());
+        verify(repository, times(1)).decrementQuantities(Map.of(1L, 10));
+        verify(recordRepository, times(1)).saveAll(argThat((List<ReservationRecord> records) -> records.size() == 1));
+    }
+
+    @Test
+    void testUpdateInventoryCombined_UnknownStrategy_RejectsOnlyThatRequest() {
+        // Given - the second of two queued requests names a strategy that does not exist
+        InventoryUpdateRequest unknown = new InventoryUpdateRequest(1001L, 5);
+        unknown.setStrategy("NEWEST");
+
+        when(repository.findAvailableByProductId(1001L)).thenReturn(batches);
+        when(handlerFactory.getHandler(anyLong(), isNull())).thenReturn(inventoryHandler);
+        when(handlerFactory.getHandler(1001L, "NEWEST"))
+                .thenThrow(new IllegalArgumentException("Unknown inventory strategy: NEWEST"));
+        when(inventoryHandler.selectBatches(anyList(), eq(10))).thenReturn(Map.of(1L, 10));
+        when(repository.decrementQuantities(anyMap())).thenReturn(new int[]{1});
+
+        // When
+        List<ReservationOutcome> outcomes = inventoryService.updateInventoryCombined(1001L,
+                Arrays.asList(new InventoryUpdateRequest(1001L, 10), unknown), Arrays.asList(null, null));
+
+        // Then - the first request still commits
+        assertEquals(List.of(1L), outcomes.get(0).response().getReservedBatchIds());
+        assertEquals("Unknown inventory strategy: NEWEST", outcomes.get(1).rejection().getMessage());
+        verify(repository, times(1)).decrementQuantities(Map.of(1L, 10));
+    }
+
+    @Test
+    void testUpdateInventoryBulk_ProductNotFound() {
+        // Given
+        InventoryBulkUpdateRequest request = new InventoryBulkUpdateRequest(Arrays.asList(
+                new InventoryUpdateRequest(1001L, 5),
+                new InventoryUpdateRequest(9999L, 1)
+        ));
+
+        when(repository.findAvailableByProductIdIn(List.of(1001L, 9999L))).thenReturn(batches);
+        when(handlerFactory.getHandler(anyLong(), isNull())).thenReturn(inventoryHandler);
+        when(inventoryHandler.selectBatches(anyList(), eq(5))).thenReturn(Map.of(1L, 5));
+
+        // When & Then - nothing is written when any line fails
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            inventoryService.updateInventoryBulk(request);
+        });
+
+        assertEquals("Product not found: 9999", exception.getMessage());
+        verify(repository, never()).decrementQuantities(any(BatchSelection.class));
+        verify(repository, never()).decrementQuantities(anyMap());
     }
-}
 
+    @Test
+    void testHoldInventory_RecordsBatchesTaken() {
+        // Given
+        Map<Long, Integer> batchReservations = new LinkedHashMap<>();
+        batchReservations.put(1L, 50);
+        batchReservations.put(2L, 10);
+
+        when(repository.findAvailableByProductId(1001L)).thenReturn(batches);
+        when(handlerFactory.getHandler(anyLong(), isNull())).thenReturn(inventoryHandler);
+        doAnswer(selects(batchReservations)).when(inventoryHandler).selectBatches(eq(batches), eq(60), any(BatchSelection.class));
+        when(repository.decrementQuantities(any(BatchSelection.class))).thenReturn(new int[]{1, 1});
+        when(holdRepository.save(any(InventoryHold.class))).thenAnswer(invocation -> {
+            InventoryHold hold = invocation.getArgument(0);
+            hold.setHoldId(7L);
+            return hold;
+        });
+
+        // When
+        InventoryHoldResponse response = inventoryService.holdInventory(new InventoryUpdateRequest(1001L, 60));
+
+        // Then - stock is taken now, and the hold remembers where from so it can be put back
+        assertEquals(7L, response.getHoldId());
+        assertEquals("HELD", response.getStatus());
+        assertEquals(List.of(1L, 2L), response.getReservedBatchIds());
+        assertEquals(20, response.getRemainingQuantity());
+        verify(holdRepository).save(argThat(hold -> hold.getStatus() == HoldStatus.HELD
+                && hold.getAllocations().equals(List.of(new HoldAllocation(1L, 50), new HoldAllocation(2L, 10)))));
+        assertEquals(1, holdExpiryQueue.size());
+    }
+
+    @Test
+    void testHoldInventoryBulk_OneHoldPerLine() {
+        // Given - two lines for the same product, held in one transaction
+        InventoryBulkUpdateRequest request = new InventoryBulkUpdateRequest(Arrays.asList(
+                new InventoryUpdateRequest(1001L, 50),
+                new InventoryUpdateRequest(1001L, 10)
+        ));
+
+        when(repository.findAvailableByProductIdIn(List.of(1001L))).thenReturn(batches);
+        when(handlerFactory.getHandler(anyLong(), isNull())).thenReturn(inventoryHandler);
+        when(inventoryHandler.selectBatches(anyList(), eq(50))).thenReturn(Map.of(1L, 50));
+        when(inventoryHandler.selectBatches(anyList(), eq(10))).thenReturn(Map.of(2L, 10));
+        when(repository.decrementQuantities(anyMap())).thenReturn(new int[]{1, 1});
+        when(holdRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<InventoryHold> holds = invocation.getArgument(0);
+            for (int i = 0; i < holds.size(); i++) {
+                holds.get(i).setHoldId(7L + i);
+            }
+            return holds;
+        });
+
+        // When
+        List<InventoryHoldResponse> holds = inventoryService.holdInventoryBulk(request);
+
+        // Then - each line's hold remembers only its own batches, and both are queued for expiry
+        assertEquals(List.of(7L, 8L), holds.stream().map(InventoryHoldResponse::getHoldId).toList());
+        assertEquals(List.of(2L), holds.get(1).getReservedBatchIds());
+        verify(repository, times(1)).decrementQuantities(Map.of(1L, 50, 2L, 10));
+        verify(holdRepository).saveAll(argThat((List<InventoryHold> saved) ->
+                saved.get(0).getAllocations().equals(List.of(new HoldAllocation(1L, 50)))
+                        && saved.get(1).getAllocations().equals(List.of(new HoldAllocation(2L, 10)))));
+        assertEquals(2, holdExpiryQueue.size());
+    }
+
+    @Test
+    void testReleaseHolds_SkipsHoldsNoLongerHeld() {
+        // Given - of holds 7 and 8 only 7 is still held, e.g. a release retried after 8 expired
+        InventoryHold held = hold(7L, 1001L, new HoldAllocation(1L, 5));
+        when(holdRepository.findWithAllocations(List.of(7L, 8L), HoldStatus.HELD)).thenReturn(List.of(held));
+        when(holdRepository.transition(List.of(7L), HoldStatus.HELD, HoldStatus.RELEASED)).thenReturn(1);
+
+        // When
+        List<InventoryHoldResponse> released = inventoryService.releaseHolds(List.of(7L, 8L));
+
+        // Then
+        assertEquals(1, released.size());
+        assertEquals("RELEASED", released.get(0).getStatus());
+        verify(repository).incrementQuantities(Map.of(1L, 5));
+    }
+
+    @Test
+    void testConfirmHold_AlreadyExpired() {
+        // Given - the sweeper expired the hold before the order committed
+        when(holdRepository.findById(7L)).thenReturn(Optional.of(hold(7L, 1001L, new HoldAllocation(1L, 5))));
+        when(holdRepository.transition(List.of(7L), HoldStatus.HELD, HoldStatus.CONFIRMED)).thenReturn(0);
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> {
+            inventoryService.confirmHold(7L);
+        });
+
+        assertEquals("Hold is no longer held: 7", exception.getMessage());
+    }
+
+    @Test
+    void testConfirmHold_AlreadyConfirmed() {
+        // Given - a first confirm committed but its response was lost
+        when(holdRepository.findById(7L)).thenReturn(Optional.of(hold(7L, 1001L, new HoldAllocation(1L, 5))));
+        when(holdRepository.transition(List.of(7L), HoldStatus.HELD, HoldStatus.CONFIRMED)).thenReturn(0);
+        when(holdRepository.findStatus(7L)).thenReturn(Optional.of(HoldStatus.CONFIRMED));
+
+        // When
+        InventoryHoldResponse response = inventoryService.confirmHold(7L);
+
+        // Then - the retry succeeds too
+        assertEquals("CONFIRMED", response.getStatus());
+        assertEquals(List.of(1L), response.getReservedBatchIds());
+    }
+
+    @Test
+    void testReleaseHold_RestocksBatches() {
+        // Given
+        when(holdRepository.findProductId(7L)).thenReturn(Optional.of(1001L));
+        when(holdRepository.findById(7L)).thenReturn(Optional.of(
+                hold(7L, 1001L, new HoldAllocation(1L, 50), new HoldAllocation(2L, 10))));
+        when(holdRepository.transition(List.of(7L), HoldStatus.HELD, HoldStatus.RELEASED)).thenReturn(1);
+
+        // When
+        InventoryHoldResponse response = inventoryService.releaseHold(7L);
+
+        // Then
+        assertEquals("RELEASED", response.getStatus());
+        verify(repository, times(1)).incrementQuantities(Map.of(1L, 50, 2L, 10));
+        verify(lockStripes, times(1)).callLocked(eq(1001L), any());
+    }
+
+    @Test
+    void testExpireHolds_SkipsHoldConfirmedMeanwhile() {
+        // Given - hold 8 is confirmed between the read and the expiry update
+        InventoryHold first = hold(7L, 1001L, new HoldAllocation(1L, 5));
+        InventoryHold second = hold(8L, 1002L, new HoldAllocation(9L, 3));
+        when(holdRepository.findWithAllocations(List.of(7L, 8L), HoldStatus.HELD)).thenReturn(List.of(first, second));
+        when(holdRepository.transition(List.of(7L, 8L), HoldStatus.HELD, HoldStatus.EXPIRED)).thenReturn(1);
+        when(holdRepository.findWithAllocations(List.of(7L, 8L), HoldStatus.EXPIRED)).thenReturn(List.of(first));
+
+        // When
+        int expired = inventoryService.expireHolds(List.of(7L, 8L));
+
+        // Then - only the hold that actually expired gives its stock back
+        assertEquals(1, expired);
+        verify(repository, times(1)).incrementQuantities(Map.of(1L, 5));
+    }
+
+    private static InventoryHold hold(Long holdId, Long productId, HoldAllocation... allocations) {
+        InventoryHold hold = new InventoryHold();
+        hold.setHoldId(holdId);
+        hold.setProductId(productId);
+        hold.setQuantity(Arrays.stream(allocations).mapToInt(HoldAllocation::getQuantity).sum());
+        hold.setStatus(HoldStatus.HELD);
+        hold.setExpiresAt(Instant.now().plusSeconds(30));
+        hold.setAllocations(new ArrayList<>(Arrays.asList(allocations)));
+        return hold;
+    }
+
+    private static Answer<Void> selects(Map<Long, Integer> reservations) {
+        return invocation -> {
+            BatchSelection into = invocation.getArgument(2);
+            into.clear();
+            reservations.forEach(into::add);
+            return null;
+        };
+    }
+
+    private static ReservationRecord appliedRecord(String idempotencyKey, InventoryUpdateRequest request) {
+        return ReservationRecord.of(idempotencyKey, request,
+                new InventoryUpdateResponse(List.of(1L, 2L), "Laptop", 40, "Inventory updated successfully"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.korber.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.korber.dto.InventoryUpdateResponse;
+import com.korber.dto.OrderRequest;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Last known stock per product, as reported by Inventory Service in reservation responses.
+ * Entries older than the staleness budget are dropped, so an order is only rejected locally on
+ * recent evidence; everything else still goes to Inventory Service, which stays authoritative.
+ */
+@Component
+public class InventoryAvailabilityCache implements MeterBinder {
+    private final Cache<Long, Integer> remainingByProduct;
+    private final LongAdder savedCalls = new LongAdder();
+
+    public InventoryAvailabilityCache(@Value("${inventory.availability.max-size:10000}") long maxSize,
+                                      @Value("${inventory.availability.staleness-ms:2000}") long stalenessMs) {
+        this.remainingByProduct = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(stalenessMs))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Rejects the order without a remote call if recent stock for the product is already too low.
+     * @throws IllegalArgumentException when the known stock cannot cover the quantity
+     */
+    public void checkAvailable(Long productId, int quantity) {
+        Integer remaining = remainingByProduct.getIfPresent(productId);
+        if (remaining != null && remaining < quantity) {
+            savedCalls.increment();
+            throw new IllegalArgumentException("Insufficient inventory. Required: " + quantity + ", Available: " + remaining);
+        }
+    }
+
+    /**
+     * Checks a whole cart; quantities of lines for the same product are added up.
+     */
+    public void checkAvailable(List<OrderRequest> lines) {
+        Map<Long, Integer> required = new LinkedHashMap<>();
+        for (OrderRequest line : lines) {
+            required.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+        for (Map.Entry<Long, Integer> entry : required.entrySet()) {
+            checkAvailable(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public void record(Long productId, InventoryUpdateResponse reservation) {
+        if (reservation.getRemainingQuantity() != null) {
+            remainingByProduct.put(productId, reservation.getRemainingQuantity());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, remainingByProduct, "inventory-availability");
+        FunctionCounter.builder("order.inventory.calls.saved", savedCalls, LongAdder::sum)
+                .description("Orders rejected from cached availability without calling Inventory Service")
+                .register(registry);
+    }
+}
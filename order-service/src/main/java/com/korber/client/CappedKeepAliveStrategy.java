@@ -0,0 +1,27 @@
+package com.korber.client;
+
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Keeps a pooled connection for the {@code Keep-Alive: timeout=} the server announced, but never longer
+ * than {@code max}; without the header the connection is kept for {@code max}. Honouring a shorter
+ * server timeout means a connection is not reused after the server has already closed its end.
+ */
+public class CappedKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+    private final TimeValue max;
+
+    public CappedKeepAliveStrategy(TimeValue max) {
+        this.max = max;
+    }
+
+    @Override
+    public TimeValue getKeepAliveDuration(HttpResponse response, HttpContext context) {
+        // Falls back to the request config's keep-alive (3 minutes unless set) when the header is absent
+        TimeValue announced = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+        return announced == null || announced.compareTo(max) > 0 ? max : announced;
+    }
+}
@@ -0,0 +1,90 @@
+package com.korber.client;
+
+import com.korber.idempotency.IdempotencyStore;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.core.functions.Either;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The reactive pipeline's counterpart of {@link InventoryResilienceInterceptor}, for every call made
+ * through the inventory WebClient. It shares the "inventory" circuit breaker and retry settings.
+ * <ul>
+ *   <li>Circuit breaker: counts I/O errors and 5xx answers; while open, calls fail at once without a network hop.
+ *       4xx answers are business rejections and count as successes.</li>
+ *   <li>Retry: I/O errors and 5xx answers are retried with the configured backoff, while the call's time budget
+ *       lasts. POSTs get an Idempotency-Key first, so a retry replays instead of reserving twice.</li>
+ * </ul>
+ * There is no bulkhead: a waiting call holds no thread, and the connection pool already bounds calls in flight.
+ */
+public class InventoryResilienceFilter implements ExchangeFilterFunction {
+    private final CircuitBreaker circuitBreaker;
+    private final RetryConfig retryConfig;
+    private final long budgetNanos;
+
+    /**
+     * @param budgetMs Time after which no further attempt is started
+     */
+    public InventoryResilienceFilter(CircuitBreaker circuitBreaker, Retry retry, long budgetMs) {
+        this.circuitBreaker = circuitBreaker;
+        this.retryConfig = retry.getRetryConfig();
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMs);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        ClientRequest keyed = request.method() == HttpMethod.POST && !request.headers().containsKey(IdempotencyStore.HEADER)
+                ? ClientRequest.from(request).header(IdempotencyStore.HEADER, UUID.randomUUID().toString()).build()
+                : request;
+
+        long deadline = System.nanoTime() + budgetNanos;
+        return Mono.defer(() -> attempt(keyed, next))
+                .retryWhen(reactor.util.retry.Retry.from(signals -> signals.concatMap(signal -> {
+                    Throwable failure = signal.failure();
+                    int failedAttempts = (int) signal.totalRetries() + 1;
+                    if (failedAttempts >= retryConfig.getMaxAttempts() || !retryable(failure)) {
+                        return Mono.error(failure);
+                    }
+                    long waitMs = retryConfig.getIntervalBiFunction().apply(failedAttempts, Either.left(failure));
+                    if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs) - deadline > 0) {
+                        return Mono.error(failure);
+                    }
+                    return Mono.delay(Duration.ofMillis(waitMs));
+                })));
+    }
+
+    /**
+     * One attempt; a 5xx answer becomes an exception so the breaker and the retry see it as a failure.
+     */
+    private Mono<ClientResponse> attempt(ClientRequest request, ExchangeFunction next) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return Mono.error(CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+        }
+        long started = System.nanoTime();
+        return next.exchange(request)
+                .flatMap(response -> response.statusCode().is5xxServerError()
+                        ? response.createException().flatMap(Mono::<ClientResponse>error)
+                        : Mono.just(response))
+                .doOnNext(response -> circuitBreaker.onSuccess(System.nanoTime() - started, TimeUnit.NANOSECONDS))
+                .doOnError(e -> circuitBreaker.onError(System.nanoTime() - started, TimeUnit.NANOSECONDS, e))
+                .doOnCancel(circuitBreaker::releasePermission);
+    }
+
+    private static boolean retryable(Throwable failure) {
+        return failure instanceof WebClientRequestException
+                || failure instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError();
+    }
+}
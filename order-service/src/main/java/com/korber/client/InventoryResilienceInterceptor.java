@@ -0,0 +1,92 @@
+package com.korber.client;
+
+import com.korber.idempotency.IdempotencyStore;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.core.functions.CheckedSupplier;
+import io.github.resilience4j.retry.Retry;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resilience for every call made through the inventory RestTemplate. It must be the last interceptor,
+ * because it runs the rest of the chain again for each attempt.
+ * <ul>
+ *   <li>Bulkhead: caps concurrent inventory calls, so a slow Inventory Service cannot occupy every request thread.</li>
+ *   <li>Circuit breaker: counts I/O errors and 5xx answers; while open, calls fail at once without a network hop.
+ *       4xx answers are business rejections and count as successes.</li>
+ *   <li>Retry: I/O errors and 5xx answers are retried with jittered exponential backoff, while the call's time
+ *       budget lasts. POSTs get an Idempotency-Key first, so a retry replays instead of reserving twice. Every
+ *       POST endpoint of Inventory Service this client calls (update, bulk update, hold, confirm and release)
+ *       dedupes on that key; a new POST endpoint must do the same before it is called through here.</li>
+ * </ul>
+ */
+public class InventoryResilienceInterceptor implements ClientHttpRequestInterceptor {
+    private final CircuitBreaker circuitBreaker;
+    private final Retry retry;
+    private final Bulkhead bulkhead;
+    private final long budgetNanos;
+
+    /**
+     * @param budgetMs Time after which no further attempt is started
+     */
+    public InventoryResilienceInterceptor(CircuitBreaker circuitBreaker, Retry retry, Bulkhead bulkhead, long budgetMs) {
+        this.circuitBreaker = circuitBreaker;
+        this.retry = retry;
+        this.bulkhead = bulkhead;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMs);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (request.getMethod() == HttpMethod.POST && !request.getHeaders().containsKey(IdempotencyStore.HEADER)) {
+            request.getHeaders().set(IdempotencyStore.HEADER, UUID.randomUUID().toString());
+        }
+
+        long deadline = System.nanoTime() + budgetNanos;
+        CheckedSupplier<ClientHttpResponse> attempt = () -> send(request, body, execution);
+        CheckedSupplier<ClientHttpResponse> guarded = Bulkhead.decorateCheckedSupplier(bulkhead,
+                CircuitBreaker.decorateCheckedSupplier(circuitBreaker, attempt));
+        CheckedSupplier<ClientHttpResponse> withinBudget = () -> {
+            if (System.nanoTime() - deadline > 0) {
+                throw new ResourceAccessException("Inventory call exceeded its " + TimeUnit.NANOSECONDS.toMillis(budgetNanos) + " ms budget");
+            }
+            return guarded.get();
+        };
+
+        try {
+            return Retry.decorateCheckedSupplier(retry, withinBudget).get();
+        } catch (IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * One attempt; a 5xx answer becomes an exception so the breaker and the retry see it as a failure.
+     */
+    private ClientHttpResponse send(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        ClientHttpResponse response = execution.execute(request, body);
+        HttpStatusCode status = response.getStatusCode();
+        if (status.is5xxServerError()) {
+            try (response) {
+                throw HttpServerErrorException.create(status, response.getStatusText(), response.getHeaders(),
+                        response.getBody().readAllBytes(), null);
+            }
+        }
+        return response;
+    }
+}
@@ -1,14 +1,104 @@
 package com.korber.config;
 
+import com.korber.client.CappedKeepAliveStrategy;
+import com.korber.client.InventoryResilienceInterceptor;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * HTTP client for calls to Inventory Service: pooled keep-alive connections with bounded
+ * connect, lease and read timeouts, a resilience layer, and pool gauges published through actuator metrics.
+ */
 @Configuration
 public class RestTemplateConfig {
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public PoolingHttpClientConnectionManager inventoryConnectionManager(
+            @Value("${inventory.client.max-connections:200}") int maxConnections,
+            @Value("${inventory.client.max-connections-per-route:100}") int maxConnectionsPerRoute,
+            @Value("${inventory.client.connect-timeout-ms:1000}") long connectTimeoutMs,
+            @Value("${inventory.client.read-timeout-ms:3000}") long readTimeoutMs,
+            @Value("${inventory.client.connection-ttl-ms:300000}") long connectionTtlMs) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setTimeToLive(TimeValue.ofMilliseconds(connectionTtlMs))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient inventoryHttpClient(
+            PoolingHttpClientConnectionManager inventoryConnectionManager,
+            @Value("${inventory.client.pool-timeout-ms:500}") long poolTimeoutMs,
+            @Value("${inventory.client.read-timeout-ms:3000}") long readTimeoutMs,
+            @Value("${inventory.client.keep-alive-ms:30000}") long keepAliveMs,
+            @Value("${inventory.client.idle-evict-ms:60000}") long idleEvictMs) {
+        return HttpClients.custom()
+                .setConnectionManager(inventoryConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                // Reuse connections for keep-alive-ms unless the server announces a shorter Keep-Alive
+                .setKeepAliveStrategy(new CappedKeepAliveStrategy(TimeValue.ofMilliseconds(keepAliveMs)))
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictMs))
+                .evictExpiredConnections()
+                .build();
+    }
+
+    /**
+     * Retry, circuit breaker and bulkhead named "inventory", configured under resilience4j.* and
+     * reported by the circuitbreakers, retries and bulkheads actuator endpoints.
+     */
+    @Bean
+    public InventoryResilienceInterceptor inventoryResilienceInterceptor(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            RetryRegistry retryRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            @Value("${inventory.client.budget-ms:5000}") long budgetMs) {
+        return new InventoryResilienceInterceptor(
+                circuitBreakerRegistry.circuitBreaker("inventory"),
+                retryRegistry.retry("inventory"),
+                bulkheadRegistry.bulkhead("inventory"),
+                budgetMs);
     }
-}
 
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient inventoryHttpClient,
+                                     InventoryResilienceInterceptor inventoryResilienceInterceptor) {
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(inventoryHttpClient))
+                // The resilience layer is last because each retry runs the remaining chain again
+                .additionalInterceptors(inventoryResilienceInterceptor)
+                .build();
+    }
+
+    /**
+     * Publishes leased, pending, available and max connection gauges as httpcomponents.httpclient.pool.*
+     */
+    @Bean
+    public MeterBinder inventoryConnectionPoolMetrics(PoolingHttpClientConnectionManager inventoryConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(inventoryConnectionManager, "inventory");
+    }
+}
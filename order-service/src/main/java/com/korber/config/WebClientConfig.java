@@ -0,0 +1,94 @@
+package com.korber.config;
+
+import com.korber.client.InventoryResilienceFilter;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking client for the reactive order pipeline: inventory calls run on a few Netty event loops
+ * and only order persistence, which stays on blocking JDBC, gets a small dedicated pool.
+ * Shares the inventory.client.* limits with {@link RestTemplateConfig}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.pipeline", havingValue = "reactive")
+public class WebClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider inventoryConnectionProvider(
+            @Value("${inventory.client.max-connections-per-route:100}") int maxConnections,
+            @Value("${inventory.client.pool-timeout-ms:500}") long poolTimeoutMs,
+            @Value("${inventory.client.keep-alive-ms:30000}") long keepAliveMs,
+            @Value("${inventory.client.idle-evict-ms:60000}") long idleEvictMs,
+            @Value("${inventory.client.connection-ttl-ms:300000}") long connectionTtlMs) {
+        return ConnectionProvider.builder("inventory")
+                .maxConnections(maxConnections)
+                // Orders beyond the pool wait in an unbounded queue, each for at most pool-timeout-ms
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(Duration.ofMillis(poolTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(keepAliveMs))
+                .maxLifeTime(Duration.ofMillis(connectionTtlMs))
+                .evictInBackground(Duration.ofMillis(idleEvictMs))
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * Shares the "inventory" circuit breaker and retry settings with the RestTemplate's interceptor.
+     */
+    @Bean
+    public InventoryResilienceFilter inventoryResilienceFilter(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            RetryRegistry retryRegistry,
+            @Value("${inventory.client.budget-ms:5000}") long budgetMs) {
+        return new InventoryResilienceFilter(
+                circuitBreakerRegistry.circuitBreaker("inventory"),
+                retryRegistry.retry("inventory"),
+                budgetMs);
+    }
+
+    @Bean
+    public WebClient inventoryWebClient(
+            WebClient.Builder builder,
+            ConnectionProvider inventoryConnectionProvider,
+            InventoryResilienceFilter inventoryResilienceFilter,
+            @Value("${inventory.service.url}") String inventoryServiceUrl,
+            @Value("${inventory.client.connect-timeout-ms:1000}") int connectTimeoutMs,
+            @Value("${inventory.client.read-timeout-ms:3000}") long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.create(inventoryConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs));
+        return builder
+                .baseUrl(inventoryServiceUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(inventoryResilienceFilter)
+                .build();
+    }
+
+    /**
+     * Sized to the JDBC pool; more threads would only queue on connections.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService orderPersistenceExecutor(
+            @Value("${order.pipeline.persistence-threads:10}") int persistenceThreads) {
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(persistenceThreads, runnable -> {
+            Thread thread = new Thread(runnable, "order-persistence-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
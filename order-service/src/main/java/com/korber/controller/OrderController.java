@@ -1,29 +1,54 @@
 package com.korber.controller;
 
+import com.korber.dto.BulkOrderRequest;
+import com.korber.dto.BulkOrderResponse;
 import com.korber.dto.OrderRequest;
 import com.korber.dto.OrderResponse;
+import com.korber.idempotency.IdempotencyStore;
 import com.korber.service.OrderService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/order")
+@ConditionalOnProperty(name = "order.pipeline", havingValue = "blocking", matchIfMissing = true)
 @RequiredArgsConstructor
 public class OrderController {
     private final OrderService orderService;
+    private final IdempotencyStore idempotencyStore;
 
     @PostMapping
-    public ResponseEntity<OrderResponse> placeOrder(@RequestBody OrderRequest request) {
-        try {
-            OrderResponse response = orderService.placeOrder(request);
-            return ResponseEntity.ok(response);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().build();
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    public ResponseEntity<OrderResponse> placeOrder(
+            @RequestBody OrderRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("order", idempotencyKey, request, () -> {
+            try {
+                OrderResponse response = orderService.placeOrder(request);
+                return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            }
+        });
     }
-}
 
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkOrderResponse> placeBulkOrder(
+            @RequestBody BulkOrderRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("order/bulk", idempotencyKey, request, () -> {
+            try {
+                BulkOrderResponse response = orderService.placeBulkOrder(request);
+                return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            }
+        });
+    }
+}
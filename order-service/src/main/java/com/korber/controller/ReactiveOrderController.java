@@ -0,0 +1,56 @@
+package com.korber.controller;
+
+import com.korber.dto.BulkOrderRequest;
+import com.korber.dto.BulkOrderResponse;
+import com.korber.dto.OrderRequest;
+import com.korber.dto.OrderResponse;
+import com.korber.idempotency.IdempotencyStore;
+import com.korber.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Same contract as {@link OrderController}, but releases the request thread while the order is in flight.
+ */
+@RestController
+@RequestMapping("/order")
+@ConditionalOnProperty(name = "order.pipeline", havingValue = "reactive")
+@RequiredArgsConstructor
+public class ReactiveOrderController {
+    private final OrderService orderService;
+    private final IdempotencyStore idempotencyStore;
+
+    @PostMapping
+    public CompletableFuture<ResponseEntity<OrderResponse>> placeOrder(
+            @RequestBody OrderRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.executeAsync("order", idempotencyKey, request,
+                () -> orderService.placeOrderAsync(request)
+                        .thenApply(ResponseEntity::ok)
+                        .exceptionally(ReactiveOrderController::failure));
+    }
+
+    @PostMapping("/bulk")
+    public CompletableFuture<ResponseEntity<BulkOrderResponse>> placeBulkOrder(
+            @RequestBody BulkOrderRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.executeAsync("order/bulk", idempotencyKey, request,
+                () -> orderService.placeBulkOrderAsync(request)
+                        .thenApply(ResponseEntity::ok)
+                        .exceptionally(ReactiveOrderController::failure));
+    }
+
+    private static <T> ResponseEntity<T> failure(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+}
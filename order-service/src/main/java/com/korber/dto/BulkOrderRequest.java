@@ -0,0 +1,14 @@
+package com.korber.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderRequest {
+    private List<OrderRequest> lines;
+}
@@ -0,0 +1,16 @@
+package com.korber.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderResponse {
+    /** One order per requested line, in request order */
+    private List<OrderResponse> orders;
+    private String message;
+}
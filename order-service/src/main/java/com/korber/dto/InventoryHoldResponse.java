@@ -0,0 +1,19 @@
+package com.korber.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Inventory Service's answer to a hold: the reservation fields plus the hold to confirm or release.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class InventoryHoldResponse extends InventoryUpdateResponse {
+    private Long holdId;
+    private String status;
+    private Instant expiresAt;
+}
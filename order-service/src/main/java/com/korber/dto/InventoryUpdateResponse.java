@@ -11,6 +11,9 @@ import java.util.List;
 @AllArgsConstructor
 public class InventoryUpdateResponse {
     private List<Long> reservedBatchIds;
+    private String productName;
+    /** Stock left for the product after this reservation */
+    private Integer remainingQuantity;
     private String message;
 }
 
@@ -0,0 +1,126 @@
+package com.korber.hold;
+
+import com.korber.dto.InventoryHoldResponse;
+import com.korber.model.Order;
+import com.korber.model.OrderStatus;
+import com.korber.outbox.ReservationReply;
+import com.korber.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settles orders left PENDING because the confirm of their hold had an unknown outcome. Each is confirmed
+ * again: Inventory Service answers a hold already confirmed with success, so the order becomes PLACED,
+ * and a hold released or expired with 4xx, so the order becomes REJECTED. A confirm that fails again
+ * leaves the order for the next pass.
+ *
+ * Only orders older than {@code order.inventory.reconcile-after-ms} are looked at. Keep it above the
+ * hold TTL of Inventory Service, so that holds never confirmed have expired by then and all holds of a
+ * bulk order settle the same way.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "order.inventory.holds", havingValue = "true", matchIfMissing = true)
+public class PendingOrderReconciler {
+    private final OrderRepository orderRepository;
+    private final RestTemplate restTemplate;
+    private final String inventoryServiceUrl;
+    private final long intervalMs;
+    private final long reconcileAfterMs;
+    private final int batchSize;
+    private final ScheduledExecutorService reconciler;
+
+    public PendingOrderReconciler(OrderRepository orderRepository,
+                                  RestTemplate restTemplate,
+                                  @Value("${inventory.service.url}") String inventoryServiceUrl,
+                                  @Value("${order.inventory.reconcile-interval-ms:30000}") long intervalMs,
+                                  @Value("${order.inventory.reconcile-after-ms:60000}") long reconcileAfterMs,
+                                  @Value("${order.inventory.reconcile-batch-size:100}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.restTemplate = restTemplate;
+        this.inventoryServiceUrl = inventoryServiceUrl;
+        this.intervalMs = intervalMs;
+        this.reconcileAfterMs = reconcileAfterMs;
+        this.batchSize = batchSize;
+        this.reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pending-order-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        reconciler.scheduleWithFixedDelay(this::reconcileAll, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        reconciler.shutdownNow();
+    }
+
+    private void reconcileAll() {
+        try {
+            int settled;
+            do {
+                settled = reconcile();
+            } while (settled == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Pending order reconciliation failed", e);
+        }
+    }
+
+    /**
+     * Confirms the holds of up to one batch of stale PENDING orders and records the outcomes.
+     * @return Number of orders moved to PLACED or REJECTED
+     */
+    public int reconcile() {
+        List<Order> pending = orderRepository.findByStatusAndHoldIdNotNullAndCreatedAtBeforeOrderByOrderId(
+                OrderStatus.PENDING, Instant.now().minusMillis(reconcileAfterMs), Limit.of(batchSize));
+        List<ReservationReply> replies = new ArrayList<>(pending.size());
+        for (Order order : pending) {
+            OrderStatus outcome = confirm(order);
+            if (outcome != null) {
+                replies.add(new ReservationReply(null, order.getOrderId(), outcome, null));
+            }
+        }
+        if (!replies.isEmpty()) {
+            orderRepository.resolvePending(replies);
+            log.info("Reconciled {} PENDING orders", replies.size());
+        }
+        return replies.size();
+    }
+
+    /**
+     * @return PLACED or REJECTED, or null when the outcome is still unknown
+     */
+    private OrderStatus confirm(Order order) {
+        try {
+            restTemplate.postForEntity(inventoryServiceUrl + "/inventory/hold/" + order.getHoldId() + "/confirm",
+                    null, InventoryHoldResponse.class);
+            return OrderStatus.PLACED;
+        } catch (HttpClientErrorException e) {
+            // Released, expired or unknown to Inventory Service: the stock is not set aside for this order
+            return OrderStatus.REJECTED;
+        } catch (RestClientException e) {
+            log.warn("Confirm of inventory hold {} for order {} failed again, order left PENDING",
+                    order.getHoldId(), order.getOrderId(), e);
+            return null;
+        }
+    }
+}
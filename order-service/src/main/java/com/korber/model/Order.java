@@ -6,6 +6,7 @@ import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
@@ -15,15 +16,20 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @ToString
 public class Order {
+    public static final String ID_SEQUENCE = "order_id_seq";
+    /** Ids handed out per sequence call; must match INCREMENT BY of order_id_seq. */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "order_id")
     private Long orderId;
 
     @Column(name = "product_id", nullable = false)
     private Long productId;
 
-    @Column(name = "product_name", nullable = false)
+    @Column(name = "product_name")
     private String productName;
 
     @Column(name = "quantity", nullable = false)
@@ -35,5 +41,12 @@ public class Order {
 
     @Column(name = "order_date", nullable = false)
     private LocalDate orderDate;
+
+    /** Inventory hold confirmed for this order; null when the stock was reserved without a hold */
+    @Column(name = "hold_id")
+    private Long holdId;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
 }
 
@@ -1,8 +1,11 @@
 package com.korber.model;
 
 public enum OrderStatus {
+    /** Accepted; the inventory reservation has not been answered yet */
+    PENDING,
     PLACED,
+    /** Inventory Service could not reserve the stock */
+    REJECTED,
     SHIPPED,
     DELIVERED
 }
-
@@ -0,0 +1,10 @@
+package com.korber.model;
+
+public enum OutboxStatus {
+    /** Waiting for the relay */
+    NEW,
+    /** Handed to the reservation queue; reset to NEW if it is lost or its publish lease runs out */
+    PUBLISHED,
+    /** Not delivered within order.outbox.max-attempts; left for an operator, its order stays PENDING */
+    FAILED
+}
@@ -0,0 +1,188 @@
+package com.korber.outbox;
+
+import com.korber.model.OutboxMessage;
+import com.korber.model.OutboxStatus;
+import com.korber.repository.OrderRepository;
+import com.korber.repository.OutboxMessageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves committed outbox messages onto the {@link ReservationQueue} in batches, and applies the
+ * consumers' replies to orders and outbox in one transaction per batch. Delivery is at-least-once:
+ * a message is only deleted together with the order status change its reply caused.
+ *
+ * A failed delivery is retried after an exponential backoff, up to a number of attempts after which
+ * the message is marked FAILED. A published message whose outcome is never recorded, for instance
+ * because recording it failed, returns to the relay when its publish lease runs out.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "order.reservation", havingValue = "outbox")
+public class OutboxRelay {
+    private final OutboxMessageRepository outboxRepository;
+    private final OrderRepository orderRepository;
+    private final ReservationQueue queue;
+    private final TransactionTemplate transactionTemplate;
+    private final long pollIntervalMs;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final long maxBackoffMs;
+    private final long publishLeaseMs;
+    private final ScheduledExecutorService relay;
+
+    public OutboxRelay(OutboxMessageRepository outboxRepository,
+                       OrderRepository orderRepository,
+                       ReservationQueue queue,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${order.outbox.poll-interval-ms:100}") long pollIntervalMs,
+                       @Value("${order.outbox.batch-size:100}") int batchSize,
+                       @Value("${order.outbox.max-attempts:10}") int maxAttempts,
+                       @Value("${order.outbox.backoff-ms:1000}") long backoffMs,
+                       @Value("${order.outbox.max-backoff-ms:60000}") long maxBackoffMs,
+                       @Value("${order.outbox.publish-lease-ms:300000}") long publishLeaseMs) {
+        this.outboxRepository = outboxRepository;
+        this.orderRepository = orderRepository;
+        this.queue = queue;
+        this.transactionTemplate = transactionTemplate;
+        this.pollIntervalMs = pollIntervalMs;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.publishLeaseMs = publishLeaseMs;
+        this.relay = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Messages published before a restart were lost with the in-memory queue, so they are published again.
+     */
+    @PostConstruct
+    public void start() {
+        Integer republished = transactionTemplate.execute(status ->
+                outboxRepository.replaceStatus(OutboxStatus.PUBLISHED, OutboxStatus.NEW));
+        log.info("Outbox relay started, {} unanswered messages republished", republished);
+        relay.scheduleWithFixedDelay(this::relayPending, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        relay.scheduleWithFixedDelay(this::reclaimExpired, publishLeaseMs, publishLeaseMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        relay.shutdownNow();
+    }
+
+    private void relayPending() {
+        try {
+            while (publish() == batchSize) {
+                // A full batch means more may be waiting; keep going until the outbox or the queue runs dry
+            }
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay pass failed", e);
+        }
+    }
+
+    private void reclaimExpired() {
+        try {
+            Integer reclaimed = transactionTemplate.execute(status -> outboxRepository.reclaimExpired(Instant.now()));
+            if (reclaimed != null && reclaimed > 0) {
+                log.warn("{} outbox messages were published but never answered, relaying them again", reclaimed);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Outbox lease reclaim failed", e);
+        }
+    }
+
+    /**
+     * Marks up to one batch of due messages as published and queues them once that has committed.
+     * @return Number of messages queued
+     */
+    public int publish() {
+        int capacity = Math.min(batchSize, queue.remainingCapacity());
+        if (capacity == 0) {
+            return 0;
+        }
+        List<ReservationCommand> commands = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<OutboxMessage> messages = outboxRepository.findDue(now, Limit.of(capacity));
+            if (messages.isEmpty()) {
+                return List.<ReservationCommand>of();
+            }
+            List<Long> outboxIds = new ArrayList<>(messages.size());
+            List<ReservationCommand> batch = new ArrayList<>(messages.size());
+            for (OutboxMessage message : messages) {
+                outboxIds.add(message.getOutboxId());
+                batch.add(new ReservationCommand(message.getOutboxId(), message.getOrderId(),
+                        message.getProductId(), message.getQuantity()));
+            }
+            outboxRepository.markPublished(outboxIds, now.plusMillis(publishLeaseMs));
+            return batch;
+        });
+
+        // This thread is the only producer and capacity was checked above, so every offer succeeds
+        for (ReservationCommand command : commands) {
+            queue.offer(command);
+        }
+        return commands.size();
+    }
+
+    /**
+     * Applies answered commands to their orders and drops their messages; unanswered ones go back to the relay.
+     * @param replies Commands Inventory Service answered, accepted or rejected
+     * @param failedOutboxIds Commands that could not be delivered
+     */
+    public void complete(List<ReservationReply> replies, List<Long> failedOutboxIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!replies.isEmpty()) {
+                orderRepository.resolvePending(replies);
+                outboxRepository.deleteAllByIdInBatch(replies.stream().map(ReservationReply::outboxId).toList());
+            }
+            if (!failedOutboxIds.isEmpty()) {
+                retryLater(failedOutboxIds);
+            }
+        });
+    }
+
+    /**
+     * Counts a failed delivery: the message is relayed again after a backoff that doubles with every attempt,
+     * or marked FAILED once it has used up its attempts.
+     */
+    private void retryLater(Collection<Long> outboxIds) {
+        Instant now = Instant.now();
+        for (OutboxMessage message : outboxRepository.findAllById(outboxIds)) {
+            int attempts = message.getAttempts() + 1;
+            message.setAttempts(attempts);
+            if (attempts >= maxAttempts) {
+                message.setStatus(OutboxStatus.FAILED);
+                message.setNextAttemptAt(null);
+                log.error("Reservation for order {} not delivered after {} attempts, outbox message {} marked FAILED",
+                        message.getOrderId(), attempts, message.getOutboxId());
+            } else {
+                message.setStatus(OutboxStatus.NEW);
+                message.setNextAttemptAt(now.plusMillis(backoffMs(attempts)));
+            }
+        }
+    }
+
+    private long backoffMs(int attempts) {
+        return Math.min(backoffMs << Math.min(attempts - 1, 20), maxBackoffMs);
+    }
+}
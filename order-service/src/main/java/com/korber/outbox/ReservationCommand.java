@@ -0,0 +1,7 @@
+package com.korber.outbox;
+
+/**
+ * Request to reserve stock for one pending order, as carried by {@link ReservationQueue}.
+ */
+public record ReservationCommand(Long outboxId, Long orderId, Long productId, Integer quantity) {
+}
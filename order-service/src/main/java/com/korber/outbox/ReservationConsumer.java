@@ -0,0 +1,145 @@
+package com.korber.outbox;
+
+import com.korber.cache.InventoryAvailabilityCache;
+import com.korber.dto.InventoryUpdateRequest;
+import com.korber.dto.InventoryUpdateResponse;
+import com.korber.idempotency.IdempotencyStore;
+import com.korber.model.OrderStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Takes reservation commands off the {@link ReservationQueue}, sends each to Inventory Service and
+ * hands the batch's outcomes back to the {@link OutboxRelay}. A 4xx answer rejects the order; any
+ * other failure leaves the command to be published again.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "order.reservation", havingValue = "outbox")
+public class ReservationConsumer {
+    private final ReservationQueue queue;
+    private final OutboxRelay relay;
+    private final RestTemplate restTemplate;
+    private final InventoryAvailabilityCache availabilityCache;
+    private final String inventoryServiceUrl;
+    private final int consumerCount;
+    private final int batchSize;
+    private final long pollTimeoutMs;
+    private final ExecutorService consumers;
+
+    public ReservationConsumer(ReservationQueue queue,
+                               OutboxRelay relay,
+                               RestTemplate restTemplate,
+                               InventoryAvailabilityCache availabilityCache,
+                               @Value("${inventory.service.url}") String inventoryServiceUrl,
+                               @Value("${order.outbox.consumers:4}") int consumerCount,
+                               @Value("${order.outbox.batch-size:100}") int batchSize,
+                               @Value("${order.outbox.poll-interval-ms:100}") long pollTimeoutMs) {
+        this.queue = queue;
+        this.relay = relay;
+        this.restTemplate = restTemplate;
+        this.availabilityCache = availabilityCache;
+        this.inventoryServiceUrl = inventoryServiceUrl;
+        this.consumerCount = consumerCount;
+        this.batchSize = batchSize;
+        this.pollTimeoutMs = pollTimeoutMs;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.consumers = Executors.newFixedThreadPool(consumerCount, runnable -> {
+            Thread thread = new Thread(runnable, "reservation-consumer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < consumerCount; i++) {
+            consumers.execute(this::consume);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        consumers.shutdownNow();
+    }
+
+    private void consume() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<ReservationCommand> commands = queue.take(batchSize, pollTimeoutMs);
+                if (!commands.isEmpty()) {
+                    deliver(commands);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // The batch stays PUBLISHED until its publish lease runs out and the relay takes it back
+                log.warn("Failed to record reservation replies", e);
+            }
+        }
+    }
+
+    /**
+     * Reserves stock for each command and records the outcomes in one transaction.
+     */
+    public void deliver(List<ReservationCommand> commands) {
+        List<ReservationReply> replies = new ArrayList<>(commands.size());
+        List<Long> failedOutboxIds = new ArrayList<>();
+
+        for (ReservationCommand command : commands) {
+            try {
+                ResponseEntity<InventoryUpdateResponse> response = restTemplate.postForEntity(
+                        inventoryServiceUrl + "/inventory/update", reservationRequest(command),
+                        InventoryUpdateResponse.class);
+                InventoryUpdateResponse reservation = response.getBody();
+                if (!response.getStatusCode().is2xxSuccessful() || reservation == null) {
+                    failedOutboxIds.add(command.outboxId());
+                    continue;
+                }
+                availabilityCache.record(command.productId(), reservation);
+                replies.add(new ReservationReply(command.outboxId(), command.orderId(),
+                        OrderStatus.PLACED, reservation.getProductName()));
+            } catch (HttpClientErrorException e) {
+                log.info("Reservation for order {} rejected: {}", command.orderId(), e.getStatusCode());
+                replies.add(new ReservationReply(command.outboxId(), command.orderId(), OrderStatus.REJECTED, null));
+            } catch (RestClientException e) {
+                log.warn("Reservation for order {} not delivered, will retry", command.orderId(), e);
+                failedOutboxIds.add(command.outboxId());
+            }
+        }
+
+        try {
+            relay.complete(replies, failedOutboxIds);
+        } catch (RuntimeException e) {
+            // Retried as a failed delivery; answered commands replay their reservation under the same key
+            log.warn("Failed to record reservation replies, retrying the batch", e);
+            relay.complete(List.of(), commands.stream().map(ReservationCommand::outboxId).toList());
+        }
+    }
+
+    /**
+     * Keyed by outbox message, so a command delivered again after a lost reply replays the original
+     * reservation instead of taking the stock twice.
+     */
+    private HttpEntity<InventoryUpdateRequest> reservationRequest(ReservationCommand command) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(IdempotencyStore.HEADER, "order-outbox-" + command.outboxId());
+        return new HttpEntity<>(new InventoryUpdateRequest(command.productId(), command.quantity()), headers);
+    }
+}
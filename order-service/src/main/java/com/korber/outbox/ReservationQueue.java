@@ -0,0 +1,49 @@
+package com.korber.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded, bounded stand-in for a message broker between the outbox relay and the reservation
+ * consumers. Its contents are lost on restart; the outbox rows they came from are published again.
+ */
+@Component
+@ConditionalOnProperty(name = "order.reservation", havingValue = "outbox")
+public class ReservationQueue {
+    private final BlockingQueue<ReservationCommand> commands;
+
+    public ReservationQueue(@Value("${order.outbox.queue-capacity:1000}") int capacity) {
+        this.commands = new LinkedBlockingQueue<>(capacity);
+    }
+
+    public boolean offer(ReservationCommand command) {
+        return commands.offer(command);
+    }
+
+    public int remainingCapacity() {
+        return commands.remainingCapacity();
+    }
+
+    /**
+     * Waits up to {@code timeoutMs} for a command, then takes whatever else is already queued.
+     * @param max Largest number of commands to return
+     * @return Commands in publication order; empty if none arrived in time
+     */
+    public List<ReservationCommand> take(int max, long timeoutMs) throws InterruptedException {
+        ReservationCommand first = commands.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return List.of();
+        }
+        List<ReservationCommand> batch = new ArrayList<>(max);
+        batch.add(first);
+        commands.drainTo(batch, max - 1);
+        return batch;
+    }
+}
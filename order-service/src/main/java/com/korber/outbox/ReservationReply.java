@@ -0,0 +1,9 @@
+package com.korber.outbox;
+
+import com.korber.model.OrderStatus;
+
+/**
+ * Outcome of a reservation command: the order becomes PLACED or REJECTED.
+ */
+public record ReservationReply(Long outboxId, Long orderId, OrderStatus status, String productName) {
+}
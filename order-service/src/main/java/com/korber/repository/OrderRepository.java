@@ -1,10 +1,18 @@
 package com.korber.repository;
 
 import com.korber.model.Order;
+import com.korber.model.OrderStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
+
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
+    /**
+     * Orders placed with an inventory hold that are still in {@code status}, oldest first.
+     */
+    List<Order> findByStatusAndHoldIdNotNullAndCreatedAtBeforeOrderByOrderId(OrderStatus status, Instant before, Limit limit);
 }
-
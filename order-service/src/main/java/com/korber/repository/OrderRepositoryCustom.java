@@ -0,0 +1,23 @@
+package com.korber.repository;
+
+import com.korber.model.Order;
+import com.korber.outbox.ReservationReply;
+
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+    /**
+     * Inserts all orders as a single JDBC batch, with ids taken from the order id sequence a block at a time.
+     * @param orders New orders without an id
+     * @return The same orders, with ids set
+     */
+    List<Order> insertAll(List<Order> orders);
+
+    /**
+     * Moves pending orders to the status of their reservation reply in a single JDBC batch. Orders
+     * no longer pending are left alone, so a redelivered reply cannot overwrite a later status.
+     * @param replies Reservation outcomes
+     * @return Affected-row count per reply, in list order
+     */
+    int[] resolvePending(List<ReservationReply> replies);
+}
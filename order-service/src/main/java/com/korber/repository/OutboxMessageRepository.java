@@ -0,0 +1,44 @@
+package com.korber.repository;
+
+import com.korber.model.OutboxMessage;
+import com.korber.model.OutboxStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+    /**
+     * New messages whose retry backoff, if any, has passed, oldest first.
+     */
+    @Query("SELECT m FROM OutboxMessage m WHERE m.status = com.korber.model.OutboxStatus.NEW "
+            + "AND (m.nextAttemptAt IS NULL OR m.nextAttemptAt <= :now) ORDER BY m.outboxId")
+    List<OutboxMessage> findDue(@Param("now") Instant now, Limit limit);
+
+    /**
+     * Marks messages as handed to the queue until {@code leaseExpiry}, after which {@link #reclaimExpired} takes them back.
+     */
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.status = com.korber.model.OutboxStatus.PUBLISHED, m.nextAttemptAt = :leaseExpiry "
+            + "WHERE m.outboxId IN :outboxIds")
+    int markPublished(@Param("outboxIds") Collection<Long> outboxIds, @Param("leaseExpiry") Instant leaseExpiry);
+
+    /**
+     * Returns published messages whose outcome was never recorded to the relay.
+     */
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.status = com.korber.model.OutboxStatus.NEW "
+            + "WHERE m.status = com.korber.model.OutboxStatus.PUBLISHED AND m.nextAttemptAt <= :now")
+    int reclaimExpired(@Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.status = :to WHERE m.status = :from")
+    int replaceStatus(@Param("from") OutboxStatus from, @Param("to") OutboxStatus to);
+}
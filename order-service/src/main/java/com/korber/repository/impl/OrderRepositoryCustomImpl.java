@@ -0,0 +1,63 @@
+package com.korber.repository.impl;
+
+import com.korber.model.Order;
+import com.korber.outbox.ReservationReply;
+import com.korber.repository.OrderRepositoryCustom;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+    private static final String INSERT_SQL =
+            "INSERT INTO orders (order_id, product_id, product_name, quantity, status, order_date, hold_id, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String NEXT_ID_BLOCK_SQL = "SELECT NEXT VALUE FOR " + Order.ID_SEQUENCE;
+    private static final String RESOLVE_PENDING_SQL =
+            "UPDATE orders SET status = ?, product_name = COALESCE(?, product_name) WHERE order_id = ? AND status = 'PENDING'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Order> insertAll(List<Order> orders) {
+        assignIds(orders);
+        List<Object[]> batchArgs = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            batchArgs.add(new Object[]{order.getOrderId(), order.getProductId(), order.getProductName(),
+                    order.getQuantity(), order.getStatus().name(), Date.valueOf(order.getOrderDate()), order.getHoldId(),
+                    order.getCreatedAt() == null ? null : Timestamp.from(order.getCreatedAt())});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs);
+        return orders;
+    }
+
+    /**
+     * Takes ids the same way Hibernate's pooled optimizer does for {@link Order}: each sequence value is
+     * the last id of a block of {@link Order#ID_ALLOCATION_SIZE}, so one call covers a block of orders
+     * and never overlaps ids handed out by the entity manager.
+     */
+    private void assignIds(List<Order> orders) {
+        long next = 0;
+        long last = -1;
+        for (Order order : orders) {
+            if (next > last) {
+                last = jdbcTemplate.queryForObject(NEXT_ID_BLOCK_SQL, Long.class);
+                next = last - Order.ID_ALLOCATION_SIZE + 1;
+            }
+            order.setOrderId(next++);
+        }
+    }
+
+    @Override
+    public int[] resolvePending(List<ReservationReply> replies) {
+        List<Object[]> batchArgs = new ArrayList<>(replies.size());
+        for (ReservationReply reply : replies) {
+            batchArgs.add(new Object[]{reply.status().name(), reply.productName(), reply.orderId()});
+        }
+        return jdbcTemplate.batchUpdate(RESOLVE_PENDING_SQL, batchArgs);
+    }
+}
@@ -1,8 +1,32 @@
 package com.korber.service;
 
+import com.korber.dto.BulkOrderRequest;
+import com.korber.dto.BulkOrderResponse;
 import com.korber.dto.OrderRequest;
 import com.korber.dto.OrderResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface OrderService {
      OrderResponse placeOrder(OrderRequest request);
+     BulkOrderResponse placeBulkOrder(BulkOrderRequest request);
+
+     /**
+      * Completes once the order is placed; blocking implementations complete before returning.
+      */
+     default CompletableFuture<OrderResponse> placeOrderAsync(OrderRequest request) {
+          try {
+               return CompletableFuture.completedFuture(placeOrder(request));
+          } catch (RuntimeException e) {
+               return CompletableFuture.failedFuture(e);
+          }
+     }
+
+     default CompletableFuture<BulkOrderResponse> placeBulkOrderAsync(BulkOrderRequest request) {
+          try {
+               return CompletableFuture.completedFuture(placeBulkOrder(request));
+          } catch (RuntimeException e) {
+               return CompletableFuture.failedFuture(e);
+          }
+     }
 }
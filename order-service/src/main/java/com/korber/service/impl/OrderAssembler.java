@@ -0,0 +1,65 @@
+package com.korber.service.impl;
+
+import com.korber.dto.InventoryUpdateResponse;
+import com.korber.dto.OrderRequest;
+import com.korber.dto.OrderResponse;
+import com.korber.model.Order;
+import com.korber.model.OrderStatus;
+import org.springframework.http.HttpStatusCode;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Builds orders and responses shared by the blocking and reactive order pipelines.
+ */
+final class OrderAssembler {
+
+    private OrderAssembler() {
+    }
+
+    static Order newOrder(OrderRequest request, String productName) {
+        Order order = new Order();
+        order.setOrderId(null); // Ensure ID is null for new entity
+        order.setProductId(request.getProductId());
+        order.setProductName(productName);
+        order.setQuantity(request.getQuantity());
+        order.setStatus(OrderStatus.PLACED);
+        order.setOrderDate(LocalDate.now());
+        order.setCreatedAt(Instant.now());
+        return order;
+    }
+
+    static OrderResponse toResponse(Order order, List<Long> reservedBatchIds) {
+        return toResponse(order, reservedBatchIds, "Order placed. Inventory reserved.");
+    }
+
+    static OrderResponse toResponse(Order order, List<Long> reservedBatchIds, String message) {
+        OrderResponse response = new OrderResponse();
+        response.setOrderId(order.getOrderId());
+        response.setProductId(order.getProductId());
+        response.setProductName(order.getProductName());
+        response.setQuantity(order.getQuantity());
+        response.setStatus(order.getStatus().name());
+        response.setReservedFromBatchIds(reservedBatchIds);
+        response.setMessage(message);
+        return response;
+    }
+
+    /**
+     * Inventory Service answers a rejected reservation with 4xx and the reason in the body's message.
+     */
+    static String rejectionMessage(Supplier<InventoryUpdateResponse> body, HttpStatusCode status) {
+        try {
+            InventoryUpdateResponse response = body.get();
+            if (response != null && response.getMessage() != null) {
+                return response.getMessage();
+            }
+        } catch (RuntimeException ignored) {
+            // Fall back to the status when the body is missing or not a reservation response
+        }
+        return "Inventory rejected reservation: " + status;
+    }
+}
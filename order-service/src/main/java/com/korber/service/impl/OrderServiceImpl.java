@@ -1,99 +1,266 @@
 package com.korber.service.impl;
 
+import com.korber.cache.InventoryAvailabilityCache;
 import com.korber.dto.*;
+import com.korber.metrics.OrderMetrics;
 import com.korber.model.Order;
 import com.korber.model.OrderStatus;
+import com.korber.outbox.ReservationReply;
 import com.korber.repository.OrderRepository;
 import com.korber.service.OrderService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
+@ConditionalOnProperty(name = "order.pipeline", havingValue = "blocking", matchIfMissing = true)
+@ConditionalOnProperty(name = "order.reservation", havingValue = "inline", matchIfMissing = true)
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
     private final OrderRepository orderRepository;
     private final RestTemplate restTemplate;
+    private final InventoryAvailabilityCache availabilityCache;
+    private final OrderMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${inventory.service.url}")
     private String inventoryServiceUrl;
 
-    @Transactional
+    @Value("${order.inventory.holds:true}")
+    private boolean inventoryHolds;
+
+    // Not transactional: the hold path must commit the order before it confirms the hold
     public OrderResponse placeOrder(OrderRequest request) {
-        // Check inventory availability
-        InventoryResponse inventoryResponse = getInventory(request.getProductId());
-        
-        if (inventoryResponse == null) {
-            throw new IllegalArgumentException("Product not found: " + request.getProductId());
+        availabilityCache.checkAvailable(request.getProductId(), request.getQuantity());
+
+        // Reserve inventory in a single call; Inventory Service checks availability, selects batches
+        // and reports the product name, so no separate lookup is needed
+        InventoryUpdateRequest updateRequest = new InventoryUpdateRequest();
+        updateRequest.setProductId(request.getProductId());
+        updateRequest.setQuantity(request.getQuantity());
+
+        if (inventoryHolds) {
+            return placeOrderWithHold(request, updateRequest);
         }
 
-        // Calculate total available quantity
-        int totalAvailable = inventoryResponse.getBatches().stream()
-                .mapToInt(InventoryBatchDto::getQuantity)
-                .sum();
+        long started = System.nanoTime();
+        InventoryUpdateResponse reservation = post("/inventory/update", updateRequest, InventoryUpdateResponse.class);
+        long reserved = System.nanoTime();
+        metrics.recordReserve(reserved - started);
+        availabilityCache.record(request.getProductId(), reservation);
+
+        // Create order
+        Order savedOrder = orderRepository.save(OrderAssembler.newOrder(request, reservation.getProductName()));
+        metrics.recordInsert(System.nanoTime() - reserved);
+
+        return OrderAssembler.toResponse(savedOrder, reservation.getReservedBatchIds());
+    }
 
-        if (totalAvailable < request.getQuantity()) {
-            throw new IllegalArgumentException("Insufficient inventory. Required: " + request.getQuantity() + ", Available: " + totalAvailable);
+    // Not transactional: no database connection is held during the inventory call, and the hold path must
+    // commit the orders before it confirms their holds
+    public BulkOrderResponse placeBulkOrder(BulkOrderRequest request) {
+        List<OrderRequest> lines = request.getLines();
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("Bulk order has no lines");
         }
+        availabilityCache.checkAvailable(lines);
 
-        // Update inventory (Inventory Service will handle batch selection)
-        InventoryUpdateRequest updateRequest = new InventoryUpdateRequest();
-        updateRequest.setProductId(request.getProductId());
-        updateRequest.setQuantity(request.getQuantity());
+        // Reserve every line in one call; Inventory Service rejects the whole request if any line cannot be fulfilled
+        InventoryBulkUpdateRequest updateRequest = new InventoryBulkUpdateRequest(lines.stream()
+                .map(line -> new InventoryUpdateRequest(line.getProductId(), line.getQuantity()))
+                .collect(Collectors.toList()));
+
+        if (inventoryHolds) {
+            return placeBulkOrderWithHolds(lines, updateRequest);
+        }
+
+        List<InventoryUpdateResponse> reservations = reserveBulk(updateRequest);
+        List<Order> orders = newOrders(lines, reservations, OrderStatus.PLACED);
+        transactionTemplate.executeWithoutResult(status -> orderRepository.insertAll(orders));
+        return bulkResponse(orders, reservations);
+    }
 
-        ResponseEntity<InventoryUpdateResponse> updateResponse = restTemplate.postForEntity(
-                inventoryServiceUrl + "/inventory/update",
-                updateRequest,
-                InventoryUpdateResponse.class
-        );
+    /**
+     * Bulk counterpart of {@link #placeOrderWithHold}: holds every line in one call, commits the orders as
+     * PENDING, then confirms all holds in one call and marks the orders PLACED. When the insert fails the
+     * holds are released in one call; if that release is lost as well, the holds expire.
+     */
+    private BulkOrderResponse placeBulkOrderWithHolds(List<OrderRequest> lines, InventoryBulkUpdateRequest holdRequest) {
+        long started = System.nanoTime();
+        List<InventoryHoldResponse> holds = post("/inventory/hold/bulk", holdRequest, InventoryBulkHoldResponse.class).getHolds();
+        long held = System.nanoTime();
+        metrics.recordReserve(held - started);
+        List<Long> holdIds = holds.stream().map(InventoryHoldResponse::getHoldId).toList();
 
-        if (!updateResponse.getStatusCode().is2xxSuccessful() || updateResponse.getBody() == null) {
-            throw new RuntimeException("Failed to update inventory: " + updateResponse.getStatusCode());
+        List<Order> orders = newOrders(lines, holds, OrderStatus.PENDING);
+        for (int i = 0; i < orders.size(); i++) {
+            orders.get(i).setHoldId(holdIds.get(i));
         }
+        try {
+            transactionTemplate.executeWithoutResult(status -> orderRepository.insertAll(orders));
+        } catch (RuntimeException e) {
+            releaseHolds(holdIds);
+            throw e;
+        }
+        long inserted = System.nanoTime();
+        metrics.recordInsert(inserted - held);
 
-        List<Long> reservedBatchIds = updateResponse.getBody().getReservedBatchIds();
+        confirmHolds(orders, holdIds);
+        metrics.recordConfirm(System.nanoTime() - inserted);
+        return bulkResponse(orders, holds);
+    }
 
-        // Create order
-        Order order = new Order();
-        order.setOrderId(null); // Ensure ID is null for new entity
-        order.setProductId(request.getProductId());
-        order.setProductName(inventoryResponse.getProductName());
-        order.setQuantity(request.getQuantity());
-        order.setStatus(OrderStatus.PLACED);
-        order.setOrderDate(LocalDate.now());
-
-        Order savedOrder = orderRepository.save(order);
-
-        // Build response
-        OrderResponse response = new OrderResponse();
-        response.setOrderId(savedOrder.getOrderId());
-        response.setProductId(savedOrder.getProductId());
-        response.setProductName(savedOrder.getProductName());
-        response.setQuantity(savedOrder.getQuantity());
-        response.setStatus(savedOrder.getStatus().name());
-        response.setReservedFromBatchIds(reservedBatchIds);
-        response.setMessage("Order placed. Inventory reserved.");
-
-        return response;
+    private List<Order> newOrders(List<OrderRequest> lines, List<? extends InventoryUpdateResponse> reservations,
+                                  OrderStatus status) {
+        List<Order> orders = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            availabilityCache.record(lines.get(i).getProductId(), reservations.get(i));
+            Order order = OrderAssembler.newOrder(lines.get(i), reservations.get(i).getProductName());
+            order.setStatus(status);
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    private BulkOrderResponse bulkResponse(List<Order> orders, List<? extends InventoryUpdateResponse> reservations) {
+        List<OrderResponse> responses = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            responses.add(OrderAssembler.toResponse(orders.get(i), reservations.get(i).getReservedBatchIds()));
+        }
+        return new BulkOrderResponse(responses, "Bulk order placed. Inventory reserved.");
     }
 
-    private InventoryResponse getInventory(Long productId) {
+    /**
+     * Takes a time-limited hold, commits the order as PENDING, then confirms the hold and marks the order
+     * PLACED. Confirming only after the commit means a confirmed hold always has its order. When the insert
+     * fails the hold is released; if the release is lost as well, the hold expires.
+     */
+    private OrderResponse placeOrderWithHold(OrderRequest request, InventoryUpdateRequest holdRequest) {
+        long started = System.nanoTime();
+        InventoryHoldResponse hold = post("/inventory/hold", holdRequest, InventoryHoldResponse.class);
+        long held = System.nanoTime();
+        metrics.recordReserve(held - started);
+        availabilityCache.record(request.getProductId(), hold);
+
+        Order savedOrder;
         try {
-            ResponseEntity<InventoryResponse> response = restTemplate.getForEntity(
-                    inventoryServiceUrl + "/inventory/" + productId,
-                    InventoryResponse.class
-            );
-            return response.getBody();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch inventory: " + e.getMessage(), e);
+            Order order = OrderAssembler.newOrder(request, hold.getProductName());
+            order.setStatus(OrderStatus.PENDING);
+            order.setHoldId(hold.getHoldId());
+            savedOrder = orderRepository.saveAndFlush(order);
+        } catch (RuntimeException e) {
+            releaseHold(hold.getHoldId());
+            throw e;
         }
+        long inserted = System.nanoTime();
+        metrics.recordInsert(inserted - held);
+
+        confirmHold(savedOrder, hold.getHoldId());
+        metrics.recordConfirm(System.nanoTime() - inserted);
+        return OrderAssembler.toResponse(savedOrder, hold.getReservedBatchIds());
     }
 
-}
+    /**
+     * Confirms the hold of a committed order. Inventory Service answers a repeated confirm with success, so
+     * a confirm whose response was lost can be retried.
+     */
+    private void confirmHold(Order order, Long holdId) {
+        try {
+            restTemplate.postForEntity(inventoryServiceUrl + "/inventory/hold/" + holdId + "/confirm",
+                    null, InventoryHoldResponse.class);
+        } catch (HttpClientErrorException e) {
+            // Released or expired: its stock is back on the shelf, so the order cannot be filled
+            resolve(order, OrderStatus.REJECTED);
+            throw new RuntimeException("Inventory hold " + holdId + " expired before the order was confirmed", e);
+        } catch (RestClientException e) {
+            // The confirm may or may not have landed; the order stays PENDING until PendingOrderReconciler settles it
+            log.error("Confirm of inventory hold {} for order {} failed, order left PENDING for the reconciler", holdId, order.getOrderId(), e);
+            throw e;
+        }
+        resolve(order, OrderStatus.PLACED);
+    }
+
+    /**
+     * Confirms the holds of committed orders, all or none, like {@link #confirmHold}.
+     */
+    private void confirmHolds(List<Order> orders, List<Long> holdIds) {
+        try {
+            restTemplate.postForEntity(inventoryServiceUrl + "/inventory/hold/bulk/confirm",
+                    new InventoryHoldIdsRequest(holdIds), InventoryBulkHoldResponse.class);
+        } catch (HttpClientErrorException e) {
+            // A hold was released or expired and none was confirmed: put back the rest, the orders cannot all be filled
+            releaseHolds(holdIds);
+            resolve(orders, OrderStatus.REJECTED);
+            throw new RuntimeException("Inventory holds " + holdIds + " expired before the bulk order was confirmed", e);
+        } catch (RestClientException e) {
+            log.error("Confirm of inventory holds {} failed, {} orders left PENDING for the reconciler", holdIds, orders.size(), e);
+            throw e;
+        }
+        resolve(orders, OrderStatus.PLACED);
+    }
+
+    private void resolve(Order order, OrderStatus status) {
+        resolve(List.of(order), status);
+    }
+
+    private void resolve(List<Order> orders, OrderStatus status) {
+        List<ReservationReply> replies = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            replies.add(new ReservationReply(null, order.getOrderId(), status, null));
+        }
+        orderRepository.resolvePending(replies);
+        orders.forEach(order -> order.setStatus(status));
+    }
+
+    private void releaseHold(Long holdId) {
+        try {
+            restTemplate.postForEntity(inventoryServiceUrl + "/inventory/hold/" + holdId + "/release",
+                    null, InventoryHoldResponse.class);
+        } catch (RestClientException e) {
+            log.warn("Failed to release inventory hold {}, leaving it to expire", holdId, e);
+        }
+    }
+
+    /**
+     * Holds no longer held are skipped by Inventory Service, so the release is safe to repeat.
+     */
+    private void releaseHolds(List<Long> holdIds) {
+        try {
+            restTemplate.postForEntity(inventoryServiceUrl + "/inventory/hold/bulk/release",
+                    new InventoryHoldIdsRequest(holdIds), InventoryBulkHoldResponse.class);
+        } catch (RestClientException e) {
+            log.warn("Failed to release inventory holds {}, leaving them to expire", holdIds, e);
+        }
+    }
+
+    private List<InventoryUpdateResponse> reserveBulk(InventoryBulkUpdateRequest updateRequest) {
+        return post("/inventory/update/bulk", updateRequest, InventoryBulkUpdateResponse.class).getResults();
+    }
+
+    private <T> T post(String path, Object body, Class<T> responseType) {
+        ResponseEntity<T> response;
+        try {
+            response = restTemplate.postForEntity(inventoryServiceUrl + path, body, responseType);
+        } catch (HttpClientErrorException e) {
+            throw new IllegalArgumentException(OrderAssembler.rejectionMessage(
+                    () -> e.getResponseBodyAs(InventoryUpdateResponse.class), e.getStatusCode()), e);
+        }
 
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new RuntimeException("Failed to update inventory: " + response.getStatusCode());
+        }
+        return response.getBody();
+    }
+}
@@ -0,0 +1,85 @@
+package com.korber.service.impl;
+
+import com.korber.cache.InventoryAvailabilityCache;
+import com.korber.dto.BulkOrderRequest;
+import com.korber.dto.BulkOrderResponse;
+import com.korber.dto.OrderRequest;
+import com.korber.dto.OrderResponse;
+import com.korber.model.Order;
+import com.korber.model.OrderStatus;
+import com.korber.model.OutboxMessage;
+import com.korber.model.OutboxStatus;
+import com.korber.repository.OrderRepository;
+import com.korber.repository.OutboxMessageRepository;
+import com.korber.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accepts orders without calling Inventory Service: each order is stored as PENDING together with
+ * an outbox message in one local transaction. The outbox relay reserves the stock afterwards and
+ * moves the order to PLACED or REJECTED.
+ */
+@Service
+@ConditionalOnProperty(name = "order.reservation", havingValue = "outbox")
+@RequiredArgsConstructor
+public class OutboxOrderServiceImpl implements OrderService {
+    private static final String ACCEPTED_MESSAGE = "Order accepted. Inventory reservation pending.";
+
+    private final OrderRepository orderRepository;
+    private final OutboxMessageRepository outboxRepository;
+    private final InventoryAvailabilityCache availabilityCache;
+
+    @Transactional
+    public OrderResponse placeOrder(OrderRequest request) {
+        availabilityCache.checkAvailable(request.getProductId(), request.getQuantity());
+
+        Order savedOrder = orderRepository.save(pendingOrder(request));
+        outboxRepository.save(reservationFor(savedOrder));
+
+        return OrderAssembler.toResponse(savedOrder, List.of(), ACCEPTED_MESSAGE);
+    }
+
+    @Transactional
+    public BulkOrderResponse placeBulkOrder(BulkOrderRequest request) {
+        List<OrderRequest> lines = request.getLines();
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("Bulk order has no lines");
+        }
+        availabilityCache.checkAvailable(lines);
+
+        // Each line gets its own reservation command, so lines are placed or rejected independently
+        List<Order> orders = new ArrayList<>(lines.size());
+        for (OrderRequest line : lines) {
+            orders.add(pendingOrder(line));
+        }
+        orderRepository.insertAll(orders);
+
+        List<OutboxMessage> messages = new ArrayList<>(orders.size());
+        List<OrderResponse> responses = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            messages.add(reservationFor(order));
+            responses.add(OrderAssembler.toResponse(order, List.of(), ACCEPTED_MESSAGE));
+        }
+        outboxRepository.saveAll(messages);
+
+        return new BulkOrderResponse(responses, "Bulk order accepted. Inventory reservation pending.");
+    }
+
+    private Order pendingOrder(OrderRequest request) {
+        // The product name is filled in from the reservation reply
+        Order order = OrderAssembler.newOrder(request, null);
+        order.setStatus(OrderStatus.PENDING);
+        return order;
+    }
+
+    private OutboxMessage reservationFor(Order order) {
+        return new OutboxMessage(null, order.getOrderId(), order.getProductId(), order.getQuantity(),
+                OutboxStatus.NEW, 0, null);
+    }
+}
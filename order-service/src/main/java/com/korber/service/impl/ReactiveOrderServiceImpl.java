@@ -0,0 +1,287 @@
+package com.korber.service.impl;
+
+import com.korber.cache.InventoryAvailabilityCache;
+import com.korber.dto.*;
+import com.korber.model.Order;
+import com.korber.model.OrderStatus;
+import com.korber.outbox.ReservationReply;
+import com.korber.repository.OrderRepository;
+import com.korber.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking order pipeline: the inventory reservation is awaited on the WebClient event loop
+ * and the order insert is handed to the persistence pool, so no thread is held while
+ * Inventory Service is slow.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "order.pipeline", havingValue = "reactive")
+@ConditionalOnProperty(name = "order.reservation", havingValue = "inline", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ReactiveOrderServiceImpl implements OrderService {
+    private final OrderRepository orderRepository;
+    private final WebClient inventoryWebClient;
+    private final ExecutorService orderPersistenceExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryAvailabilityCache availabilityCache;
+
+    @Value("${order.inventory.holds:true}")
+    private boolean inventoryHolds;
+
+    @Override
+    public OrderResponse placeOrder(OrderRequest request) {
+        return await(placeOrderAsync(request));
+    }
+
+    @Override
+    public BulkOrderResponse placeBulkOrder(BulkOrderRequest request) {
+        return await(placeBulkOrderAsync(request));
+    }
+
+    @Override
+    public CompletableFuture<OrderResponse> placeOrderAsync(OrderRequest request) {
+        try {
+            availabilityCache.checkAvailable(request.getProductId(), request.getQuantity());
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        InventoryUpdateRequest updateRequest = new InventoryUpdateRequest(request.getProductId(), request.getQuantity());
+
+        if (inventoryHolds) {
+            return reserve("/inventory/hold", updateRequest, InventoryHoldResponse.class)
+                    .thenApplyAsync(hold -> persistAndConfirm(request, hold), orderPersistenceExecutor);
+        }
+
+        return reserve("/inventory/update", updateRequest, InventoryUpdateResponse.class)
+                .thenApplyAsync(reservation -> {
+                    availabilityCache.record(request.getProductId(), reservation);
+                    Order savedOrder = orderRepository.save(
+                            OrderAssembler.newOrder(request, reservation.getProductName()));
+                    return OrderAssembler.toResponse(savedOrder, reservation.getReservedBatchIds());
+                }, orderPersistenceExecutor);
+    }
+
+    @Override
+    public CompletableFuture<BulkOrderResponse> placeBulkOrderAsync(BulkOrderRequest request) {
+        List<OrderRequest> lines = request.getLines();
+        if (lines == null || lines.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Bulk order has no lines"));
+        }
+        try {
+            availabilityCache.checkAvailable(lines);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        InventoryBulkUpdateRequest updateRequest = new InventoryBulkUpdateRequest(lines.stream()
+                .map(line -> new InventoryUpdateRequest(line.getProductId(), line.getQuantity()))
+                .collect(Collectors.toList()));
+
+        if (inventoryHolds) {
+            return reserve("/inventory/hold/bulk", updateRequest, InventoryBulkHoldResponse.class)
+                    .thenApplyAsync(bulk -> persistAndConfirmBulk(lines, bulk.getHolds()), orderPersistenceExecutor);
+        }
+
+        return reserve("/inventory/update/bulk", updateRequest, InventoryBulkUpdateResponse.class)
+                .thenApplyAsync(bulk -> transactionTemplate.execute(status -> {
+                    List<InventoryUpdateResponse> reservations = bulk.getResults();
+                    List<Order> orders = new ArrayList<>(lines.size());
+                    for (int i = 0; i < lines.size(); i++) {
+                        availabilityCache.record(lines.get(i).getProductId(), reservations.get(i));
+                        orders.add(OrderAssembler.newOrder(lines.get(i), reservations.get(i).getProductName()));
+                    }
+                    orderRepository.insertAll(orders);
+
+                    List<OrderResponse> responses = new ArrayList<>(orders.size());
+                    for (int i = 0; i < orders.size(); i++) {
+                        responses.add(OrderAssembler.toResponse(orders.get(i), reservations.get(i).getReservedBatchIds()));
+                    }
+                    return new BulkOrderResponse(responses, "Bulk order placed. Inventory reserved.");
+                }), orderPersistenceExecutor);
+    }
+
+    /**
+     * Commits the order as PENDING, then confirms the hold and marks the order PLACED, on the persistence
+     * pool where blocking on the confirm is fine. Confirming only after the commit means a confirmed hold
+     * always has its order. When the insert fails the hold is released.
+     */
+    private OrderResponse persistAndConfirm(OrderRequest request, InventoryHoldResponse hold) {
+        availabilityCache.record(request.getProductId(), hold);
+        Order savedOrder;
+        try {
+            Order order = OrderAssembler.newOrder(request, hold.getProductName());
+            order.setStatus(OrderStatus.PENDING);
+            order.setHoldId(hold.getHoldId());
+            savedOrder = orderRepository.saveAndFlush(order);
+        } catch (RuntimeException e) {
+            releaseHold(hold.getHoldId());
+            throw e;
+        }
+
+        try {
+            // A repeated confirm succeeds, so a confirm whose response was lost can be retried
+            inventoryWebClient.post()
+                    .uri("/inventory/hold/{holdId}/confirm", hold.getHoldId())
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block();
+        } catch (WebClientResponseException e) {
+            if (e.getStatusCode().is4xxClientError()) {
+                // Released or expired: its stock is back on the shelf, so the order cannot be filled
+                resolve(savedOrder, OrderStatus.REJECTED);
+                throw new RuntimeException("Inventory hold " + hold.getHoldId() + " expired before the order was confirmed", e);
+            }
+            throw orderLeftPending(savedOrder, hold.getHoldId(), e);
+        } catch (RuntimeException e) {
+            throw orderLeftPending(savedOrder, hold.getHoldId(), e);
+        }
+        resolve(savedOrder, OrderStatus.PLACED);
+        return OrderAssembler.toResponse(savedOrder, hold.getReservedBatchIds());
+    }
+
+    /**
+     * Bulk counterpart of {@link #persistAndConfirm}: commits the orders as PENDING in one transaction, then
+     * confirms all holds in one call. When the insert fails the holds are released in one call.
+     */
+    private BulkOrderResponse persistAndConfirmBulk(List<OrderRequest> lines, List<InventoryHoldResponse> holds) {
+        List<Long> holdIds = holds.stream().map(InventoryHoldResponse::getHoldId).toList();
+        List<Order> orders = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            availabilityCache.record(lines.get(i).getProductId(), holds.get(i));
+            Order order = OrderAssembler.newOrder(lines.get(i), holds.get(i).getProductName());
+            order.setStatus(OrderStatus.PENDING);
+            order.setHoldId(holds.get(i).getHoldId());
+            orders.add(order);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> orderRepository.insertAll(orders));
+        } catch (RuntimeException e) {
+            releaseHolds(holdIds);
+            throw e;
+        }
+
+        try {
+            inventoryWebClient.post()
+                    .uri("/inventory/hold/bulk/confirm")
+                    .bodyValue(new InventoryHoldIdsRequest(holdIds))
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block();
+        } catch (WebClientResponseException e) {
+            if (e.getStatusCode().is4xxClientError()) {
+                // A hold was released or expired and none was confirmed: put back the rest
+                releaseHolds(holdIds);
+                resolve(orders, OrderStatus.REJECTED);
+                throw new RuntimeException("Inventory holds " + holdIds + " expired before the bulk order was confirmed", e);
+            }
+            throw ordersLeftPending(holdIds, e);
+        } catch (RuntimeException e) {
+            throw ordersLeftPending(holdIds, e);
+        }
+        resolve(orders, OrderStatus.PLACED);
+
+        List<OrderResponse> responses = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            responses.add(OrderAssembler.toResponse(orders.get(i), holds.get(i).getReservedBatchIds()));
+        }
+        return new BulkOrderResponse(responses, "Bulk order placed. Inventory reserved.");
+    }
+
+    private RuntimeException ordersLeftPending(List<Long> holdIds, RuntimeException e) {
+        log.error("Confirm of inventory holds {} failed, their orders left PENDING for the reconciler", holdIds, e);
+        return e;
+    }
+
+    /**
+     * The confirm may or may not have landed; the order stays PENDING until PendingOrderReconciler settles it.
+     */
+    private RuntimeException orderLeftPending(Order order, Long holdId, RuntimeException e) {
+        log.error("Confirm of inventory hold {} for order {} failed, order left PENDING for the reconciler", holdId, order.getOrderId(), e);
+        return e;
+    }
+
+    private void resolve(Order order, OrderStatus status) {
+        resolve(List.of(order), status);
+    }
+
+    private void resolve(List<Order> orders, OrderStatus status) {
+        List<ReservationReply> replies = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            replies.add(new ReservationReply(null, order.getOrderId(), status, null));
+        }
+        orderRepository.resolvePending(replies);
+        orders.forEach(order -> order.setStatus(status));
+    }
+
+    /**
+     * Fire-and-forget; a hold whose release is lost is reclaimed when it expires.
+     */
+    private void releaseHold(Long holdId) {
+        inventoryWebClient.post()
+                .uri("/inventory/hold/{holdId}/release", holdId)
+                .retrieve()
+                .toBodilessEntity()
+                .subscribe(released -> { },
+                        e -> log.warn("Failed to release inventory hold {}, leaving it to expire", holdId, e));
+    }
+
+    private void releaseHolds(List<Long> holdIds) {
+        inventoryWebClient.post()
+                .uri("/inventory/hold/bulk/release")
+                .bodyValue(new InventoryHoldIdsRequest(holdIds))
+                .retrieve()
+                .toBodilessEntity()
+                .subscribe(released -> { },
+                        e -> log.warn("Failed to release inventory holds {}, leaving them to expire", holdIds, e));
+    }
+
+    private <T> CompletableFuture<T> reserve(String path, Object body, Class<T> responseType) {
+        return inventoryWebClient.post()
+                .uri(path)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(responseType)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Failed to update inventory: empty response")))
+                .onErrorMap(WebClientResponseException.class, this::toFailure)
+                .toFuture();
+    }
+
+    private RuntimeException toFailure(WebClientResponseException e) {
+        if (e.getStatusCode().is4xxClientError()) {
+            return new IllegalArgumentException(OrderAssembler.rejectionMessage(
+                    () -> e.getResponseBodyAs(InventoryUpdateResponse.class), e.getStatusCode()), e);
+        }
+        return new RuntimeException("Failed to update inventory: " + e.getStatusCode(), e);
+    }
+
+    /**
+     * Blocking callers get the pipeline's own exception rather than a CompletionException.
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -16,6 +16,9 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -96,5 +99,43 @@ class OrderServiceIntegrationTest {
         assertNotNull(retrievedOrder);
         assertEquals(savedOrder.getOrderId(), retrievedOrder.getOrderId());
     }
-}
 
+    @Test
+    @Transactional
+    void testInsertAll_BatchAssignsGeneratedIds() {
+        // Given
+        List<Order> orders = List.of(newOrder(1001L, "Laptop"), newOrder(1002L, "Smartphone"), newOrder(1003L, "Tablet"));
+
+        // When
+        orderRepository.insertAll(orders);
+
+        // Then - every order got its own id and can be read back
+        assertEquals(3, orders.stream().map(Order::getOrderId).distinct().count());
+        for (Order order : orders) {
+            Order retrievedOrder = orderRepository.findById(order.getOrderId()).orElse(null);
+            assertNotNull(retrievedOrder);
+            assertEquals(order.getProductName(), retrievedOrder.getProductName());
+        }
+    }
+
+    @Test
+    void testInventoryClientPoolMetrics_ExposedViaActuator() {
+        // When
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + port + "/actuator/metrics/httpcomponents.httpclient.pool.total.max", String.class);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("\"value\":200.0"));
+    }
+
+    private Order newOrder(Long productId, String productName) {
+        Order order = new Order();
+        order.setProductId(productId);
+        order.setProductName(productName);
+        order.setQuantity(1);
+        order.setStatus(com.korber.model.OrderStatus.PLACED);
+        order.setOrderDate(LocalDate.now());
+        return order;
+    }
+}
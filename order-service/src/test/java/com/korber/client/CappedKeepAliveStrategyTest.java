@@ -0,0 +1,38 @@
+package com.korber.client;
+
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CappedKeepAliveStrategyTest {
+
+    private final CappedKeepAliveStrategy strategy = new CappedKeepAliveStrategy(TimeValue.ofSeconds(30));
+
+    @Test
+    void testShorterServerTimeout_Honoured() {
+        assertEquals(5, keepAliveSeconds("timeout=5, max=100"));
+    }
+
+    @Test
+    void testLongerServerTimeout_Capped() {
+        assertEquals(30, keepAliveSeconds("timeout=120"));
+    }
+
+    @Test
+    void testNoKeepAliveHeader_Capped() {
+        assertEquals(30, keepAliveSeconds(null));
+    }
+
+    private long keepAliveSeconds(String keepAliveHeader) {
+        BasicHttpResponse response = new BasicHttpResponse(200);
+        if (keepAliveHeader != null) {
+            response.addHeader("Keep-Alive", keepAliveHeader);
+        }
+        return strategy.getKeepAliveDuration(response, HttpClientContext.create()).convert(TimeUnit.SECONDS);
+    }
+}
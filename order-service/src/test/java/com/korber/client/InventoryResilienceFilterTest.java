@@ -0,0 +1,126 @@
+package com.korber.client;
+
+import com.korber.dto.InventoryUpdateRequest;
+import com.korber.dto.InventoryUpdateResponse;
+import com.korber.idempotency.IdempotencyStore;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryResilienceFilterTest {
+
+    private static final String UPDATED =
+            "{\"reservedBatchIds\":[1],\"productName\":\"Laptop\",\"remainingQuantity\":40,\"message\":\"ok\"}";
+
+    @Test
+    void testServerError_RetriedWithSameIdempotencyKey() {
+        // Given - the first attempt fails, the second succeeds
+        List<String> keys = new CopyOnWriteArrayList<>();
+        WebClient webClient = webClient(breaker(), retry(3), request -> {
+            keys.add(request.headers().getFirst(IdempotencyStore.HEADER));
+            return Mono.just(keys.size() == 1 ? respond(HttpStatus.SERVICE_UNAVAILABLE, "{}") : respond(HttpStatus.OK, UPDATED));
+        });
+
+        // When
+        InventoryUpdateResponse response = update(webClient).block();
+
+        // Then - the retry carries the key of the first attempt, so Inventory Service can replay it
+        assertEquals("Laptop", response.getProductName());
+        assertEquals(2, keys.size());
+        assertNotNull(keys.get(0));
+        assertEquals(keys.get(0), keys.get(1));
+    }
+
+    @Test
+    void testClientError_NotRetried() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        CircuitBreaker breaker = breaker();
+        WebClient webClient = webClient(breaker, retry(3), request -> {
+            calls.incrementAndGet();
+            return Mono.just(respond(HttpStatus.BAD_REQUEST, "{\"message\":\"Insufficient inventory\"}"));
+        });
+
+        // When & Then - a rejection is an answer, not a failure
+        assertThrows(WebClientResponseException.BadRequest.class, () -> update(webClient).block());
+        assertEquals(1, calls.get());
+        assertEquals(0, breaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void testCircuitBreaker_OpensAndFailsFast() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        CircuitBreaker breaker = breaker();
+        WebClient webClient = webClient(breaker, retry(1), request -> {
+            calls.incrementAndGet();
+            return Mono.just(respond(HttpStatus.SERVICE_UNAVAILABLE, "{}"));
+        });
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(WebClientResponseException.ServiceUnavailable.class, () -> update(webClient).block());
+        }
+
+        // When & Then - the open breaker rejects without calling Inventory Service
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(CallNotPermittedException.class, () -> update(webClient).block());
+        assertEquals(4, calls.get());
+    }
+
+    private static Mono<InventoryUpdateResponse> update(WebClient webClient) {
+        return webClient.post()
+                .uri("/inventory/update")
+                .bodyValue(new InventoryUpdateRequest(1001L, 10))
+                .retrieve()
+                .bodyToMono(InventoryUpdateResponse.class);
+    }
+
+    private static WebClient webClient(CircuitBreaker breaker, Retry retry, ExchangeFunction inventory) {
+        return WebClient.builder()
+                .baseUrl("http://inventory")
+                .exchangeFunction(inventory)
+                .filter(new InventoryResilienceFilter(breaker, retry, 5000))
+                .build();
+    }
+
+    private static ClientResponse respond(HttpStatus status, String json) {
+        return ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(json)
+                .build();
+    }
+
+    private static CircuitBreaker breaker() {
+        return CircuitBreaker.of("inventory", CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+    }
+
+    private static Retry retry(int maxAttempts) {
+        return Retry.of("inventory", RetryConfig.custom()
+                .maxAttempts(maxAttempts)
+                .waitDuration(Duration.ofMillis(10))
+                .build());
+    }
+}
@@ -0,0 +1,154 @@
+package com.korber.client;
+
+import com.korber.dto.InventoryUpdateRequest;
+import com.korber.dto.InventoryUpdateResponse;
+import com.korber.idempotency.IdempotencyStore;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the interceptor against a local stub of Inventory Service.
+ */
+class InventoryResilienceInterceptorTest {
+
+    private static final String UPDATED =
+            "{\"reservedBatchIds\":[1],\"productName\":\"Laptop\",\"remainingQuantity\":40,\"message\":\"ok\"}";
+
+    private HttpServer inventoryStub;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        inventoryStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        inventoryStub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        inventoryStub.start();
+        baseUrl = "http://localhost:" + inventoryStub.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventoryStub.stop(0);
+    }
+
+    @Test
+    void testServerError_RetriedWithSameIdempotencyKey() {
+        // Given - the first attempt fails, the second succeeds
+        List<String> keys = new CopyOnWriteArrayList<>();
+        inventoryStub.createContext("/inventory/update", exchange -> {
+            keys.add(exchange.getRequestHeaders().getFirst(IdempotencyStore.HEADER));
+            respond(exchange, keys.size() == 1 ? 503 : 200, keys.size() == 1 ? "{}" : UPDATED);
+        });
+        RestTemplate restTemplate = restTemplate(breaker(), retry(3));
+
+        // When
+        InventoryUpdateResponse response = restTemplate.postForObject(
+                baseUrl + "/inventory/update", new InventoryUpdateRequest(1001L, 10), InventoryUpdateResponse.class);
+
+        // Then - the retry carries the key of the first attempt, so Inventory Service can replay it
+        assertEquals("Laptop", response.getProductName());
+        assertEquals(2, keys.size());
+        assertNotNull(keys.get(0));
+        assertEquals(keys.get(0), keys.get(1));
+    }
+
+    @Test
+    void testClientError_NotRetried() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        inventoryStub.createContext("/inventory/update", exchange -> {
+            calls.incrementAndGet();
+            respond(exchange, 400, "{\"message\":\"Insufficient inventory\"}");
+        });
+        CircuitBreaker breaker = breaker();
+        RestTemplate restTemplate = restTemplate(breaker, retry(3));
+
+        // When & Then - a rejection is an answer, not a failure
+        assertThrows(HttpClientErrorException.class, () -> restTemplate.postForObject(
+                baseUrl + "/inventory/update", new InventoryUpdateRequest(1001L, 100), InventoryUpdateResponse.class));
+        assertEquals(1, calls.get());
+        assertEquals(0, breaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void testCircuitBreaker_OpensAndFailsFast() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        inventoryStub.createContext("/inventory/update", exchange -> {
+            calls.incrementAndGet();
+            respond(exchange, 503, "{}");
+        });
+        CircuitBreaker breaker = breaker();
+        RestTemplate restTemplate = restTemplate(breaker, retry(1));
+        InventoryUpdateRequest request = new InventoryUpdateRequest(1001L, 10);
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, () -> restTemplate.postForObject(
+                    baseUrl + "/inventory/update", request, InventoryUpdateResponse.class));
+        }
+
+        // When & Then - the open breaker rejects without calling Inventory Service
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(CallNotPermittedException.class, () -> restTemplate.postForObject(
+                baseUrl + "/inventory/update", request, InventoryUpdateResponse.class));
+        assertEquals(4, calls.get());
+    }
+
+    private RestTemplate restTemplate(CircuitBreaker breaker, Retry retry) {
+        RestTemplate restTemplate = new RestTemplate(new SimpleClientHttpRequestFactory());
+        restTemplate.getInterceptors().add(new InventoryResilienceInterceptor(
+                breaker, retry, Bulkhead.ofDefaults("inventory"), 5000));
+        return restTemplate;
+    }
+
+    private static CircuitBreaker breaker() {
+        return CircuitBreaker.of("inventory", CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+    }
+
+    private static Retry retry(int maxAttempts) {
+        return Retry.of("inventory", RetryConfig.custom()
+                .maxAttempts(maxAttempts)
+                .waitDuration(Duration.ofMillis(10))
+                .retryExceptions(IOException.class, HttpServerErrorException.class)
+                .build());
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
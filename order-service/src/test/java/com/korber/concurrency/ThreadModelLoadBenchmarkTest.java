@@ -0,0 +1,195 @@
+package com.korber.concurrency;
+
+import com.korber.config.RestTemplateConfig;
+import com.korber.dto.InventoryUpdateRequest;
+import com.korber.dto.InventoryUpdateResponse;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares platform-thread and virtual-thread request handling when every request blocks on an
+ * Inventory Service call. A local stub answers /inventory/update after a fixed delay; the platform
+ * run is capped at Tomcat's default 200 workers, the virtual run gets one thread per request. The two
+ * alternate for several rounds, so a drift in the machine shows up in both, and each round is printed
+ * with the processor count it ran on.
+ *
+ * Run with: ../mvnw -Pperf test -Dtest=ThreadModelLoadBenchmarkTest
+ * Defaults can be changed with -Dbenchmark.requests, -Dbenchmark.workers, -Dbenchmark.delay-ms and
+ * -Dbenchmark.rounds.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ThreadModelLoadBenchmarkTest {
+
+    private static final int PLATFORM_WORKERS = Integer.getInteger("benchmark.workers", 200);
+    private static final int CONCURRENT_REQUESTS = Integer.getInteger("benchmark.requests", 2000);
+    private static final long INVENTORY_DELAY_MS = Long.getLong("benchmark.delay-ms", 50);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 3);
+
+    private static HttpServer inventoryStub;
+    private static CloseableHttpClient httpClient;
+    private static RestTemplate restTemplate;
+    private static String updateUrl;
+
+    @BeforeAll
+    static void startInventoryStub() throws Exception {
+        // The JDK server closes idle connections beyond this many, which the burst sees as broken pipes
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(CONCURRENT_REQUESTS * 2));
+        inventoryStub = HttpServer.create(new InetSocketAddress("localhost", 0), CONCURRENT_REQUESTS);
+        inventoryStub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        inventoryStub.createContext("/inventory/update", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(INVENTORY_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"reservedBatchIds\":[1],\"productName\":\"Laptop\",\"remainingQuantity\":1,\"message\":\"ok\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        inventoryStub.start();
+        updateUrl = "http://localhost:" + inventoryStub.getAddress().getPort() + "/inventory/update";
+
+        // Same client as production, with the pool opened up so it never becomes the bottleneck
+        RestTemplateConfig config = new RestTemplateConfig();
+        PoolingHttpClientConnectionManager connectionManager = config.inventoryConnectionManager(
+                CONCURRENT_REQUESTS, CONCURRENT_REQUESTS, 1000, 10000, 300000);
+        httpClient = config.inventoryHttpClient(connectionManager, 10000, 10000, 30000, 60000);
+        restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    @AfterAll
+    static void stopInventoryStub() throws Exception {
+        httpClient.close();
+        inventoryStub.stop(0);
+    }
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        // Warm up connections and JIT with one untimed round of each; a shorter warm-up favours whichever runs last
+        run(Executors.newFixedThreadPool(PLATFORM_WORKERS), CONCURRENT_REQUESTS);
+        run(Executors.newVirtualThreadPerTaskExecutor(), CONCURRENT_REQUESTS);
+
+        System.out.printf("cpus=%d requests=%d workers=%d delay=%dms%n", Runtime.getRuntime().availableProcessors(),
+                CONCURRENT_REQUESTS, PLATFORM_WORKERS, INVENTORY_DELAY_MS);
+        for (int round = 1; round <= ROUNDS; round++) {
+            Result platform = run(Executors.newFixedThreadPool(PLATFORM_WORKERS), CONCURRENT_REQUESTS);
+            Result virtual = run(Executors.newVirtualThreadPerTaskExecutor(), CONCURRENT_REQUESTS);
+
+            System.out.println("round " + round + " platform " + platform);
+            System.out.println("round " + round + " virtual  " + virtual);
+
+            assertEquals(CONCURRENT_REQUESTS, platform.completed());
+            assertEquals(CONCURRENT_REQUESTS, virtual.completed());
+            assertTrue(platform.peakInFlight() <= PLATFORM_WORKERS, "Platform run must be capped by its workers");
+            assertTrue(virtual.peakInFlight() > PLATFORM_WORKERS, "Virtual run should exceed the platform worker cap");
+        }
+    }
+
+    private Result run(ExecutorService executor, int requests) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        InFlight inFlight = new InFlight();
+        List<Future<Long>> futures = new ArrayList<>(requests);
+
+        AtomicLong releasedAt = new AtomicLong();
+
+        // Latency is measured from the moment the burst is released, so time spent queued for a worker counts
+        for (int i = 0; i < requests; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                inFlight.enter();
+                try {
+                    InventoryUpdateResponse response = restTemplate.postForObject(
+                            updateUrl, new InventoryUpdateRequest(1001L, 1), InventoryUpdateResponse.class);
+                    assertNotNull(response);
+                } finally {
+                    inFlight.exit();
+                }
+                return System.nanoTime() - releasedAt.get();
+            }));
+        }
+
+        releasedAt.set(System.nanoTime());
+        start.countDown();
+        long[] latencies = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            latencies[i] = futures.get(i).get(60, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - releasedAt.get();
+        executor.shutdown();
+
+        Arrays.sort(latencies);
+        return new Result(requests, inFlight.peak(),
+                requests * 1_000_000_000.0 / elapsed,
+                TimeUnit.NANOSECONDS.toMillis(latencies[requests / 2]),
+                TimeUnit.NANOSECONDS.toMillis(latencies[(int) Math.ceil(requests * 0.99) - 1]));
+    }
+
+    private static final class InFlight {
+        private int current;
+        private int peak;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        void enter() {
+            lock.lock();
+            try {
+                peak = Math.max(peak, ++current);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void exit() {
+            lock.lock();
+            try {
+                current--;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int peak() {
+            lock.lock();
+            try {
+                return peak;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private record Result(int completed, int peakInFlight, double throughputPerSecond, long p50Ms, long p99Ms) {
+        @Override
+        public String toString() {
+            return String.format("completed=%d peakInFlight=%d throughput=%.0f/s p50=%dms p99=%dms",
+                    completed, peakInFlight, throughputPerSecond, p50Ms, p99Ms);
+        }
+    }
+}
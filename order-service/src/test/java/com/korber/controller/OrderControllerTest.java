@@ -1,12 +1,16 @@
 package com.korber.controller;
 
+import com.korber.dto.BulkOrderRequest;
+import com.korber.dto.BulkOrderResponse;
 import com.korber.dto.OrderRequest;
 import com.korber.dto.OrderResponse;
+import com.korber.idempotency.IdempotencyStore;
 import com.korber.service.OrderService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -18,6 +22,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(OrderController.class)
+@Import(IdempotencyStore.class)
 class OrderControllerTest {
 
     @Autowired
@@ -90,5 +95,111 @@ class OrderControllerTest {
 
         verify(orderService, times(1)).placeOrder(any(OrderRequest.class));
     }
-}
 
+    @Test
+    void testPlaceOrder_RetryWithSameKeyReplays() throws Exception {
+        // Given
+        OrderResponse response = new OrderResponse();
+        response.setOrderId(1L);
+        response.setStatus("PLACED");
+        when(orderService.placeOrder(any(OrderRequest.class))).thenReturn(response);
+
+        // When & Then - the retry gets the first order back, marked as replayed
+        mockMvc.perform(post("/order")
+                        .header(IdempotencyStore.HEADER, "order-retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":1001,\"quantity\":10}"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyStore.REPLAYED_HEADER));
+        mockMvc.perform(post("/order")
+                        .header(IdempotencyStore.HEADER, "order-retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":1001,\"quantity\":10}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyStore.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.orderId").value(1L));
+
+        verify(orderService, times(1)).placeOrder(any(OrderRequest.class));
+    }
+
+    @Test
+    void testPlaceOrder_SameKeyDifferentBody_Rejected() throws Exception {
+        // Given
+        OrderResponse response = new OrderResponse();
+        response.setOrderId(3L);
+        when(orderService.placeOrder(any(OrderRequest.class))).thenReturn(response);
+
+        // When & Then - reusing the key for another order is a client error, not a retry
+        mockMvc.perform(post("/order")
+                        .header(IdempotencyStore.HEADER, "order-retry-3")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":1001,\"quantity\":10}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/order")
+                        .header(IdempotencyStore.HEADER, "order-retry-3")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":1001,\"quantity\":20}"))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(orderService, times(1)).placeOrder(any(OrderRequest.class));
+    }
+
+    @Test
+    void testPlaceOrder_ServerErrorIsNotReplayed() throws Exception {
+        // Given - the first attempt fails, the retry succeeds
+        OrderResponse response = new OrderResponse();
+        response.setOrderId(2L);
+        when(orderService.placeOrder(any(OrderRequest.class)))
+                .thenThrow(new RuntimeException("Failed to update inventory"))
+                .thenReturn(response);
+
+        // When & Then
+        mockMvc.perform(post("/order")
+                        .header(IdempotencyStore.HEADER, "order-retry-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":1001,\"quantity\":10}"))
+                .andExpect(status().isInternalServerError());
+        mockMvc.perform(post("/order")
+                        .header(IdempotencyStore.HEADER, "order-retry-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":1001,\"quantity\":10}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderId").value(2L));
+
+        verify(orderService, times(2)).placeOrder(any(OrderRequest.class));
+    }
+
+    @Test
+    void testPlaceBulkOrder_Success() throws Exception {
+        // Given
+        OrderResponse line = new OrderResponse(1L, 1001L, "Laptop", 2, "PLACED",
+                Arrays.asList(1L), "Order placed. Inventory reserved.");
+        BulkOrderResponse response = new BulkOrderResponse(Arrays.asList(line), "Bulk order placed. Inventory reserved.");
+
+        when(orderService.placeBulkOrder(any(BulkOrderRequest.class))).thenReturn(response);
+
+        // When & Then
+        mockMvc.perform(post("/order/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lines\":[{\"productId\":1001,\"quantity\":2}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[0].orderId").value(1L))
+                .andExpect(jsonPath("$.orders[0].reservedFromBatchIds[0]").value(1L))
+                .andExpect(jsonPath("$.message").value("Bulk order placed. Inventory reserved."));
+
+        verify(orderService, times(1)).placeBulkOrder(any(BulkOrderRequest.class));
+    }
+
+    @Test
+    void testPlaceBulkOrder_BadRequest() throws Exception {
+        // Given
+        when(orderService.placeBulkOrder(any(BulkOrderRequest.class)))
+                .thenThrow(new IllegalArgumentException("Inventory rejected bulk reservation: 400 BAD_REQUEST"));
+
+        // When & Then
+        mockMvc.perform(post("/order/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lines\":[{\"productId\":9999,\"quantity\":2}]}"))
+                .andExpect(status().isBadRequest());
+    }
+}
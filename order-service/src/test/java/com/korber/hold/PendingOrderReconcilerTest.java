@@ -0,0 +1,81 @@
+package com.korber.hold;
+
+import com.korber.dto.InventoryHoldResponse;
+import com.korber.model.Order;
+import com.korber.model.OrderStatus;
+import com.korber.outbox.ReservationReply;
+import com.korber.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PendingOrderReconcilerTest {
+
+    private static final String INVENTORY_URL = "http://localhost:8081";
+
+    private OrderRepository orderRepository;
+    private RestTemplate restTemplate;
+    private PendingOrderReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        restTemplate = mock(RestTemplate.class);
+        // The reconciler thread is never started; passes are driven directly
+        reconciler = new PendingOrderReconciler(orderRepository, restTemplate, INVENTORY_URL, 30000, 60000, 100);
+    }
+
+    @Test
+    void testReconcile_SettlesEachOrderByItsConfirm() {
+        // Given - hold 7 was confirmed before the response was lost, hold 8 expired, hold 9 is still unreachable
+        when(orderRepository.findByStatusAndHoldIdNotNullAndCreatedAtBeforeOrderByOrderId(
+                eq(OrderStatus.PENDING), any(), eq(Limit.of(100))))
+                .thenReturn(List.of(pending(1L, 7L), pending(2L, 8L), pending(3L, 9L)));
+        when(restTemplate.postForEntity(INVENTORY_URL + "/inventory/hold/7/confirm", null, InventoryHoldResponse.class))
+                .thenReturn(ResponseEntity.ok(new InventoryHoldResponse()));
+        when(restTemplate.postForEntity(INVENTORY_URL + "/inventory/hold/8/confirm", null, InventoryHoldResponse.class))
+                .thenThrow(new HttpClientErrorException(HttpStatus.CONFLICT));
+        when(restTemplate.postForEntity(INVENTORY_URL + "/inventory/hold/9/confirm", null, InventoryHoldResponse.class))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        // When
+        int settled = reconciler.reconcile();
+
+        // Then - the unknown outcome stays PENDING for the next pass
+        assertEquals(2, settled);
+        verify(orderRepository).resolvePending(List.of(
+                new ReservationReply(null, 1L, OrderStatus.PLACED, null),
+                new ReservationReply(null, 2L, OrderStatus.REJECTED, null)));
+    }
+
+    @Test
+    void testReconcile_NothingPending() {
+        // Given
+        when(orderRepository.findByStatusAndHoldIdNotNullAndCreatedAtBeforeOrderByOrderId(any(), any(), any()))
+                .thenReturn(List.of());
+
+        // When & Then
+        assertEquals(0, reconciler.reconcile());
+        verifyNoInteractions(restTemplate);
+        verify(orderRepository, never()).resolvePending(anyList());
+    }
+
+    private static Order pending(Long orderId, Long holdId) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setStatus(OrderStatus.PENDING);
+        order.setHoldId(holdId);
+        return order;
+    }
+}
@@ -0,0 +1,83 @@
+package com.korber.outbox;
+
+import com.korber.model.OutboxMessage;
+import com.korber.model.OutboxStatus;
+import com.korber.repository.OrderRepository;
+import com.korber.repository.OutboxMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private OutboxMessageRepository outboxRepository;
+    private OrderRepository orderRepository;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = mock(OutboxMessageRepository.class);
+        orderRepository = mock(OrderRepository.class);
+        // The relay thread is never started; publish and complete are driven directly
+        relay = new OutboxRelay(outboxRepository, orderRepository, new ReservationQueue(10),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 100, 10, 3, 1000, 60000, 300000);
+    }
+
+    @Test
+    void testComplete_FailedDelivery_BacksOffExponentially() {
+        // Given - the message already failed once
+        OutboxMessage message = new OutboxMessage(11L, 1L, 1001L, 10, OutboxStatus.PUBLISHED, 1, null);
+        when(outboxRepository.findAllById(List.of(11L))).thenReturn(List.of(message));
+
+        // When
+        Instant started = Instant.now();
+        relay.complete(List.of(), List.of(11L));
+
+        // Then - back to NEW, not due for two base backoffs
+        assertEquals(OutboxStatus.NEW, message.getStatus());
+        assertEquals(2, message.getAttempts());
+        assertFalse(message.getNextAttemptAt().isBefore(started.plus(Duration.ofMillis(2000))));
+        assertTrue(message.getNextAttemptAt().isBefore(started.plus(Duration.ofMillis(3000))));
+    }
+
+    @Test
+    void testComplete_LastAttemptFailed_MarkedFailed() {
+        // Given
+        OutboxMessage message = new OutboxMessage(11L, 1L, 1001L, 10, OutboxStatus.PUBLISHED, 2, null);
+        when(outboxRepository.findAllById(List.of(11L))).thenReturn(List.of(message));
+
+        // When
+        relay.complete(List.of(), List.of(11L));
+
+        // Then - no further attempt is scheduled
+        assertEquals(OutboxStatus.FAILED, message.getStatus());
+        assertEquals(3, message.getAttempts());
+        assertNull(message.getNextAttemptAt());
+    }
+
+    @Test
+    void testPublish_LeasesQueuedMessages() {
+        // Given
+        when(outboxRepository.findDue(any(Instant.class), any(Limit.class))).thenReturn(List.of(
+                new OutboxMessage(11L, 1L, 1001L, 10, OutboxStatus.NEW, 0, null)));
+
+        // When
+        Instant started = Instant.now();
+        int published = relay.publish();
+
+        // Then - taken back by the relay if no outcome is recorded within the lease
+        assertEquals(1, published);
+        verify(outboxRepository).markPublished(eq(List.of(11L)),
+                argThat(leaseExpiry -> !leaseExpiry.isBefore(started.plus(Duration.ofMillis(300000)))));
+    }
+}
@@ -0,0 +1,97 @@
+package com.korber.outbox;
+
+import com.korber.cache.InventoryAvailabilityCache;
+import com.korber.dto.InventoryUpdateRequest;
+import com.korber.dto.InventoryUpdateResponse;
+import com.korber.idempotency.IdempotencyStore;
+import com.korber.model.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReservationConsumerTest {
+
+    private static final String UPDATE_URL = "http://localhost:8081/inventory/update";
+
+    private RestTemplate restTemplate;
+    private OutboxRelay relay;
+    private ReservationConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        relay = mock(OutboxRelay.class);
+        // Threads are never started; deliver is driven directly
+        consumer = new ReservationConsumer(new ReservationQueue(10), relay, restTemplate,
+                new InventoryAvailabilityCache(100, 60000), "http://localhost:8081", 1, 10, 100);
+    }
+
+    @Test
+    void testDeliver_MapsOutcomesToOrderStatus() {
+        // Given - one reserved, one rejected, one unreachable
+        when(restTemplate.postForEntity(eq(UPDATE_URL), argThat(productIs(1001L)), eq(InventoryUpdateResponse.class)))
+                .thenReturn(new ResponseEntity<>(new InventoryUpdateResponse(List.of(1L), "Laptop", 40, "ok"), HttpStatus.OK));
+        when(restTemplate.postForEntity(eq(UPDATE_URL), argThat(productIs(1002L)), eq(InventoryUpdateResponse.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+        when(restTemplate.postForEntity(eq(UPDATE_URL), argThat(productIs(1003L)), eq(InventoryUpdateResponse.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        // When
+        consumer.deliver(List.of(
+                new ReservationCommand(11L, 1L, 1001L, 10),
+                new ReservationCommand(12L, 2L, 1002L, 10),
+                new ReservationCommand(13L, 3L, 1003L, 10)));
+
+        // Then - the unreachable command goes back to the relay instead of rejecting its order
+        verify(relay).complete(
+                List.of(new ReservationReply(11L, 1L, OrderStatus.PLACED, "Laptop"),
+                        new ReservationReply(12L, 2L, OrderStatus.REJECTED, null)),
+                List.of(13L));
+    }
+
+    @Test
+    void testDeliver_KeysRequestByOutboxMessage() {
+        // Given
+        when(restTemplate.postForEntity(eq(UPDATE_URL), any(), eq(InventoryUpdateResponse.class)))
+                .thenReturn(new ResponseEntity<>(new InventoryUpdateResponse(List.of(1L), "Laptop", 40, "ok"), HttpStatus.OK));
+
+        // When
+        consumer.deliver(List.of(new ReservationCommand(11L, 1L, 1001L, 10)));
+
+        // Then - a redelivered command carries the same key, so Inventory Service replays instead of reserving twice
+        verify(restTemplate).postForEntity(eq(UPDATE_URL),
+                argThat((HttpEntity<?> entity) -> "order-outbox-11".equals(entity.getHeaders().getFirst(IdempotencyStore.HEADER))),
+                eq(InventoryUpdateResponse.class));
+    }
+
+    @Test
+    void testDeliver_RecordingFails_BatchRetried() {
+        // Given - the reservation went through, but its outcome cannot be written
+        when(restTemplate.postForEntity(eq(UPDATE_URL), any(), eq(InventoryUpdateResponse.class)))
+                .thenReturn(new ResponseEntity<>(new InventoryUpdateResponse(List.of(1L), "Laptop", 40, "ok"), HttpStatus.OK));
+        doThrow(new IllegalStateException("Connection is closed"))
+                .when(relay).complete(List.of(new ReservationReply(11L, 1L, OrderStatus.PLACED, "Laptop")), List.of());
+
+        // When
+        consumer.deliver(List.of(new ReservationCommand(11L, 1L, 1001L, 10)));
+
+        // Then - the batch counts as a failed delivery instead of staying PUBLISHED
+        verify(relay).complete(List.of(), List.of(11L));
+    }
+
+    private static ArgumentMatcher<HttpEntity<?>> productIs(Long productId) {
+        return entity -> entity != null && entity.getBody() instanceof InventoryUpdateRequest request
+                && productId.equals(request.getProductId());
+    }
+}
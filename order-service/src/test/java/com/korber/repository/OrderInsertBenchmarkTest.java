@@ -0,0 +1,102 @@
+package com.korber.repository;
+
+import com.korber.OrderServiceApplication;
+import com.korber.model.Order;
+import com.korber.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Inserts 100k orders three ways: through the entity manager with JDBC batching turned off (one
+ * statement per order, which is what the IDENTITY ids forced), through the entity manager with the
+ * pooled sequence and hibernate.jdbc.batch_size, and through {@link OrderRepository#insertAll}.
+ * Each transaction inserts one chunk of orders.
+ *
+ * Run with: ../mvnw -Pperf test -Dtest=OrderInsertBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderInsertBenchmarkTest {
+
+    private static final int ORDERS = 100_000;
+    private static final int ORDERS_PER_TRANSACTION = 1000;
+
+    @Test
+    void compareUnbatchedAndBatchedInserts() throws Exception {
+        double unbatched;
+        try (ConfigurableApplicationContext context = start("unbatched",
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=0")) {
+            OrderRepository repository = context.getBean(OrderRepository.class);
+            unbatched = run(context, repository::saveAll);
+            assertEquals(2L * ORDERS, repository.count());
+        }
+
+        double batched;
+        double jdbc;
+        try (ConfigurableApplicationContext context = start("batched")) {
+            OrderRepository repository = context.getBean(OrderRepository.class);
+            batched = run(context, repository::saveAll);
+            jdbc = run(context, repository::insertAll);
+            assertEquals(4L * ORDERS, repository.count());
+        }
+
+        System.out.printf("one insert per order     %.0f orders/s%n", unbatched);
+        System.out.printf("hibernate batch inserts  %.0f orders/s (%.1fx)%n", batched, batched / unbatched);
+        System.out.printf("insertAll                %.0f orders/s (%.1fx)%n", jdbc, jdbc / unbatched);
+
+        assertTrue(batched > unbatched);
+    }
+
+    private ConfigurableApplicationContext start(String name, String... args) {
+        List<String> arguments = new ArrayList<>(List.of(args));
+        arguments.add("--spring.datasource.url=jdbc:h2:mem:insert_" + name + ";DB_CLOSE_DELAY=-1");
+        return new SpringApplicationBuilder(OrderServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run(arguments.toArray(String[]::new));
+    }
+
+    /**
+     * Inserts the orders once to warm up the JIT and the connection pool, then again timed.
+     * @return Orders per second of the timed pass
+     */
+    private double run(ConfigurableApplicationContext context, Consumer<List<Order>> insert) {
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        insertOrders(transactionTemplate, insert);
+        long started = System.nanoTime();
+        insertOrders(transactionTemplate, insert);
+        long elapsed = System.nanoTime() - started;
+        return ORDERS * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    private void insertOrders(TransactionTemplate transactionTemplate, Consumer<List<Order>> insert) {
+        for (int inserted = 0; inserted < ORDERS; inserted += ORDERS_PER_TRANSACTION) {
+            List<Order> chunk = new ArrayList<>(ORDERS_PER_TRANSACTION);
+            for (int i = 0; i < ORDERS_PER_TRANSACTION; i++) {
+                chunk.add(newOrder(1001L + (inserted + i) % 5));
+            }
+            transactionTemplate.executeWithoutResult(status -> insert.accept(chunk));
+        }
+    }
+
+    private Order newOrder(Long productId) {
+        Order order = new Order();
+        order.setProductId(productId);
+        order.setProductName("Product " + productId);
+        order.setQuantity(1);
+        order.setStatus(OrderStatus.PLACED);
+        order.setOrderDate(LocalDate.now());
+        return order;
+    }
+}
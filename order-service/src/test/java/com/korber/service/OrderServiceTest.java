@@ -1,23 +1,33 @@
 package com.korber.service;
 
+import com.korber.cache.InventoryAvailabilityCache;
 import com.korber.dto.*;
+import com.korber.metrics.OrderMetrics;
 import com.korber.model.Order;
 import com.korber.model.OrderStatus;
+import com.korber.outbox.ReservationReply;
 import com.korber.repository.OrderRepository;
 import com.korber.service.impl.OrderServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,6 +43,15 @@ class OrderServiceTest {
     @Mock
     private RestTemplate restTemplate;
 
+    @Spy
+    private InventoryAvailabilityCache availabilityCache = new InventoryAvailabilityCache(100, 60000);
+
+    @Spy
+    private OrderMetrics metrics = new OrderMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
@@ -50,17 +69,8 @@ class OrderServiceTest {
         request.setProductId(1001L);
         request.setQuantity(10);
 
-        InventoryBatchDto batchDto = new InventoryBatchDto(1L, 50, LocalDate.of(2026, 6, 25));
-        InventoryResponse inventoryResponse = new InventoryResponse(
-                1001L, "Laptop", Arrays.asList(batchDto)
-        );
-
-        InventoryUpdateRequest updateRequest = new InventoryUpdateRequest();
-        updateRequest.setProductId(1001L);
-        updateRequest.setQuantity(10);
-
         InventoryUpdateResponse updateResponse = new InventoryUpdateResponse(
-                Arrays.asList(1L), "Inventory updated successfully"
+                Arrays.asList(1L), "Laptop", 40, "Inventory updated successfully"
         );
 
         Order savedOrder = new Order();
@@ -71,11 +81,6 @@ class OrderServiceTest {
         savedOrder.setStatus(OrderStatus.PLACED);
         savedOrder.setOrderDate(LocalDate.now());
 
-        when(restTemplate.getForEntity(
-                eq(inventoryServiceUrl + "/inventory/1001"),
-                eq(InventoryResponse.class)))
-                .thenReturn(new ResponseEntity<>(inventoryResponse, HttpStatus.OK));
-
         when(restTemplate.postForEntity(
                 eq(inventoryServiceUrl + "/inventory/update"),
                 any(InventoryUpdateRequest.class),
@@ -98,7 +103,44 @@ class OrderServiceTest {
         assertEquals(1L, response.getReservedFromBatchIds().get(0));
         assertEquals("Order placed. Inventory reserved.", response.getMessage());
 
+        verify(restTemplate, never()).getForEntity(anyString(), any()); // One hop: no availability pre-check
         verify(orderRepository, times(1)).save(any(Order.class));
+        verify(metrics).recordReserve(anyLong());
+        verify(metrics).recordInsert(anyLong());
+    }
+
+    @Test
+    void testPlaceOrder_RejectedFromCachedAvailability() {
+        // Given - a previous reservation reported 5 units left
+        availabilityCache.record(1001L, new InventoryUpdateResponse(
+                Arrays.asList(1L), "Laptop", 5, "Inventory updated successfully"));
+
+        // When & Then - the order cannot be covered, so Inventory Service is not called
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> orderService.placeOrder(new OrderRequest(1001L, 10)));
+
+        assertEquals("Insufficient inventory. Required: 10, Available: 5", exception.getMessage());
+        verifyNoInteractions(restTemplate);
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void testPlaceOrder_RecordsRemainingQuantity() {
+        // Given
+        when(restTemplate.postForEntity(
+                eq(inventoryServiceUrl + "/inventory/update"),
+                any(InventoryUpdateRequest.class),
+                eq(InventoryUpdateResponse.class)))
+                .thenReturn(new ResponseEntity<>(new InventoryUpdateResponse(
+                        Arrays.asList(1L), "Laptop", 0, "Inventory updated successfully"), HttpStatus.OK));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        orderService.placeOrder(new OrderRequest(1001L, 10));
+
+        // Then - the reservation left no stock, so the next order is rejected locally
+        assertThrows(IllegalArgumentException.class, () -> orderService.placeOrder(new OrderRequest(1001L, 1)));
+        verify(restTemplate, times(1)).postForEntity(anyString(), any(), eq(InventoryUpdateResponse.class));
     }
 
     @Test
@@ -108,17 +150,18 @@ class OrderServiceTest {
         request.setProductId(9999L);
         request.setQuantity(10);
 
-        when(restTemplate.getForEntity(
-                eq(inventoryServiceUrl + "/inventory/9999"),
-                eq(InventoryResponse.class)))
-                .thenThrow(new RuntimeException("Connection refused"));
+        when(restTemplate.postForEntity(
+                eq(inventoryServiceUrl + "/inventory/update"),
+                any(InventoryUpdateRequest.class),
+                eq(InventoryUpdateResponse.class)))
+                .thenThrow(rejection("Product not found: 9999"));
 
         // When & Then
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             orderService.placeOrder(request);
         });
 
-        assertTrue(exception.getMessage().contains("Failed to fetch inventory"));
+        assertEquals("Product not found: 9999", exception.getMessage());
         verify(orderRepository, never()).save(any());
     }
 
@@ -129,15 +172,11 @@ class OrderServiceTest {
         request.setProductId(1001L);
         request.setQuantity(100); // More than available
 
-        InventoryBatchDto batchDto = new InventoryBatchDto(1L, 50, LocalDate.of(2026, 6, 25));
-        InventoryResponse inventoryResponse = new InventoryResponse(
-                1001L, "Laptop", Arrays.asList(batchDto)
-        );
-
-        when(restTemplate.getForEntity(
-                eq(inventoryServiceUrl + "/inventory/1001"),
-                eq(InventoryResponse.class)))
-                .thenReturn(new ResponseEntity<>(inventoryResponse, HttpStatus.OK));
+        when(restTemplate.postForEntity(
+                eq(inventoryServiceUrl + "/inventory/update"),
+                any(InventoryUpdateRequest.class),
+                eq(InventoryUpdateResponse.class)))
+                .thenThrow(rejection("Insufficient inventory. Required: 100, Available: 50"));
 
         // When & Then
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -155,16 +194,6 @@ class OrderServiceTest {
         request.setProductId(1001L);
         request.setQuantity(10);
 
-        InventoryBatchDto batchDto = new InventoryBatchDto(1L, 50, LocalDate.of(2026, 6, 25));
-        InventoryResponse inventoryResponse = new InventoryResponse(
-                1001L, "Laptop", Arrays.asList(batchDto)
-        );
-
-        when(restTemplate.getForEntity(
-                eq(inventoryServiceUrl + "/inventory/1001"),
-                eq(InventoryResponse.class)))
-                .thenReturn(new ResponseEntity<>(inventoryResponse, HttpStatus.OK));
-
         when(restTemplate.postForEntity(
                 eq(inventoryServiceUrl + "/inventory/update"),
                 any(InventoryUpdateRequest.class),
@@ -179,5 +208,212 @@ class OrderServiceTest {
         assertTrue(exception.getMessage().contains("Failed to update inventory"));
         verify(orderRepository, never()).save(any());
     }
-}
 
+    @Test
+    void testPlaceBulkOrder_Success() {
+        // Given
+        BulkOrderRequest request = new BulkOrderRequest(Arrays.asList(
+                new OrderRequest(1001L, 2),
+                new OrderRequest(1002L, 3)
+        ));
+
+        InventoryBulkUpdateResponse bulkResponse = new InventoryBulkUpdateResponse(Arrays.asList(
+                new InventoryUpdateResponse(Arrays.asList(1L), "Laptop", 66, "Inventory updated successfully"),
+                new InventoryUpdateResponse(Arrays.asList(9L, 10L), "Smartphone", 109, "Inventory updated successfully")
+        ), "Inventory updated successfully");
+
+        when(restTemplate.postForEntity(
+                eq(inventoryServiceUrl + "/inventory/update/bulk"),
+                any(InventoryBulkUpdateRequest.class),
+                eq(InventoryBulkUpdateResponse.class)))
+                .thenReturn(new ResponseEntity<>(bulkResponse, HttpStatus.OK));
+
+        when(orderRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            for (int i = 0; i < orders.size(); i++) {
+                orders.get(i).setOrderId(100L + i);
+            }
+            return orders;
+        });
+
+        // When
+        BulkOrderResponse response = orderService.placeBulkOrder(request);
+
+        // Then - one inventory call and one batch insert for the whole cart
+        assertEquals(2, response.getOrders().size());
+        assertEquals(100L, response.getOrders().get(0).getOrderId());
+        assertEquals("Laptop", response.getOrders().get(0).getProductName());
+        assertEquals(101L, response.getOrders().get(1).getOrderId());
+        assertEquals("Smartphone", response.getOrders().get(1).getProductName());
+        assertEquals(Arrays.asList(9L, 10L), response.getOrders().get(1).getReservedFromBatchIds());
+        verify(restTemplate, never()).getForEntity(anyString(), any());
+        verify(orderRepository, times(1)).insertAll(anyList());
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void testPlaceBulkOrder_InventoryRejects() {
+        // Given
+        BulkOrderRequest request = new BulkOrderRequest(Arrays.asList(
+                new OrderRequest(1001L, 2),
+                new OrderRequest(1002L, 10000)
+        ));
+
+        when(restTemplate.postForEntity(
+                eq(inventoryServiceUrl + "/inventory/update/bulk"),
+                any(InventoryBulkUpdateRequest.class),
+                eq(InventoryBulkUpdateResponse.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+
+        // When & Then - no order is written for any line
+        assertThrows(IllegalArgumentException.class, () -> orderService.placeBulkOrder(request));
+        verify(orderRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void testPlaceOrder_WithHold_ConfirmsAfterCommit() {
+        // Given
+        ReflectionTestUtils.setField(orderService, "inventoryHolds", true);
+        when(restTemplate.postForEntity(
+                eq(inventoryServiceUrl + "/inventory/hold"),
+                any(InventoryUpdateRequest.class),
+                eq(InventoryHoldResponse.class)))
+                .thenReturn(new ResponseEntity<>(hold(7L), HttpStatus.OK));
+        List<OrderStatus> savedStatuses = new ArrayList<>();
+        when(orderRepository.saveAndFlush(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            savedStatuses.add(order.getStatus());
+            order.setOrderId(1L);
+            return order;
+        });
+        when(restTemplate.postForEntity(inventoryServiceUrl + "/inventory/hold/7/confirm", null, InventoryHoldResponse.class))
+                .thenReturn(new ResponseEntity<>(hold(7L), HttpStatus.OK));
+
+        // When
+        OrderResponse response = orderService.placeOrder(new OrderRequest(1001L, 10));
+
+        // Then - the order was saved PENDING, confirmed after, and only then marked PLACED
+        assertEquals(1L, response.getOrderId());
+        assertEquals(List.of(1L), response.getReservedFromBatchIds());
+        InOrder inOrder = inOrder(orderRepository, restTemplate);
+        assertEquals(List.of(OrderStatus.PENDING), savedStatuses);
+        inOrder.verify(orderRepository).saveAndFlush(any(Order.class));
+        inOrder.verify(restTemplate).postForEntity(inventoryServiceUrl + "/inventory/hold/7/confirm", null, InventoryHoldResponse.class);
+        inOrder.verify(orderRepository).resolvePending(List.of(new ReservationReply(null, 1L, OrderStatus.PLACED, null)));
+        verify(restTemplate, never()).postForEntity(eq(inventoryServiceUrl + "/inventory/hold/7/release"), any(), any());
+    }
+
+    @Test
+    void testPlaceOrder_WithHold_RejectsOrderWhenHoldExpired() {
+        // Given
+        ReflectionTestUtils.setField(orderService, "inventoryHolds", true);
+        when(restTemplate.postForEntity(
+                eq(inventoryServiceUrl + "/inventory/hold"),
+                any(InventoryUpdateRequest.class),
+                eq(InventoryHoldResponse.class)))
+                .thenReturn(new ResponseEntity<>(hold(7L), HttpStatus.OK));
+        when(orderRepository.saveAndFlush(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setOrderId(1L);
+            return order;
+        });
+        when(restTemplate.postForEntity(inventoryServiceUrl + "/inventory/hold/7/confirm", null, InventoryHoldResponse.class))
+                .thenThrow(new HttpClientErrorException(HttpStatus.CONFLICT));
+
+        // When & Then - the committed order is marked REJECTED instead of claiming stock it no longer has
+        assertThrows(RuntimeException.class, () -> orderService.placeOrder(new OrderRequest(1001L, 10)));
+        verify(orderRepository).resolvePending(List.of(new ReservationReply(null, 1L, OrderStatus.REJECTED, null)));
+    }
+
+    @Test
+    void testPlaceOrder_WithHold_ReleasesWhenInsertFails() {
+        // Given
+        ReflectionTestUtils.setField(orderService, "inventoryHolds", true);
+        when(restTemplate.postForEntity(
+                eq(inventoryServiceUrl + "/inventory/hold"),
+                any(InventoryUpdateRequest.class),
+                eq(InventoryHoldResponse.class)))
+                .thenReturn(new ResponseEntity<>(hold(7L), HttpStatus.OK));
+        when(orderRepository.saveAndFlush(any(Order.class))).thenThrow(new RuntimeException("insert failed"));
+
+        // When & Then - the held stock is handed back instead of leaking until the hold expires
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> orderService.placeOrder(new OrderRequest(1001L, 10)));
+
+        assertEquals("insert failed", exception.getMessage());
+        verify(restTemplate, times(1)).postForEntity(inventoryServiceUrl + "/inventory/hold/7/release", null, InventoryHoldResponse.class);
+        verify(restTemplate, never()).postForEntity(eq(inventoryServiceUrl + "/inventory/hold/7/confirm"), any(), any());
+    }
+
+    @Test
+    void testPlaceBulkOrder_WithHolds_ReleasesWhenInsertFails() {
+        // Given
+        ReflectionTestUtils.setField(orderService, "inventoryHolds", true);
+        when(restTemplate.postForEntity(
+                eq(inventoryServiceUrl + "/inventory/hold/bulk"),
+                any(InventoryBulkUpdateRequest.class),
+                eq(InventoryBulkHoldResponse.class)))
+                .thenReturn(new ResponseEntity<>(new InventoryBulkHoldResponse(List.of(hold(7L), hold(8L)), "Inventory held"), HttpStatus.OK));
+        when(orderRepository.insertAll(anyList())).thenThrow(new RuntimeException("insert failed"));
+
+        // When & Then - all held stock is handed back in one call, and nothing is confirmed
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> orderService.placeBulkOrder(
+                new BulkOrderRequest(List.of(new OrderRequest(1001L, 2), new OrderRequest(1002L, 3)))));
+
+        assertEquals("insert failed", exception.getMessage());
+        verify(restTemplate, times(1)).postForEntity(inventoryServiceUrl + "/inventory/hold/bulk/release",
+                new InventoryHoldIdsRequest(List.of(7L, 8L)), InventoryBulkHoldResponse.class);
+        verify(restTemplate, never()).postForEntity(eq(inventoryServiceUrl + "/inventory/hold/bulk/confirm"), any(), any());
+    }
+
+    @Test
+    void testPlaceBulkOrder_WithHolds_ConfirmsAfterCommit() {
+        // Given
+        ReflectionTestUtils.setField(orderService, "inventoryHolds", true);
+        when(restTemplate.postForEntity(
+                eq(inventoryServiceUrl + "/inventory/hold/bulk"),
+                any(InventoryBulkUpdateRequest.class),
+                eq(InventoryBulkHoldResponse.class)))
+                .thenReturn(new ResponseEntity<>(new InventoryBulkHoldResponse(List.of(hold(7L), hold(8L)), "Inventory held"), HttpStatus.OK));
+        List<OrderStatus> insertedStatuses = new ArrayList<>();
+        when(orderRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            for (int i = 0; i < orders.size(); i++) {
+                orders.get(i).setOrderId(100L + i);
+                insertedStatuses.add(orders.get(i).getStatus());
+            }
+            return orders;
+        });
+
+        // When
+        BulkOrderResponse response = orderService.placeBulkOrder(
+                new BulkOrderRequest(List.of(new OrderRequest(1001L, 2), new OrderRequest(1002L, 3))));
+
+        // Then - the orders are committed as PENDING before their holds are confirmed
+        assertEquals("PLACED", response.getOrders().get(1).getStatus());
+        assertEquals(List.of(OrderStatus.PENDING, OrderStatus.PENDING), insertedStatuses);
+        InOrder inOrder = inOrder(orderRepository, restTemplate);
+        inOrder.verify(orderRepository).insertAll(anyList());
+        inOrder.verify(restTemplate).postForEntity(inventoryServiceUrl + "/inventory/hold/bulk/confirm",
+                new InventoryHoldIdsRequest(List.of(7L, 8L)), InventoryBulkHoldResponse.class);
+        inOrder.verify(orderRepository).resolvePending(List.of(
+                new ReservationReply(null, 100L, OrderStatus.PLACED, null),
+                new ReservationReply(null, 101L, OrderStatus.PLACED, null)));
+    }
+
+    private InventoryHoldResponse hold(Long holdId) {
+        InventoryHoldResponse hold = new InventoryHoldResponse();
+        hold.setHoldId(holdId);
+        hold.setStatus("HELD");
+        hold.setReservedBatchIds(List.of(1L));
+        hold.setProductName("Laptop");
+        hold.setRemainingQuantity(40);
+        return hold;
+    }
+
+    private HttpClientErrorException rejection(String message) {
+        HttpClientErrorException exception = new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+        exception.setBodyConvertFunction(type -> new InventoryUpdateResponse(null, null, null, message));
+        return exception;
+    }
+}
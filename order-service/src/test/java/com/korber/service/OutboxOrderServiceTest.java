@@ -0,0 +1,100 @@
+package com.korber.service;
+
+import com.korber.cache.InventoryAvailabilityCache;
+import com.korber.dto.*;
+import com.korber.model.Order;
+import com.korber.model.OrderStatus;
+import com.korber.model.OutboxMessage;
+import com.korber.model.OutboxStatus;
+import com.korber.repository.OrderRepository;
+import com.korber.repository.OutboxMessageRepository;
+import com.korber.service.impl.OutboxOrderServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxOrderServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OutboxMessageRepository outboxRepository;
+
+    @Spy
+    private InventoryAvailabilityCache availabilityCache = new InventoryAvailabilityCache(100, 60000);
+
+    @InjectMocks
+    private OutboxOrderServiceImpl orderService;
+
+    @Test
+    void testPlaceOrder_StoresPendingOrderAndOutboxMessage() {
+        // Given
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setOrderId(1L);
+            return order;
+        });
+
+        // When
+        OrderResponse response = orderService.placeOrder(new OrderRequest(1001L, 10));
+
+        // Then - accepted without an inventory call; the relay reserves the stock later
+        assertEquals(1L, response.getOrderId());
+        assertEquals("PENDING", response.getStatus());
+        assertTrue(response.getReservedFromBatchIds().isEmpty());
+        verify(outboxRepository).save(argThat((OutboxMessage message) -> message.getOrderId().equals(1L)
+                && message.getProductId().equals(1001L)
+                && message.getQuantity() == 10
+                && message.getStatus() == OutboxStatus.NEW));
+    }
+
+    @Test
+    void testPlaceOrder_RejectedFromCachedAvailability() {
+        // Given
+        availabilityCache.record(1001L, new InventoryUpdateResponse(List.of(1L), "Laptop", 5, "ok"));
+
+        // When & Then - nothing is written
+        assertThrows(IllegalArgumentException.class, () -> orderService.placeOrder(new OrderRequest(1001L, 10)));
+        verify(orderRepository, never()).save(any());
+        verify(outboxRepository, never()).save(any());
+    }
+
+    @Test
+    void testPlaceBulkOrder_OneMessagePerLine() {
+        // Given
+        when(orderRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            for (int i = 0; i < orders.size(); i++) {
+                orders.get(i).setOrderId(100L + i);
+            }
+            return orders;
+        });
+
+        // When
+        BulkOrderResponse response = orderService.placeBulkOrder(new BulkOrderRequest(Arrays.asList(
+                new OrderRequest(1001L, 2),
+                new OrderRequest(1002L, 3)
+        )));
+
+        // Then
+        assertEquals(2, response.getOrders().size());
+        assertEquals("PENDING", response.getOrders().get(1).getStatus());
+        verify(orderRepository).insertAll(argThat(orders -> orders.stream()
+                .allMatch(order -> order.getStatus() == OrderStatus.PENDING)));
+        verify(outboxRepository).saveAll(argThat((List<OutboxMessage> messages) -> messages.size() == 2
+                && messages.get(0).getOrderId().equals(100L)
+                && messages.get(1).getOrderId().equals(101L)));
+    }
+}
@@ -0,0 +1,220 @@
+package com.korber.service;
+
+import com.korber.cache.InventoryAvailabilityCache;
+import com.korber.dto.*;
+import com.korber.model.Order;
+import com.korber.model.OrderStatus;
+import com.korber.outbox.ReservationReply;
+import com.korber.repository.OrderRepository;
+import com.korber.service.impl.ReactiveOrderServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveOrderServiceTest {
+
+    private OrderRepository orderRepository;
+    private ExecutorService persistenceExecutor;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        persistenceExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistenceExecutor.shutdownNow();
+    }
+
+    @Test
+    void testPlaceOrder_Success() {
+        // Given
+        ReactiveOrderServiceImpl orderService = serviceAnswering(HttpStatus.OK,
+                "{\"reservedBatchIds\":[1],\"productName\":\"Laptop\",\"remainingQuantity\":40,"
+                        + "\"message\":\"Inventory updated successfully\"}");
+
+        Order savedOrder = new Order();
+        savedOrder.setOrderId(1L);
+        savedOrder.setProductId(1001L);
+        savedOrder.setProductName("Laptop");
+        savedOrder.setQuantity(10);
+        savedOrder.setStatus(OrderStatus.PLACED);
+        savedOrder.setOrderDate(LocalDate.now());
+        when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
+
+        // When
+        OrderResponse response = orderService.placeOrderAsync(new OrderRequest(1001L, 10)).join();
+
+        // Then
+        assertEquals(1L, response.getOrderId());
+        assertEquals("Laptop", response.getProductName());
+        assertEquals("PLACED", response.getStatus());
+        assertEquals(List.of(1L), response.getReservedFromBatchIds());
+        verify(orderRepository, times(1)).save(any(Order.class));
+    }
+
+    @Test
+    void testPlaceOrder_InsufficientInventory() {
+        // Given
+        ReactiveOrderServiceImpl orderService = serviceAnswering(HttpStatus.BAD_REQUEST,
+                "{\"message\":\"Insufficient inventory. Required: 100, Available: 50\"}");
+
+        // When & Then - blocking callers see the same exception as with the RestTemplate pipeline
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> orderService.placeOrder(new OrderRequest(1001L, 100)));
+
+        assertTrue(exception.getMessage().contains("Insufficient inventory"));
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void testPlaceOrder_InventoryServerError() {
+        // Given
+        ReactiveOrderServiceImpl orderService = serviceAnswering(HttpStatus.INTERNAL_SERVER_ERROR, "{}");
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> orderService.placeOrder(new OrderRequest(1001L, 10)));
+
+        assertFalse(exception instanceof IllegalArgumentException);
+        assertTrue(exception.getMessage().contains("Failed to update inventory"));
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void testPlaceOrder_ReturnsBeforeInventoryAnswers() {
+        // Given - Inventory Service never answers
+        ReactiveOrderServiceImpl orderService = service(request -> Mono.never());
+
+        // When
+        CompletableFuture<OrderResponse> pending = orderService.placeOrderAsync(new OrderRequest(1001L, 10));
+
+        // Then - the caller is not blocked and nothing is persisted yet
+        assertFalse(pending.isDone());
+        verify(orderRepository, never()).save(any());
+        pending.cancel(true);
+    }
+
+    @Test
+    void testPlaceBulkOrder_Success() {
+        // Given
+        ReactiveOrderServiceImpl orderService = serviceAnswering(HttpStatus.OK,
+                "{\"results\":["
+                        + "{\"reservedBatchIds\":[1],\"productName\":\"Laptop\",\"remainingQuantity\":66},"
+                        + "{\"reservedBatchIds\":[9,10],\"productName\":\"Smartphone\",\"remainingQuantity\":109}],"
+                        + "\"message\":\"Inventory updated successfully\"}");
+
+        when(orderRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            for (int i = 0; i < orders.size(); i++) {
+                orders.get(i).setOrderId(100L + i);
+            }
+            return orders;
+        });
+
+        // When
+        BulkOrderResponse response = orderService.placeBulkOrder(new BulkOrderRequest(Arrays.asList(
+                new OrderRequest(1001L, 2),
+                new OrderRequest(1002L, 3)
+        )));
+
+        // Then
+        assertEquals(2, response.getOrders().size());
+        assertEquals(100L, response.getOrders().get(0).getOrderId());
+        assertEquals("Smartphone", response.getOrders().get(1).getProductName());
+        assertEquals(Arrays.asList(9L, 10L), response.getOrders().get(1).getReservedFromBatchIds());
+        verify(orderRepository, times(1)).insertAll(anyList());
+    }
+
+    @Test
+    void testPlaceOrder_WithHold_ConfirmsAfterCommit() {
+        // Given
+        List<String> calls = new CopyOnWriteArrayList<>();
+        ReactiveOrderServiceImpl orderService = service(request -> {
+            calls.add(request.url().getPath());
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body("{\"holdId\":7,\"status\":\"HELD\",\"reservedBatchIds\":[1],"
+                            + "\"productName\":\"Laptop\",\"remainingQuantity\":40}")
+                    .build());
+        });
+        ReflectionTestUtils.setField(orderService, "inventoryHolds", true);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setOrderId(1L);
+            return order;
+        });
+
+        // When
+        OrderResponse response = orderService.placeOrder(new OrderRequest(1001L, 10));
+
+        // Then - saved PENDING, confirmed, then marked PLACED
+        assertEquals(1L, response.getOrderId());
+        assertEquals(List.of("/inventory/hold", "/inventory/hold/7/confirm"), calls);
+        verify(orderRepository).saveAndFlush(argThat(order -> order.getOrderId() == 1L));
+        verify(orderRepository).resolvePending(List.of(new ReservationReply(null, 1L, OrderStatus.PLACED, null)));
+    }
+
+    @Test
+    void testPlaceOrder_WithHold_ReleasesWhenInsertFails() {
+        // Given
+        List<String> calls = new CopyOnWriteArrayList<>();
+        ReactiveOrderServiceImpl orderService = service(request -> {
+            calls.add(request.url().getPath());
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body("{\"holdId\":7,\"status\":\"HELD\",\"reservedBatchIds\":[1],"
+                            + "\"productName\":\"Laptop\",\"remainingQuantity\":40}")
+                    .build());
+        });
+        ReflectionTestUtils.setField(orderService, "inventoryHolds", true);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenThrow(new RuntimeException("insert failed"));
+
+        // When & Then - the hold is released and never confirmed
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> orderService.placeOrder(new OrderRequest(1001L, 10)));
+
+        assertEquals("insert failed", exception.getMessage());
+        assertEquals(List.of("/inventory/hold", "/inventory/hold/7/release"), calls);
+    }
+
+    private ReactiveOrderServiceImpl serviceAnswering(HttpStatus status, String body) {
+        return service(request -> Mono.just(ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build()));
+    }
+
+    private ReactiveOrderServiceImpl service(ExchangeFunction inventory) {
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://localhost:8081")
+                .exchangeFunction(inventory)
+                .build();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        return new ReactiveOrderServiceImpl(orderRepository, webClient, persistenceExecutor, transactionTemplate,
+                new InventoryAvailabilityCache(100, 60000));
+    }
+}